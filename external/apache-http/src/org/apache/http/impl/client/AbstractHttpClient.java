@@ -32,10 +32,10 @@
 package org.apache.http.impl.client;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.net.URI;
 import java.lang.reflect.UndeclaredThrowableException;
+import java.util.LogSite;
+import java.util.LogUtil;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -87,6 +87,11 @@ import org.apache.http.protocol.HttpRequestExecutor;
  */
 @Deprecated
 public abstract class AbstractHttpClient implements HttpClient {
+    private static final LogSite LOG_SITE_AHC_EXECUTE = new LogSite(LogUtil.AHC_EXECUTE,
+            new Class[]{ HttpHost.class, HttpRequest.class, HttpContext.class },
+            new String[]{ "target", "request", "context" },
+            HttpResponse.class);
+
 
     private final Log log = LogFactory.getLog(getClass());
 
@@ -522,13 +527,11 @@ public abstract class AbstractHttpClient implements HttpClient {
                                       HttpContext context)
         throws IOException, ClientProtocolException {
 
-        MyReflectLog(
-                new Class[]{ HttpHost.class, HttpRequest.class, HttpContext.class },
-                new Object[]{ target, request, context },
-                HttpResponse.class,
-                "pass",
-                "AHC_EXECUTE"
-        );
+        if (LogUtil.isEnabled(LogUtil.AHC_EXECUTE)) {
+            LogUtil.MyReflectLog(LOG_SITE_AHC_EXECUTE,
+                    new Object[]{ target, request, context },
+                    "pass");
+        }
 
         if (request == null) {
             throw new IllegalArgumentException
@@ -708,20 +711,6 @@ public abstract class AbstractHttpClient implements HttpClient {
         return result;
     }
 
-    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String typeName) {
-        try {
-            Class<?> logDataTypeClass = Class.forName("android.util.LogData$LOG_DATA_TYPE");
-            Field runtimeExecField = logDataTypeClass.getField(typeName);
-
-            Class<?> logUtilClass = Class.forName("android.util.LogUtil");
-            Method method = logUtilClass.getMethod("MyLogB", logDataTypeClass, Class[].class, Object[].class, Class.class, Object.class);
-
-            Object runtimeExec = runtimeExecField.get(null);
-            method.invoke(null, runtimeExec, argClasses, argValues, returnClass, returnValue);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
 
 
 } // class AbstractHttpClient
@@ -0,0 +1,22 @@
+LOCAL_PATH:= $(call my-dir)
+
+include $(CLEAR_VARS)
+
+LOCAL_SRC_FILES := lian_traced.cpp
+LOCAL_MODULE := lian_traced
+LOCAL_SHARED_LIBRARIES := liblog libcutils
+LOCAL_CFLAGS := -Wall -Werror
+LOCAL_INIT_RC := lian_traced.rc
+# Loaded by android.util.LogSharedRing in the traced processes.
+LOCAL_REQUIRED_MODULES := liblian_ring_jni
+
+include $(BUILD_EXECUTABLE)
+
+include $(CLEAR_VARS)
+
+LOCAL_SRC_FILES := lian_ring_jni.cpp
+LOCAL_MODULE := liblian_ring_jni
+LOCAL_SHARED_LIBRARIES := liblog
+LOCAL_CFLAGS := -Wall -Werror
+
+include $(BUILD_SHARED_LIBRARY)
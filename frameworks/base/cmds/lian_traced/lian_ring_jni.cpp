@@ -0,0 +1,59 @@
+/*
+ * liblian_ring_jni: ordered accesses to the ring positions for
+ * android.util.LogSharedRing.
+ *
+ * libcore.io.Memory only does plain loads and stores, and ART's volatile
+ * fields on arm64 (ldar/stlr) do not order them. The producer reads readPos
+ * with acquire, so it never overwrites data the daemon has not copied yet, and
+ * publishes writePos with release, so the daemon never sees a position ahead
+ * of the data. These pair with the daemon's accesses in lian_traced.cpp.
+ */
+
+#define LOG_TAG "lian_ring_jni"
+
+#include <jni.h>
+#include <stdint.h>
+
+#include <atomic>
+
+#include <cutils/log.h>
+
+namespace {
+
+const char kClassName[] = "android/util/LogSharedRing";
+
+std::atomic<uint32_t>* position(jlong address) {
+    return reinterpret_cast<std::atomic<uint32_t>*>(static_cast<uintptr_t>(address));
+}
+
+jint loadAcquire(JNIEnv*, jclass, jlong address) {
+    return static_cast<jint>(position(address)->load(std::memory_order_acquire));
+}
+
+void storeRelease(JNIEnv*, jclass, jlong address, jint value) {
+    position(address)->store(static_cast<uint32_t>(value), std::memory_order_release);
+}
+
+const JNINativeMethod kMethods[] = {
+    { "nativeLoadAcquire", "(J)I", reinterpret_cast<void*>(loadAcquire) },
+    { "nativeStoreRelease", "(JI)V", reinterpret_cast<void*>(storeRelease) },
+};
+
+}  // namespace
+
+jint JNI_OnLoad(JavaVM* vm, void*) {
+    JNIEnv* env;
+    if (vm->GetEnv(reinterpret_cast<void**>(&env), JNI_VERSION_1_6) != JNI_OK) {
+        return JNI_ERR;
+    }
+    jclass clazz = env->FindClass(kClassName);
+    if (clazz == nullptr) {
+        ALOGE("cannot find %s", kClassName);
+        return JNI_ERR;
+    }
+    if (env->RegisterNatives(clazz, kMethods, sizeof(kMethods) / sizeof(kMethods[0])) != JNI_OK) {
+        ALOGE("cannot register natives of %s", kClassName);
+        return JNI_ERR;
+    }
+    return JNI_VERSION_1_6;
+}
@@ -0,0 +1,408 @@
+/*
+ * lian_traced: drains the shared-memory trace rings of processes running with
+ * saveType=6 (android.util.LogSharedRing) into per-process segment files.
+ *
+ * A traced process creates an ashmem ring, connects to the abstract socket
+ * "lian_traced" and sends a hello message with the ring fd attached. The
+ * connection stays open for the life of the process; when it closes, the
+ * daemon drains what is left in the ring, so events copied before a crash are
+ * still written.
+ *
+ * Ring layout (native byte order, positions are free-running 32-bit counters):
+ *    0 magic "LRNG"   4 version   8 capacity (power of two)   12 pid
+ *   64 writePos (producer)
+ *  128 readPos (daemon)
+ *  192 droppedBatches  196 droppedBytes (producer; batches that did not fit)
+ *  256 data
+ *
+ * Ring contents are complete binary trace records, written unchanged to
+ * /data/misc/lian_trace/<package>/analysis.<pid>.bin. Once a package directory
+ * reaches persist.lian_trace.quota_mb (the same quota the lian_trace service
+ * applies), further ring contents are consumed and discarded.
+ *
+ * Accepted sockets are non-blocking and wait in the poll set until their hello
+ * arrives, so a slow or silent client never stalls draining the other rings.
+ */
+
+#define LOG_TAG "lian_traced"
+
+#include <arpa/inet.h>
+#include <dirent.h>
+#include <errno.h>
+#include <fcntl.h>
+#include <poll.h>
+#include <stddef.h>
+#include <stdint.h>
+#include <stdio.h>
+#include <string.h>
+#include <sys/mman.h>
+#include <sys/socket.h>
+#include <sys/stat.h>
+#include <sys/un.h>
+#include <time.h>
+#include <unistd.h>
+
+#include <algorithm>
+#include <atomic>
+#include <map>
+#include <string>
+#include <vector>
+
+#include <cutils/log.h>
+#include <cutils/properties.h>
+
+namespace {
+
+const char kSocketName[] = "lian_traced";
+const char kOutputDir[] = "/data/misc/lian_trace/";
+const char kPackagesList[] = "/data/system/packages.list";
+const char kQuotaProperty[] = "persist.lian_trace.quota_mb";
+const int64_t kDefaultQuotaMb = 1024;
+
+const uint32_t kMagic = 0x474e524c;
+const uint32_t kVersion = 1;
+const size_t kHeaderSize = 256;
+const size_t kCapacityOffset = 8;
+const size_t kWritePosOffset = 64;
+const size_t kReadPosOffset = 128;
+const size_t kDroppedBatchesOffset = 192;
+const size_t kDroppedBytesOffset = 196;
+
+const uint32_t kMaxCapacity = 64 * 1024 * 1024;
+const size_t kMaxPackageName = 256;
+const int kDrainIntervalMs = 20;
+const int kMaxClients = 256;
+const int64_t kHandshakeTimeoutMs = 1000;
+
+struct Client {
+    int socket = -1;
+    // Until the hello arrives the client has no ring and is only polled for it.
+    int64_t handshakeDeadline = 0;
+    pid_t pid = 0;
+    uid_t uid = 0;
+    std::string packageName;
+    uint8_t* ring = nullptr;
+    size_t mapSize = 0;
+    uint32_t capacity = 0;
+    int out = -1;
+    uint32_t reportedBatches = 0;
+    uint32_t reportedBytes = 0;
+    uint64_t writtenBytes = 0;
+};
+
+// Bytes in each package directory: measured when the first segment of the
+// package is opened, then counted as rings are drained.
+std::map<std::string, uint64_t> packageBytes;
+
+int64_t uptimeMillis() {
+    timespec now;
+    clock_gettime(CLOCK_MONOTONIC, &now);
+    return static_cast<int64_t>(now.tv_sec) * 1000 + now.tv_nsec / 1000000;
+}
+
+uint64_t quotaBytes() {
+    return static_cast<uint64_t>(property_get_int64(kQuotaProperty, kDefaultQuotaMb)) * 1024 * 1024;
+}
+
+uint64_t directorySize(const std::string& dir) {
+    DIR* d = opendir(dir.c_str());
+    if (d == nullptr) {
+        return 0;
+    }
+    uint64_t size = 0;
+    while (dirent* entry = readdir(d)) {
+        struct stat st;
+        std::string path = dir + "/" + entry->d_name;
+        if (entry->d_name[0] != '.' && stat(path.c_str(), &st) == 0 && S_ISREG(st.st_mode)) {
+            size += st.st_size;
+        }
+    }
+    closedir(d);
+    return size;
+}
+
+std::atomic<uint32_t>* field(Client& client, size_t offset) {
+    return reinterpret_cast<std::atomic<uint32_t>*>(client.ring + offset);
+}
+
+bool writeFully(int fd, const uint8_t* data, size_t count) {
+    while (count > 0) {
+        ssize_t n = TEMP_FAILURE_RETRY(write(fd, data, count));
+        if (n < 0) {
+            return false;
+        }
+        data += n;
+        count -= n;
+    }
+    return true;
+}
+
+// Copies everything the producer has published to the segment file.
+void drain(Client& client) {
+    uint32_t writePos = field(client, kWritePosOffset)->load(std::memory_order_acquire);
+    uint32_t readPos = field(client, kReadPosOffset)->load(std::memory_order_relaxed);
+    uint32_t available = writePos - readPos;
+    if (available > client.capacity) {
+        ALOGE("pid %d: corrupt ring positions %u/%u", client.pid, readPos, writePos);
+        available = 0;
+        readPos = writePos;
+    }
+    const uint8_t* data = client.ring + kHeaderSize;
+    uint64_t& total = packageBytes[client.packageName];
+    while (available > 0) {
+        uint32_t index = readPos & (client.capacity - 1);
+        uint32_t chunk = std::min(available, client.capacity - index);
+        if (client.out >= 0 && total + chunk > quotaBytes()) {
+            // Later ring contents of this client are consumed without being written.
+            ALOGW("pid %d (%s): package quota exceeded, dropping the rest of its trace", client.pid,
+                  client.packageName.c_str());
+            close(client.out);
+            client.out = -1;
+        }
+        if (client.out >= 0) {
+            if (writeFully(client.out, data + index, chunk)) {
+                client.writtenBytes += chunk;
+                total += chunk;
+            } else {
+                ALOGE("pid %d: write failed: %s", client.pid, strerror(errno));
+                close(client.out);
+                client.out = -1;
+            }
+        }
+        readPos += chunk;
+        available -= chunk;
+    }
+    field(client, kReadPosOffset)->store(readPos, std::memory_order_release);
+
+    uint32_t batches = field(client, kDroppedBatchesOffset)->load(std::memory_order_relaxed);
+    uint32_t bytes = field(client, kDroppedBytesOffset)->load(std::memory_order_relaxed);
+    if (batches != client.reportedBatches) {
+        ALOGW("pid %d (%s): ring overrun, %u batches / %u bytes dropped", client.pid,
+              client.packageName.c_str(), batches - client.reportedBatches, bytes - client.reportedBytes);
+        client.reportedBatches = batches;
+        client.reportedBytes = bytes;
+    }
+}
+
+bool isPackageOfUid(const std::string& packageName, uid_t uid) {
+    FILE* file = fopen(kPackagesList, "re");
+    if (file == nullptr) {
+        ALOGE("cannot read %s: %s", kPackagesList, strerror(errno));
+        return false;
+    }
+    char line[1024];
+    bool found = false;
+    while (!found && fgets(line, sizeof(line), file) != nullptr) {
+        char name[kMaxPackageName + 1];
+        unsigned long appId;
+        if (sscanf(line, "%256s %lu", name, &appId) == 2) {
+            // packages.list holds app ids; secondary users add a per-user offset.
+            found = packageName == name && (uid % 100000) == appId;
+        }
+    }
+    fclose(file);
+    return found;
+}
+
+int openSegment(const Client& client) {
+    std::string dir = std::string(kOutputDir) + client.packageName;
+    if (mkdir(dir.c_str(), 0770) < 0 && errno != EEXIST) {
+        ALOGE("cannot create %s: %s", dir.c_str(), strerror(errno));
+        return -1;
+    }
+    auto total = packageBytes.find(client.packageName);
+    if (total == packageBytes.end()) {
+        total = packageBytes.emplace(client.packageName, directorySize(dir)).first;
+    }
+    if (total->second >= quotaBytes()) {
+        ALOGW("pid %d (%s): package quota exceeded, not tracing", client.pid, client.packageName.c_str());
+        return -1;
+    }
+    // A restarted stream of the same pid goes to analysis.<pid>-<n>.bin.
+    std::string path = dir + "/analysis." + std::to_string(client.pid) + ".bin";
+    for (int n = 1; access(path.c_str(), F_OK) == 0; n++) {
+        path = dir + "/analysis." + std::to_string(client.pid) + "-" + std::to_string(n) + ".bin";
+    }
+    int fd = TEMP_FAILURE_RETRY(open(path.c_str(), O_WRONLY | O_CREAT | O_EXCL | O_CLOEXEC, 0660));
+    if (fd < 0) {
+        ALOGE("cannot open %s: %s", path.c_str(), strerror(errno));
+    }
+    return fd;
+}
+
+void closeClient(Client& client) {
+    if (client.ring != nullptr) {
+        // The process is gone or misbehaved; keep whatever it already published.
+        drain(client);
+        ALOGI("pid %d (%s): closed after %llu bytes", client.pid, client.packageName.c_str(),
+              static_cast<unsigned long long>(client.writtenBytes));
+        munmap(client.ring, client.mapSize);
+        client.ring = nullptr;
+    }
+    if (client.out >= 0) {
+        fsync(client.out);
+        close(client.out);
+        client.out = -1;
+    }
+    close(client.socket);
+    client.socket = -1;
+}
+
+enum HandshakeResult { kHandshakeDone, kHandshakePending, kHandshakeFailed };
+
+// Reads the hello message and the ring fd that comes with it, without blocking.
+HandshakeResult handshake(Client& client) {
+    uint8_t hello[16 + kMaxPackageName];
+    iovec iov = { hello, sizeof(hello) };
+    char control[CMSG_SPACE(sizeof(int))];
+    msghdr msg = {};
+    msg.msg_iov = &iov;
+    msg.msg_iovlen = 1;
+    msg.msg_control = control;
+    msg.msg_controllen = sizeof(control);
+    ssize_t n = TEMP_FAILURE_RETRY(recvmsg(client.socket, &msg, MSG_CMSG_CLOEXEC | MSG_DONTWAIT));
+    if (n < 0 && (errno == EAGAIN || errno == EWOULDBLOCK)) {
+        return kHandshakePending;
+    }
+    int ringFd = -1;
+    cmsghdr* cmsg = CMSG_FIRSTHDR(&msg);
+    if (cmsg != nullptr && cmsg->cmsg_level == SOL_SOCKET && cmsg->cmsg_type == SCM_RIGHTS) {
+        memcpy(&ringFd, CMSG_DATA(cmsg), sizeof(int));
+    }
+    if (n < 16 || ringFd < 0) {
+        ALOGW("pid %d: bad hello", client.pid);
+        if (ringFd >= 0) {
+            close(ringFd);
+        }
+        return kHandshakeFailed;
+    }
+    uint32_t fields[4];
+    memcpy(fields, hello, sizeof(fields));
+    uint32_t magic = ntohl(fields[0]);
+    uint32_t version = ntohl(fields[1]);
+    uint32_t capacity = ntohl(fields[2]);
+    uint32_t nameLength = ntohl(fields[3]);
+    if (magic != kMagic || version != kVersion || nameLength > kMaxPackageName
+            || static_cast<size_t>(n) < 16 + nameLength
+            || capacity == 0 || capacity > kMaxCapacity || (capacity & (capacity - 1)) != 0) {
+        ALOGW("pid %d: unsupported hello", client.pid);
+        close(ringFd);
+        return kHandshakeFailed;
+    }
+    client.packageName.assign(reinterpret_cast<char*>(hello + 16), nameLength);
+    if (!isPackageOfUid(client.packageName, client.uid)) {
+        ALOGW("pid %d: uid %d does not own %s", client.pid, client.uid, client.packageName.c_str());
+        close(ringFd);
+        return kHandshakeFailed;
+    }
+
+    client.mapSize = kHeaderSize + capacity;
+    void* ring = mmap(nullptr, client.mapSize, PROT_READ | PROT_WRITE, MAP_SHARED, ringFd, 0);
+    close(ringFd);
+    if (ring == MAP_FAILED) {
+        ALOGE("pid %d: mmap failed: %s", client.pid, strerror(errno));
+        return kHandshakeFailed;
+    }
+    client.ring = static_cast<uint8_t*>(ring);
+    uint32_t ringMagic;
+    memcpy(&ringMagic, client.ring, sizeof(ringMagic));
+    if (ringMagic != kMagic || field(client, kCapacityOffset)->load() != capacity) {
+        ALOGW("pid %d: ring header does not match hello", client.pid);
+        munmap(client.ring, client.mapSize);
+        client.ring = nullptr;
+        return kHandshakeFailed;
+    }
+    client.capacity = capacity;
+    client.out = openSegment(client);
+    ALOGI("pid %d (%s): connected, %u byte ring", client.pid, client.packageName.c_str(), capacity);
+    return kHandshakeDone;
+}
+
+int listenSocket() {
+    int fd = socket(AF_UNIX, SOCK_STREAM | SOCK_CLOEXEC, 0);
+    if (fd < 0) {
+        return -1;
+    }
+    sockaddr_un addr = {};
+    addr.sun_family = AF_UNIX;
+    // Abstract namespace: leading NUL, no terminator.
+    memcpy(addr.sun_path + 1, kSocketName, sizeof(kSocketName) - 1);
+    socklen_t length = offsetof(sockaddr_un, sun_path) + 1 + sizeof(kSocketName) - 1;
+    if (bind(fd, reinterpret_cast<sockaddr*>(&addr), length) < 0 || listen(fd, 16) < 0) {
+        ALOGE("cannot listen on @%s: %s", kSocketName, strerror(errno));
+        close(fd);
+        return -1;
+    }
+    return fd;
+}
+
+}  // namespace
+
+int main() {
+    int server = listenSocket();
+    if (server < 0) {
+        return 1;
+    }
+    std::map<int, Client> clients;
+    std::vector<pollfd> fds;
+    while (true) {
+        fds.clear();
+        fds.push_back({ server, POLLIN, 0 });
+        for (auto& entry : clients) {
+            fds.push_back({ entry.first, POLLIN, 0 });
+        }
+        int ready = TEMP_FAILURE_RETRY(poll(fds.data(), fds.size(), kDrainIntervalMs));
+        if (ready < 0) {
+            ALOGE("poll failed: %s", strerror(errno));
+            return 1;
+        }
+        int64_t now = uptimeMillis();
+        for (size_t i = 1; i < fds.size(); i++) {
+            auto it = clients.find(fds[i].fd);
+            Client& client = it->second;
+            bool keep;
+            if (client.ring == nullptr) {
+                HandshakeResult result = kHandshakePending;
+                if (fds[i].revents != 0) {
+                    result = handshake(client);
+                }
+                if (result == kHandshakePending && now >= client.handshakeDeadline) {
+                    ALOGW("pid %d: no hello within %lld ms", client.pid,
+                          static_cast<long long>(kHandshakeTimeoutMs));
+                    result = kHandshakeFailed;
+                }
+                keep = result != kHandshakeFailed;
+            } else {
+                // Producers send nothing after the hello, so any readiness means the process went away.
+                keep = fds[i].revents == 0;
+            }
+            if (!keep) {
+                closeClient(client);
+                clients.erase(it);
+            }
+        }
+        if (fds[0].revents & POLLIN) {
+            int fd = TEMP_FAILURE_RETRY(accept4(server, nullptr, nullptr, SOCK_CLOEXEC | SOCK_NONBLOCK));
+            if (fd >= 0) {
+                Client client;
+                client.socket = fd;
+                client.handshakeDeadline = now + kHandshakeTimeoutMs;
+                ucred cred;
+                socklen_t credLength = sizeof(cred);
+                if (clients.size() >= static_cast<size_t>(kMaxClients)
+                        || getsockopt(fd, SOL_SOCKET, SO_PEERCRED, &cred, &credLength) < 0) {
+                    closeClient(client);
+                } else {
+                    client.pid = cred.pid;
+                    client.uid = cred.uid;
+                    clients[fd] = client;
+                }
+            }
+        }
+        for (auto& entry : clients) {
+            if (entry.second.ring != nullptr) {
+                drain(entry.second);
+            }
+        }
+    }
+}
@@ -43,6 +43,7 @@ import android.text.TextUtils;
 import android.util.Log;
 
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import com.android.internal.R;
 import com.google.android.collect.Maps;
@@ -152,6 +153,15 @@ import java.util.concurrent.TimeoutException;
  * {@link IllegalStateException} if they are used on the main thread.
  */
 public class AccountManager {
+    private static final LogSite LOG_SITE_AM_GET_ACCOUNTS = new LogSite(LogData.LOG_DATA_TYPE.AM_GET_ACCOUNTS,
+            new Class[0],
+            new String[0],
+            Account[].class);
+    private static final LogSite LOG_SITE_AM_GET_ACCOUNTS_BY_TYPE = new LogSite(LogData.LOG_DATA_TYPE.AM_GET_ACCOUNTS_BY_TYPE,
+            new Class[]{ String.class },
+            new String[]{ "type" },
+            Account[].class);
+
     private static final String TAG = "AccountManager";
 
     public static final int ERROR_CODE_REMOTE_EXCEPTION = 1;
@@ -463,11 +473,11 @@ public class AccountManager {
     @RequiresPermission(GET_ACCOUNTS)
     public Account[] getAccounts() {
         try {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.AM_GET_ACCOUNTS,
-                    null,
-                    null,
-                    Account[].class,
-                    "pass");
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.AM_GET_ACCOUNTS)) {
+                LogUtil.MyLogB(LOG_SITE_AM_GET_ACCOUNTS,
+                        null,
+                        "pass");
+            }
             return mService.getAccounts(null, mContext.getOpPackageName());
         } catch (RemoteException e) {
             throw e.rethrowFromSystemServer();
@@ -559,11 +569,11 @@ public class AccountManager {
     @NonNull
     @RequiresPermission(GET_ACCOUNTS)
     public Account[] getAccountsByType(String type) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.AM_GET_ACCOUNTS_BY_TYPE,
-                new Class[]{String.class},
-                new Object[]{type},
-                Account[].class,
-                "pass");
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.AM_GET_ACCOUNTS_BY_TYPE)) {
+            LogUtil.MyLogB(LOG_SITE_AM_GET_ACCOUNTS_BY_TYPE,
+                    new Object[]{type},
+                    "pass");
+        }
         return getAccountsByTypeAsUser(type, Process.myUserHandle());
     }
 
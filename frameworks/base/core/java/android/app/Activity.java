@@ -673,6 +673,15 @@ public class Activity extends ContextThemeWrapper
         Window.Callback, KeyEvent.Callback,
         OnCreateContextMenuListener, ComponentCallbacks2,
         Window.OnWindowDismissedCallback, WindowControllerCallback {
+    private static final LogSite LOG_SITE_A_ON_CREATE = new LogSite(LogData.LOG_DATA_TYPE.A_ON_CREATE,
+            new Class[]{ Bundle.class },
+            new String[]{ "savedInstanceState" },
+            null);
+    private static final LogSite LOG_SITE_A_START_ACTIVITY = new LogSite(LogData.LOG_DATA_TYPE.A_START_ACTIVITY,
+            new Class[]{ Intent.class, Bundle.class },
+            new String[]{ "intent", "options" },
+            null);
+
     private static final String TAG = "Activity";
     private static final boolean DEBUG_LIFECYCLE = false;
 
@@ -926,11 +935,11 @@ public class Activity extends ContextThemeWrapper
     @MainThread
     @CallSuper
     protected void onCreate(@Nullable Bundle savedInstanceState) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.A_ON_CREATE,
-                new Class[] {Bundle.class},
-                new Object[]{savedInstanceState},
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.A_ON_CREATE)) {
+            LogUtil.MyLogB(LOG_SITE_A_ON_CREATE,
+                    new Object[]{savedInstanceState},
+                    null);
+        }
 
         if (DEBUG_LIFECYCLE) Slog.v(TAG, "onCreate " + this + ": " + savedInstanceState);
         if (mLastNonConfigurationInstances != null) {
@@ -4508,11 +4517,11 @@ public class Activity extends ContextThemeWrapper
      */
     @Override
     public void startActivity(Intent intent, @Nullable Bundle options) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.A_START_ACTIVITY,
-                new Class[] {Intent.class, Bundle.class},
-                new Object[]{intent, options},
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.A_START_ACTIVITY)) {
+            LogUtil.MyLogB(LOG_SITE_A_START_ACTIVITY,
+                    new Object[]{intent, options},
+                    null);
+        }
 
         if (options != null) {
             startActivityForResult(intent, -1, options);
@@ -62,6 +62,7 @@ import android.os.UserHandle;
 import android.text.TextUtils;
 import android.util.DisplayMetrics;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import android.util.Size;
 
@@ -112,6 +113,19 @@ import java.util.List;
  * </p>
  */
 public class ActivityManager {
+    private static final LogSite LOG_SITE_AM_GET_RUNNING_TASKS = new LogSite(LogData.LOG_DATA_TYPE.AM_GET_RUNNING_TASKS,
+            new Class[]{ int.class },
+            new String[]{ "maxNum" },
+            List.class);
+    private static final LogSite LOG_SITE_AM_GET_RUNNING_APP_PROCESSES = new LogSite(LogData.LOG_DATA_TYPE.AM_GET_RUNNING_APP_PROCESSES,
+            new Class[0],
+            new String[0],
+            List.class);
+    private static final LogSite LOG_SITE_AM_KILL_BACKGROUND_PROCESSES = new LogSite(LogData.LOG_DATA_TYPE.AM_KILL_BACKGROUND_PROCESSES,
+            new Class[]{ String.class },
+            new String[]{ "packageName" },
+            null);
+
     private static String TAG = "ActivityManager";
 
     private static int gMaxRecentTasks = -1;
@@ -1857,7 +1871,9 @@ public class ActivityManager {
     @Deprecated
     public List<RunningTaskInfo> getRunningTasks(int maxNum)
             throws SecurityException {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.AM_GET_RUNNING_TASKS, new Class[]{ int.class }, new Object[]{ maxNum }, List.class, "pass");
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.AM_GET_RUNNING_TASKS)) {
+            LogUtil.MyLogB(LOG_SITE_AM_GET_RUNNING_TASKS, new Object[]{ maxNum }, "pass");
+        }
         try {
             return ActivityManagerNative.getDefault().getTasks(maxNum, 0);
         } catch (RemoteException e) {
@@ -3066,7 +3082,9 @@ public class ActivityManager {
      * specified.
      */
     public List<RunningAppProcessInfo> getRunningAppProcesses() {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.AM_GET_RUNNING_APP_PROCESSES, null, null, List.class, "pass");
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.AM_GET_RUNNING_APP_PROCESSES)) {
+            LogUtil.MyLogB(LOG_SITE_AM_GET_RUNNING_APP_PROCESSES, null, "pass");
+        }
         try {
             return ActivityManagerNative.getDefault().getRunningAppProcesses();
         } catch (RemoteException e) {
@@ -3158,7 +3176,9 @@ public class ActivityManager {
      */
     public void killBackgroundProcesses(String packageName) {
         try {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.AM_KILL_BACKGROUND_PROCESSES, new Class[]{ String.class }, new Object[]{ packageName }, null, null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.AM_KILL_BACKGROUND_PROCESSES)) {
+                LogUtil.MyLogB(LOG_SITE_AM_KILL_BACKGROUND_PROCESSES, new Object[]{ packageName }, null);
+            }
 
             ActivityManagerNative.getDefault().killBackgroundProcesses(packageName,
                     UserHandle.myUserId());
@@ -156,6 +156,11 @@ final class RemoteServiceException extends AndroidRuntimeException {
  * {@hide}
  */
 public final class ActivityThread {
+    private static final LogSite LOG_SITE_AT_HANDLE_RECEIVER = new LogSite(LogData.LOG_DATA_TYPE.AT_HANDLE_RECEIVER,
+            new Class[]{ ReceiverData.class },
+            new String[]{ "data" },
+            null);
+
     /** @hide */
     public static final String TAG = "ActivityThread";
     private static final android.graphics.Bitmap.Config THUMBNAIL_FORMAT = Bitmap.Config.RGB_565;
@@ -1542,6 +1547,7 @@ public final class ActivityThread {
                     if (mInitialApplication != null) {
                         mInitialApplication.onTerminate();
                     }
+                    LogUtil.flushTrace();
                     Looper.myLooper().quit();
                     break;
                 case NEW_INTENT:
@@ -2989,11 +2995,11 @@ public final class ActivityThread {
     }
 
     private void handleReceiver(ReceiverData data) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.AT_HANDLE_RECEIVER,
-                new Class[] {ReceiverData.class},
-                new Object[]{data},
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.AT_HANDLE_RECEIVER)) {
+            LogUtil.MyLogB(LOG_SITE_AT_HANDLE_RECEIVER,
+                    new Object[]{data},
+                    null);
+        }
 
         // If we are getting ready to gc after going to the background, well
         // we are back active so skip it.
@@ -3924,6 +3930,10 @@ public final class ActivityThread {
             QueuedWork.waitToFinish();
         }
 
+        // A stopped process can be killed without notice; start writing out buffered
+        // trace events without blocking the main thread.
+        LogUtil.requestFlushTrace();
+
         // Schedule the call to tell the activity manager we have
         // stopped.  We don't do this immediately, because we want to
         // have a chance for any other pending work (in particular memory
@@ -5009,6 +5019,11 @@ public final class ActivityThread {
         }
 
         WindowManagerGlobal.getInstance().trimMemory(level);
+
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            // The process is on the LRU list and may be killed by the low memory killer.
+            LogUtil.requestFlushTrace();
+        }
     }
 
     private void setupGraphicsSupport(Context context, File cacheDir) {
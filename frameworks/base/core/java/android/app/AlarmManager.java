@@ -32,6 +32,7 @@ import android.util.ArrayMap;
 import android.util.Log;
 
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import libcore.util.ZoneInfoDB;
 
@@ -78,6 +79,11 @@ import java.io.IOException;
  * Context.getSystemService(Context.ALARM_SERVICE)}.
  */
 public class AlarmManager {
+    private static final LogSite LOG_SITE_AM_SET_ALARM_CLOCK = new LogSite(LogData.LOG_DATA_TYPE.AM_SET_ALARM_CLOCK,
+            new Class[]{ AlarmClockInfo.class, PendingIntent.class },
+            new String[]{ "info", "operation" },
+            null);
+
     private static final String TAG = "AlarmManager";
 
     /**
@@ -586,7 +592,9 @@ public class AlarmManager {
      * @see android.content.Intent#filterEquals
      */
     public void setAlarmClock(AlarmClockInfo info, PendingIntent operation) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.AM_SET_ALARM_CLOCK, new Class[]{ AlarmClockInfo.class, PendingIntent.class }, new Object[]{ info, operation }, null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.AM_SET_ALARM_CLOCK)) {
+            LogUtil.MyLogB(LOG_SITE_AM_SET_ALARM_CLOCK, new Object[]{ info, operation }, null);
+        }
 
         setImpl(RTC_WAKEUP, info.getTriggerTime(), WINDOW_EXACT, 0, 0, operation,
                 null, null, null, null, info);
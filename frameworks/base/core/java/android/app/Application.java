@@ -26,6 +26,7 @@ import android.content.ContextWrapper;
 import android.content.Intent;
 import android.content.res.Configuration;
 import android.os.Bundle;
+import android.util.LogUtil;
 
 /**
  * Base class for maintaining global application state. You can provide your own
@@ -192,6 +193,7 @@ public class Application extends ContextWrapper implements ComponentCallbacks2 {
         mLoadedApk = ContextImpl.getImpl(context).mPackageInfo;
 
         packageName = getPackageName();
+        LogUtil.onPackageNameChanged();
     }
 
     /* package */ void dispatchActivityCreated(Activity activity, Bundle savedInstanceState) {
@@ -77,6 +77,7 @@ import android.provider.Settings;
 import android.util.ArrayMap;
 import android.util.Log;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import android.view.Display;
 
@@ -98,6 +99,15 @@ import java.util.Objects;
 
 /** @hide */
 public class ApplicationPackageManager extends PackageManager {
+    private static final LogSite LOG_SITE_APM_GET_INSTALLED_PACKAGES = new LogSite(LogData.LOG_DATA_TYPE.APM_GET_INSTALLED_PACKAGES,
+            new Class[]{ int.class },
+            new String[]{ "flags" },
+            List.class);
+    private static final LogSite LOG_SITE_APM_SET_COMPONENT_ENABLED_SETTING = new LogSite(LogData.LOG_DATA_TYPE.APM_SET_COMPONENT_ENABLED_SETTING,
+            new Class[]{ ComponentName.class, int.class, int.class },
+            new String[]{ "componentName", "newState", "flags" },
+            null);
+
     private static final String TAG = "ApplicationPackageManager";
     private final static boolean DEBUG_ICONS = false;
 
@@ -667,11 +677,11 @@ public class ApplicationPackageManager extends PackageManager {
     @SuppressWarnings("unchecked")
     @Override
     public List<PackageInfo> getInstalledPackages(int flags) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.APM_GET_INSTALLED_PACKAGES,
-                new Class[]{int.class},
-                new Object[]{flags},
-                List.class,
-                "pass");
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.APM_GET_INSTALLED_PACKAGES)) {
+            LogUtil.MyLogB(LOG_SITE_APM_GET_INSTALLED_PACKAGES,
+                    new Object[]{flags},
+                    "pass");
+        }
         return getInstalledPackagesAsUser(flags, mContext.getUserId());
     }
 
@@ -2092,11 +2102,11 @@ public class ApplicationPackageManager extends PackageManager {
     public void setComponentEnabledSetting(ComponentName componentName,
                                            int newState, int flags) {
         try {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.APM_SET_COMPONENT_ENABLED_SETTING,
-                    new Class[]{ComponentName.class, int.class, int.class},
-                    new Object[]{componentName, newState, flags},
-                    null,
-                    null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.APM_SET_COMPONENT_ENABLED_SETTING)) {
+                LogUtil.MyLogB(LOG_SITE_APM_SET_COMPONENT_ENABLED_SETTING,
+                        new Object[]{componentName, newState, flags},
+                        null);
+            }
             mPM.setComponentEnabledSetting(componentName, newState, flags, mContext.getUserId());
         } catch (RemoteException e) {
             throw e.rethrowFromSystemServer();
@@ -94,11 +94,11 @@ class ReceiverRestrictedContext extends ContextWrapper {
     @Override
     public Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter,
             String broadcastPermission, Handler scheduler) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CI_REGISTER_RECEIVER,
-                new Class[] {BroadcastReceiver.class, IntentFilter.class, String.class, Handler.class},
-                new Object[]{receiver, filter, broadcastPermission, scheduler},
-                Intent.class,
-                "pass");
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CI_REGISTER_RECEIVER)) {
+            LogUtil.MyLogB(LOG_SITE_CI_REGISTER_RECEIVER,
+                    new Object[]{receiver, filter, broadcastPermission, scheduler},
+                    "pass");
+        }
         if (receiver == null) {
             // Allow retrieving current sticky broadcast; this is safe since we
             // aren't actually registering a receiver.
@@ -134,6 +134,15 @@ class ReceiverRestrictedContext extends ContextWrapper {
  * context object for Activity and other application components.
  */
 class ContextImpl extends Context {
+    private static final LogSite LOG_SITE_CI_REGISTER_RECEIVER = new LogSite(LogData.LOG_DATA_TYPE.CI_REGISTER_RECEIVER,
+            new Class[]{ BroadcastReceiver.class, IntentFilter.class, String.class, Handler.class },
+            new String[]{ "receiver", "filter", "broadcastPermission", "scheduler" },
+            Intent.class);
+    private static final LogSite LOG_SITE_CI_GET_SYSTEM_SERVICE = new LogSite(LogData.LOG_DATA_TYPE.CI_GET_SYSTEM_SERVICE,
+            new Class[]{ String.class },
+            new String[]{ "name" },
+            Object.class);
+
     private final static String TAG = "ContextImpl";
     private final static boolean DEBUG = false;
 
@@ -1512,11 +1521,11 @@ class ContextImpl extends Context {
 
     @Override
     public Object getSystemService(String name) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CI_GET_SYSTEM_SERVICE,
-                new Class[] {String.class},
-                new Object[]{name},
-                Object.class,
-                "pass");
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CI_GET_SYSTEM_SERVICE)) {
+            LogUtil.MyLogB(LOG_SITE_CI_GET_SYSTEM_SERVICE,
+                    new Object[]{name},
+                    "pass");
+        }
         return SystemServiceRegistry.getSystemService(this, name);
     }
 
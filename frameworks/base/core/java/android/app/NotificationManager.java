@@ -42,6 +42,7 @@ import android.service.notification.ZenModeConfig;
 import android.util.ArraySet;
 import android.util.Log;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 
 import java.lang.annotation.Retention;
@@ -94,6 +95,11 @@ import java.util.Objects;
  */
 public class NotificationManager
 {
+    private static final LogSite LOG_SITE_NM_NOTIFY = new LogSite(LogData.LOG_DATA_TYPE.NM_NOTIFY,
+            new Class[]{ String.class, int.class, Notification.class },
+            new String[]{ "tag", "id", "notification" },
+            null);
+
     private static String TAG = "NotificationManager";
     private static boolean localLOGV = false;
 
@@ -283,7 +289,9 @@ public class NotificationManager
      */
     public void notify(String tag, int id, Notification notification)
     {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.NM_NOTIFY, new Class[]{ String.class, int.class, Notification.class }, new Object[]{ tag, id, notification }, null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.NM_NOTIFY)) {
+            LogUtil.MyLogB(LOG_SITE_NM_NOTIFY, new Object[]{ tag, id, notification }, null);
+        }
         notifyAsUser(tag, id, notification, new UserHandle(UserHandle.myUserId()));
     }
 
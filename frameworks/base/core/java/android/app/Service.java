@@ -30,6 +30,7 @@ import android.os.RemoteException;
 import android.os.IBinder;
 import android.util.Log;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 
 import java.io.FileDescriptor;
@@ -304,6 +305,11 @@ import java.lang.annotation.RetentionPolicy;
  *      bind}
  */
 public abstract class Service extends ContextWrapper implements ComponentCallbacks2 {
+    private static final LogSite LOG_SITE_S_ON_CREATE = new LogSite(LogData.LOG_DATA_TYPE.S_ON_CREATE,
+            new Class[0],
+            new String[0],
+            null);
+
     private static final String TAG = "Service";
 
     /**
@@ -345,11 +351,11 @@ public abstract class Service extends ContextWrapper implements ComponentCallbac
      * Called by the system when the service is first created.  Do not call this method directly.
      */
     public void onCreate() {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.S_ON_CREATE,
-                null,
-                null,
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.S_ON_CREATE)) {
+            LogUtil.MyLogB(LOG_SITE_S_ON_CREATE,
+                    null,
+                    null);
+        }
     }
 
     /**
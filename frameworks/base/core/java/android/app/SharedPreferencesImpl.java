@@ -26,6 +26,7 @@ import android.system.StructStat;
 import android.util.Log;
 
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import com.google.android.collect.Maps;
 
@@ -54,6 +55,47 @@ import java.util.concurrent.CountDownLatch;
 import libcore.io.IoUtils;
 
 final class SharedPreferencesImpl implements SharedPreferences {
+    private static final LogSite LOG_SITE_SPI_EI_GET_STRING = new LogSite(LogData.LOG_DATA_TYPE.SPI_EI_GET_STRING,
+            new Class[]{ String.class, String.class },
+            new String[]{ "key", "defValue" },
+            String.class);
+    private static final LogSite LOG_SITE_SPI_EI_GET_INT = new LogSite(LogData.LOG_DATA_TYPE.SPI_EI_GET_INT,
+            new Class[]{ String.class, int.class },
+            new String[]{ "key", "defValue" },
+            int.class);
+    private static final LogSite LOG_SITE_SPI_EI_GET_LONG = new LogSite(LogData.LOG_DATA_TYPE.SPI_EI_GET_LONG,
+            new Class[]{ String.class, long.class },
+            new String[]{ "key", "defValue" },
+            long.class);
+    private static final LogSite LOG_SITE_SPI_EI_GET_FLOAT = new LogSite(LogData.LOG_DATA_TYPE.SPI_EI_GET_FLOAT,
+            new Class[]{ String.class, float.class },
+            new String[]{ "key", "defValue" },
+            float.class);
+    private static final LogSite LOG_SITE_SPI_EI_GET_BOOLEAN = new LogSite(LogData.LOG_DATA_TYPE.SPI_EI_GET_BOOLEAN,
+            new Class[]{ String.class, boolean.class },
+            new String[]{ "key", "defValue" },
+            boolean.class);
+    private static final LogSite LOG_SITE_SPI_EI_PUT_STRING = new LogSite(LogData.LOG_DATA_TYPE.SPI_EI_PUT_STRING,
+            new Class[]{ String.class, String.class },
+            new String[]{ "key", "value" },
+            Editor.class);
+    private static final LogSite LOG_SITE_SPI_EI_PUT_INT = new LogSite(LogData.LOG_DATA_TYPE.SPI_EI_PUT_INT,
+            new Class[]{ String.class, int.class },
+            new String[]{ "key", "value" },
+            Editor.class);
+    private static final LogSite LOG_SITE_SPI_EI_PUT_LONG = new LogSite(LogData.LOG_DATA_TYPE.SPI_EI_PUT_LONG,
+            new Class[]{ String.class, long.class },
+            new String[]{ "key", "value" },
+            Editor.class);
+    private static final LogSite LOG_SITE_SPI_EI_PUT_FLOAT = new LogSite(LogData.LOG_DATA_TYPE.SPI_EI_PUT_FLOAT,
+            new Class[]{ String.class, float.class },
+            new String[]{ "key", "value" },
+            Editor.class);
+    private static final LogSite LOG_SITE_SPI_EI_PUT_BOOLEAN = new LogSite(LogData.LOG_DATA_TYPE.SPI_EI_PUT_BOOLEAN,
+            new Class[]{ String.class, boolean.class },
+            new String[]{ "key", "value" },
+            Editor.class);
+
     private static final String TAG = "SharedPreferencesImpl";
     private static final boolean DEBUG = false;
 
@@ -237,10 +279,11 @@ final class SharedPreferencesImpl implements SharedPreferences {
             String v = (String)mMap.get(key);
             String result = v != null ? v : defValue;
 
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SPI_EI_GET_STRING,
-                    new Class[]{ String.class, String.class },
-                    new Object[]{ key, defValue },
-                    String.class, result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SPI_EI_GET_STRING)) {
+                LogUtil.MyLogB(LOG_SITE_SPI_EI_GET_STRING,
+                        new Object[]{ key, defValue },
+                        result);
+            }
 
             return result;
         }
@@ -261,10 +304,11 @@ final class SharedPreferencesImpl implements SharedPreferences {
             Integer v = (Integer)mMap.get(key);
             int result = v != null ? v : defValue;
 
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SPI_EI_GET_INT,
-                    new Class[]{ String.class, int.class },
-                    new Object[]{ key, defValue },
-                    int.class, result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SPI_EI_GET_INT)) {
+                LogUtil.MyLogB(LOG_SITE_SPI_EI_GET_INT,
+                        new Object[]{ key, defValue },
+                        result);
+            }
 
             return result;
         }
@@ -275,10 +319,11 @@ final class SharedPreferencesImpl implements SharedPreferences {
             Long v = (Long)mMap.get(key);
             long result = v != null ? v : defValue;
 
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SPI_EI_GET_LONG,
-                    new Class[]{ String.class, long.class },
-                    new Object[]{ key, defValue },
-                    long.class, result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SPI_EI_GET_LONG)) {
+                LogUtil.MyLogB(LOG_SITE_SPI_EI_GET_LONG,
+                        new Object[]{ key, defValue },
+                        result);
+            }
 
             return result;
         }
@@ -289,10 +334,11 @@ final class SharedPreferencesImpl implements SharedPreferences {
             Float v = (Float)mMap.get(key);
             float result = v != null ? v : defValue;
 
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SPI_EI_GET_FLOAT,
-                    new Class[]{ String.class, float.class },
-                    new Object[]{ key, defValue },
-                    float.class, result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SPI_EI_GET_FLOAT)) {
+                LogUtil.MyLogB(LOG_SITE_SPI_EI_GET_FLOAT,
+                        new Object[]{ key, defValue },
+                        result);
+            }
             return result;
         }
     }
@@ -301,10 +347,11 @@ final class SharedPreferencesImpl implements SharedPreferences {
             awaitLoadedLocked();
             Boolean v = (Boolean)mMap.get(key);
             boolean result = v != null ? v : defValue;
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SPI_EI_GET_BOOLEAN,
-                    new Class[]{ String.class, boolean.class },
-                    new Object[]{ key, defValue },
-                    boolean.class, result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SPI_EI_GET_BOOLEAN)) {
+                LogUtil.MyLogB(LOG_SITE_SPI_EI_GET_BOOLEAN,
+                        new Object[]{ key, defValue },
+                        result);
+            }
             return result;
         }
     }
@@ -351,10 +398,11 @@ final class SharedPreferencesImpl implements SharedPreferences {
         private boolean mClear = false;
 
         public Editor putString(String key, @Nullable String value) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SPI_EI_PUT_STRING,
-                    new Class[]{ String.class, String.class },
-                    new Object[]{ key, value },
-                    Editor.class, "pass");
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SPI_EI_PUT_STRING)) {
+                LogUtil.MyLogB(LOG_SITE_SPI_EI_PUT_STRING,
+                        new Object[]{ key, value },
+                        "pass");
+            }
 
             synchronized (this) {
                 mModified.put(key, value);
@@ -369,10 +417,11 @@ final class SharedPreferencesImpl implements SharedPreferences {
             }
         }
         public Editor putInt(String key, int value) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SPI_EI_PUT_INT,
-                    new Class[]{ String.class, int.class },
-                    new Object[]{ key, value },
-                    Editor.class, "pass");
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SPI_EI_PUT_INT)) {
+                LogUtil.MyLogB(LOG_SITE_SPI_EI_PUT_INT,
+                        new Object[]{ key, value },
+                        "pass");
+            }
 
             synchronized (this) {
                 mModified.put(key, value);
@@ -380,10 +429,11 @@ final class SharedPreferencesImpl implements SharedPreferences {
             }
         }
         public Editor putLong(String key, long value) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SPI_EI_PUT_LONG,
-                    new Class[]{ String.class, long.class },
-                    new Object[]{ key, value },
-                    Editor.class, "pass");
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SPI_EI_PUT_LONG)) {
+                LogUtil.MyLogB(LOG_SITE_SPI_EI_PUT_LONG,
+                        new Object[]{ key, value },
+                        "pass");
+            }
 
             synchronized (this) {
                 mModified.put(key, value);
@@ -391,10 +441,11 @@ final class SharedPreferencesImpl implements SharedPreferences {
             }
         }
         public Editor putFloat(String key, float value) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SPI_EI_PUT_FLOAT,
-                    new Class[]{ String.class, float.class },
-                    new Object[]{ key, value },
-                    Editor.class, "pass");
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SPI_EI_PUT_FLOAT)) {
+                LogUtil.MyLogB(LOG_SITE_SPI_EI_PUT_FLOAT,
+                        new Object[]{ key, value },
+                        "pass");
+            }
 
             synchronized (this) {
                 mModified.put(key, value);
@@ -402,10 +453,11 @@ final class SharedPreferencesImpl implements SharedPreferences {
             }
         }
         public Editor putBoolean(String key, boolean value) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SPI_EI_PUT_BOOLEAN,
-                    new Class[]{ String.class, boolean.class },
-                    new Object[]{ key, value },
-                    Editor.class, "pass");
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SPI_EI_PUT_BOOLEAN)) {
+                LogUtil.MyLogB(LOG_SITE_SPI_EI_PUT_BOOLEAN,
+                        new Object[]{ key, value },
+                        "pass");
+            }
 
             synchronized (this) {
                 mModified.put(key, value);
@@ -54,6 +54,7 @@ import android.telephony.TelephonyManager;
 import android.util.Log;
 
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import com.android.internal.annotations.VisibleForTesting;
 import com.android.org.conscrypt.TrustedCertificateStore;
@@ -95,6 +96,11 @@ import java.util.Set;
  * guide. </div>
  */
 public class DevicePolicyManager {
+    private static final LogSite LOG_SITE_DPM_RESET_PASSWORD = new LogSite(LogData.LOG_DATA_TYPE.DPM_RESET_PASSWORD,
+            new Class[]{ String.class, int.class },
+            new String[]{ "password", "flags" },
+            boolean.class);
+
     private static String TAG = "DevicePolicyManager";
 
     private final Context mContext;
@@ -2275,13 +2281,17 @@ public class DevicePolicyManager {
         if (mService != null) {
             try {
                 boolean result = mService.resetPassword(password, flags);
-                LogUtil.MyLogB(LogData.LOG_DATA_TYPE.DPM_RESET_PASSWORD, new Class[]{ String.class, int.class }, new Object[]{ password, flags }, boolean.class, result);
+                if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.DPM_RESET_PASSWORD)) {
+                    LogUtil.MyLogB(LOG_SITE_DPM_RESET_PASSWORD, new Object[]{ password, flags }, result);
+                }
                 return result;
             } catch (RemoteException e) {
                 throw e.rethrowFromSystemServer();
             }
         }
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.DPM_RESET_PASSWORD, new Class[]{ String.class, int.class }, new Object[]{ password, flags }, boolean.class, false);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.DPM_RESET_PASSWORD)) {
+            LogUtil.MyLogB(LOG_SITE_DPM_RESET_PASSWORD, new Object[]{ password, flags }, false);
+        }
         return false;
     }
 
@@ -26,6 +26,7 @@ import android.os.IBinder;
 import android.os.RemoteException;
 import android.util.Log;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import android.util.Slog;
 
@@ -46,6 +47,11 @@ import android.util.Slog;
  *
  */
 public abstract class BroadcastReceiver {
+    private static final LogSite LOG_SITE_BR_ABORT_BROADCAST = new LogSite(LogData.LOG_DATA_TYPE.BR_ABORT_BROADCAST,
+            new Class[0],
+            new String[0],
+            null);
+
     private PendingResult mPendingResult;
     private boolean mDebugUnregister;
 
@@ -533,7 +539,9 @@ public abstract class BroadcastReceiver {
      * Context.sendBroadcast}</strong></p>
      */
     public final void abortBroadcast() {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.BR_ABORT_BROADCAST, null, null, null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.BR_ABORT_BROADCAST)) {
+            LogUtil.MyLogB(LOG_SITE_BR_ABORT_BROADCAST, null, null);
+        }
 
         checkSynchronousHint();
         mPendingResult.mAbortBroadcast = true;
@@ -53,6 +53,7 @@ import android.util.EventLog;
 import android.util.Log;
 
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import com.android.internal.util.ArrayUtils;
 import com.android.internal.util.MimeIconUtils;
@@ -83,6 +84,11 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * developer guide.</p>
  */
 public abstract class ContentResolver {
+    private static final LogSite LOG_SITE_CR_REGISTER_CONTENT_OBSERVER = new LogSite(LogData.LOG_DATA_TYPE.CR_REGISTER_CONTENT_OBSERVER,
+            new Class[]{ Uri.class, boolean.class, ContentObserver.class, int.class },
+            new String[]{ "uri", "notifyForDescendents", "observer", "userHandle" },
+            null);
+
     /**
      * @deprecated instead use
      * {@link #requestSync(android.accounts.Account, String, android.os.Bundle)}
@@ -1655,10 +1661,11 @@ public abstract class ContentResolver {
     /** @hide - designated user version */
     public final void registerContentObserver(Uri uri, boolean notifyForDescendents,
             ContentObserver observer, @UserIdInt int userHandle) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CR_REGISTER_CONTENT_OBSERVER,
-                new Class[]{ Uri.class, boolean.class, ContentObserver.class, int.class },
-                new Object[]{ uri, notifyForDescendents, observer, userHandle },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CR_REGISTER_CONTENT_OBSERVER)) {
+            LogUtil.MyLogB(LOG_SITE_CR_REGISTER_CONTENT_OBSERVER,
+                    new Object[]{ uri, notifyForDescendents, observer, userHandle },
+                    null);
+        }
         try {
             getContentService().registerContentObserver(uri, notifyForDescendents,
                     observer.getContentObserver(), userHandle);
@@ -20,6 +20,7 @@ import android.os.Parcel;
 import android.os.Parcelable;
 import android.util.Log;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 
 import java.util.ArrayList;
@@ -32,6 +33,91 @@ import java.util.Set;
  * can process.
  */
 public final class ContentValues implements Parcelable {
+    private static final LogSite LOG_SITE_CV_PUT = new LogSite(LogData.LOG_DATA_TYPE.CV_PUT,
+            new Class[]{ String.class, String.class },
+            new String[]{ "key", "value" },
+            null);
+    private static final LogSite LOG_SITE_CV_PUT_2 = new LogSite(LogData.LOG_DATA_TYPE.CV_PUT,
+            new Class[]{ ContentValues.class },
+            new String[]{ "other" },
+            null);
+    private static final LogSite LOG_SITE_CV_PUT_3 = new LogSite(LogData.LOG_DATA_TYPE.CV_PUT,
+            new Class[]{ String.class, Byte.class },
+            new String[]{ "key", "value" },
+            null);
+    private static final LogSite LOG_SITE_CV_PUT_4 = new LogSite(LogData.LOG_DATA_TYPE.CV_PUT,
+            new Class[]{ String.class, Short.class },
+            new String[]{ "key", "value" },
+            null);
+    private static final LogSite LOG_SITE_CV_PUT_5 = new LogSite(LogData.LOG_DATA_TYPE.CV_PUT,
+            new Class[]{ String.class, Integer.class },
+            new String[]{ "key", "value" },
+            null);
+    private static final LogSite LOG_SITE_CV_PUT_6 = new LogSite(LogData.LOG_DATA_TYPE.CV_PUT,
+            new Class[]{ String.class, Long.class },
+            new String[]{ "key", "value" },
+            null);
+    private static final LogSite LOG_SITE_CV_PUT_7 = new LogSite(LogData.LOG_DATA_TYPE.CV_PUT,
+            new Class[]{ String.class, Float.class },
+            new String[]{ "key", "value" },
+            null);
+    private static final LogSite LOG_SITE_CV_PUT_8 = new LogSite(LogData.LOG_DATA_TYPE.CV_PUT,
+            new Class[]{ String.class, Double.class },
+            new String[]{ "key", "value" },
+            null);
+    private static final LogSite LOG_SITE_CV_PUT_9 = new LogSite(LogData.LOG_DATA_TYPE.CV_PUT,
+            new Class[]{ String.class, Boolean.class },
+            new String[]{ "key", "value" },
+            null);
+    private static final LogSite LOG_SITE_CV_PUT_10 = new LogSite(LogData.LOG_DATA_TYPE.CV_PUT,
+            new Class[]{ String.class, byte[].class },
+            new String[]{ "key", "value" },
+            null);
+    private static final LogSite LOG_SITE_CV_PUT_11 = new LogSite(LogData.LOG_DATA_TYPE.CV_PUT,
+            new Class[]{ String.class },
+            new String[]{ "key" },
+            null);
+    private static final LogSite LOG_SITE_CV_GET = new LogSite(LogData.LOG_DATA_TYPE.CV_GET,
+            new Class[]{ String.class },
+            new String[]{ "key" },
+            Object.class);
+    private static final LogSite LOG_SITE_CV_GET_2 = new LogSite(LogData.LOG_DATA_TYPE.CV_GET,
+            new Class[]{ String.class },
+            new String[]{ "key" },
+            String.class);
+    private static final LogSite LOG_SITE_CV_GET_3 = new LogSite(LogData.LOG_DATA_TYPE.CV_GET,
+            new Class[]{ String.class },
+            new String[]{ "key" },
+            Long.class);
+    private static final LogSite LOG_SITE_CV_GET_4 = new LogSite(LogData.LOG_DATA_TYPE.CV_GET,
+            new Class[]{ String.class },
+            new String[]{ "key" },
+            Integer.class);
+    private static final LogSite LOG_SITE_CV_GET_5 = new LogSite(LogData.LOG_DATA_TYPE.CV_GET,
+            new Class[]{ String.class },
+            new String[]{ "key" },
+            Short.class);
+    private static final LogSite LOG_SITE_CV_GET_6 = new LogSite(LogData.LOG_DATA_TYPE.CV_GET,
+            new Class[]{ String.class },
+            new String[]{ "key" },
+            Byte.class);
+    private static final LogSite LOG_SITE_CV_GET_7 = new LogSite(LogData.LOG_DATA_TYPE.CV_GET,
+            new Class[]{ String.class },
+            new String[]{ "key" },
+            Double.class);
+    private static final LogSite LOG_SITE_CV_GET_8 = new LogSite(LogData.LOG_DATA_TYPE.CV_GET,
+            new Class[]{ String.class },
+            new String[]{ "key" },
+            Float.class);
+    private static final LogSite LOG_SITE_CV_GET_9 = new LogSite(LogData.LOG_DATA_TYPE.CV_GET,
+            new Class[]{ String.class },
+            new String[]{ "key" },
+            Boolean.class);
+    private static final LogSite LOG_SITE_CV_GET_10 = new LogSite(LogData.LOG_DATA_TYPE.CV_GET,
+            new Class[]{ String.class },
+            new String[]{ "key" },
+            byte[].class);
+
     public static final String TAG = "ContentValues";
 
     /** Holds the actual values */
@@ -95,10 +181,11 @@ public final class ContentValues implements Parcelable {
      * @param value the data for the value to put
      */
     public void put(String key, String value) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_PUT,
-                new Class[]{ String.class, String.class },
-                new Object[]{ key, value },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_PUT)) {
+            LogUtil.MyLogB(LOG_SITE_CV_PUT,
+                    new Object[]{ key, value },
+                    null);
+        }
 
         mValues.put(key, value);
     }
@@ -109,10 +196,11 @@ public final class ContentValues implements Parcelable {
      * @param other the ContentValues from which to copy
      */
     public void putAll(ContentValues other) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_PUT,
-                new Class[]{ ContentValues.class },
-                new Object[]{ other },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_PUT)) {
+            LogUtil.MyLogB(LOG_SITE_CV_PUT_2,
+                    new Object[]{ other },
+                    null);
+        }
 
         mValues.putAll(other.mValues);
     }
@@ -124,10 +212,11 @@ public final class ContentValues implements Parcelable {
      * @param value the data for the value to put
      */
     public void put(String key, Byte value) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_PUT,
-                new Class[]{ String.class, Byte.class },
-                new Object[]{ key, value },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_PUT)) {
+            LogUtil.MyLogB(LOG_SITE_CV_PUT_3,
+                    new Object[]{ key, value },
+                    null);
+        }
 
         mValues.put(key, value);
     }
@@ -139,10 +228,11 @@ public final class ContentValues implements Parcelable {
      * @param value the data for the value to put
      */
     public void put(String key, Short value) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_PUT,
-                new Class[]{ String.class, Short.class },
-                new Object[]{ key, value },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_PUT)) {
+            LogUtil.MyLogB(LOG_SITE_CV_PUT_4,
+                    new Object[]{ key, value },
+                    null);
+        }
 
         mValues.put(key, value);
     }
@@ -154,10 +244,11 @@ public final class ContentValues implements Parcelable {
      * @param value the data for the value to put
      */
     public void put(String key, Integer value) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_PUT,
-                new Class[]{ String.class, Integer.class },
-                new Object[]{ key, value },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_PUT)) {
+            LogUtil.MyLogB(LOG_SITE_CV_PUT_5,
+                    new Object[]{ key, value },
+                    null);
+        }
         mValues.put(key, value);
     }
 
@@ -168,10 +259,11 @@ public final class ContentValues implements Parcelable {
      * @param value the data for the value to put
      */
     public void put(String key, Long value) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_PUT,
-                new Class[]{ String.class, Long.class },
-                new Object[]{ key, value },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_PUT)) {
+            LogUtil.MyLogB(LOG_SITE_CV_PUT_6,
+                    new Object[]{ key, value },
+                    null);
+        }
         mValues.put(key, value);
     }
 
@@ -182,10 +274,11 @@ public final class ContentValues implements Parcelable {
      * @param value the data for the value to put
      */
     public void put(String key, Float value) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_PUT,
-                new Class[]{ String.class, Float.class },
-                new Object[]{ key, value },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_PUT)) {
+            LogUtil.MyLogB(LOG_SITE_CV_PUT_7,
+                    new Object[]{ key, value },
+                    null);
+        }
         mValues.put(key, value);
     }
 
@@ -196,10 +289,11 @@ public final class ContentValues implements Parcelable {
      * @param value the data for the value to put
      */
     public void put(String key, Double value) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_PUT,
-                new Class[]{ String.class, Double.class },
-                new Object[]{ key, value },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_PUT)) {
+            LogUtil.MyLogB(LOG_SITE_CV_PUT_8,
+                    new Object[]{ key, value },
+                    null);
+        }
         mValues.put(key, value);
     }
 
@@ -210,10 +304,11 @@ public final class ContentValues implements Parcelable {
      * @param value the data for the value to put
      */
     public void put(String key, Boolean value) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_PUT,
-                new Class[]{ String.class, Boolean.class },
-                new Object[]{ key, value },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_PUT)) {
+            LogUtil.MyLogB(LOG_SITE_CV_PUT_9,
+                    new Object[]{ key, value },
+                    null);
+        }
         mValues.put(key, value);
     }
 
@@ -224,10 +319,11 @@ public final class ContentValues implements Parcelable {
      * @param value the data for the value to put
      */
     public void put(String key, byte[] value) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_PUT,
-                new Class[]{ String.class, byte[].class },
-                new Object[]{ key, value },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_PUT)) {
+            LogUtil.MyLogB(LOG_SITE_CV_PUT_10,
+                    new Object[]{ key, value },
+                    null);
+        }
         mValues.put(key, value);
     }
 
@@ -237,10 +333,11 @@ public final class ContentValues implements Parcelable {
      * @param key the name of the value to make null
      */
     public void putNull(String key) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_PUT,
-                new Class[]{ String.class },
-                new Object[]{ key },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_PUT)) {
+            LogUtil.MyLogB(LOG_SITE_CV_PUT_11,
+                    new Object[]{ key },
+                    null);
+        }
         mValues.put(key, null);
     }
 
@@ -289,10 +386,11 @@ public final class ContentValues implements Parcelable {
      */
     public Object get(String key) {
         Object result = mValues.get(key);
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_GET,
-                new Class[]{ String.class },
-                new Object[]{ key },
-                Object.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_GET)) {
+            LogUtil.MyLogB(LOG_SITE_CV_GET,
+                    new Object[]{ key },
+                    result);
+        }
         return result;
     }
 
@@ -305,10 +403,11 @@ public final class ContentValues implements Parcelable {
     public String getAsString(String key) {
         Object value = mValues.get(key);
         String result = value != null ? value.toString() : null;
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_GET,
-                new Class[]{ String.class },
-                new Object[]{ key },
-                String.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_GET)) {
+            LogUtil.MyLogB(LOG_SITE_CV_GET_2,
+                    new Object[]{ key },
+                    result);
+        }
         return result;
     }
 
@@ -338,10 +437,11 @@ public final class ContentValues implements Parcelable {
 //                return null;
             }
         }
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_GET,
-                new Class[]{ String.class },
-                new Object[]{ key },
-                Long.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_GET)) {
+            LogUtil.MyLogB(LOG_SITE_CV_GET_3,
+                    new Object[]{ key },
+                    result);
+        }
         return result;
     }
 
@@ -371,10 +471,11 @@ public final class ContentValues implements Parcelable {
 //                return null;
             }
         }
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_GET,
-                new Class[]{ String.class },
-                new Object[]{ key },
-                Integer.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_GET)) {
+            LogUtil.MyLogB(LOG_SITE_CV_GET_4,
+                    new Object[]{ key },
+                    result);
+        }
         return result;
     }
 
@@ -404,10 +505,11 @@ public final class ContentValues implements Parcelable {
 //                return null;
             }
         }
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_GET,
-                new Class[]{ String.class },
-                new Object[]{ key },
-                Short.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_GET)) {
+            LogUtil.MyLogB(LOG_SITE_CV_GET_5,
+                    new Object[]{ key },
+                    result);
+        }
         return result;
     }
 
@@ -437,10 +539,11 @@ public final class ContentValues implements Parcelable {
 //                return null;
             }
         }
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_GET,
-                new Class[]{ String.class },
-                new Object[]{ key },
-                Byte.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_GET)) {
+            LogUtil.MyLogB(LOG_SITE_CV_GET_6,
+                    new Object[]{ key },
+                    result);
+        }
         return result;
     }
 
@@ -470,10 +573,11 @@ public final class ContentValues implements Parcelable {
 //                return null;
             }
         }
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_GET,
-                new Class[]{ String.class },
-                new Object[]{ key },
-                Double.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_GET)) {
+            LogUtil.MyLogB(LOG_SITE_CV_GET_7,
+                    new Object[]{ key },
+                    result);
+        }
         return result;
     }
 
@@ -503,10 +607,11 @@ public final class ContentValues implements Parcelable {
 //                return null;
             }
         }
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_GET,
-                new Class[]{ String.class },
-                new Object[]{ key },
-                Float.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_GET)) {
+            LogUtil.MyLogB(LOG_SITE_CV_GET_8,
+                    new Object[]{ key },
+                    result);
+        }
         return result;
     }
 
@@ -534,10 +639,11 @@ public final class ContentValues implements Parcelable {
 //                return null;
             }
         }
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_GET,
-                new Class[]{ String.class },
-                new Object[]{ key },
-                Boolean.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_GET)) {
+            LogUtil.MyLogB(LOG_SITE_CV_GET_9,
+                    new Object[]{ key },
+                    result);
+        }
         return result;
     }
 
@@ -558,10 +664,11 @@ public final class ContentValues implements Parcelable {
         } else {
 //            return null;
         }
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CV_GET,
-                new Class[]{ String.class },
-                new Object[]{ key },
-                byte[].class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CV_GET)) {
+            LogUtil.MyLogB(LOG_SITE_CV_GET_10,
+                    new Object[]{ key },
+                    result);
+        }
         return result;
     }
 
@@ -34,6 +34,7 @@ import android.os.IBinder;
 import android.os.Looper;
 import android.os.UserHandle;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import android.view.Display;
 import android.view.DisplayAdjustments;
@@ -51,6 +52,35 @@ import java.io.InputStream;
  * the original Context.
  */
 public class ContextWrapper extends Context {
+    private static final LogSite LOG_SITE_CW_START_ACTIVITY = new LogSite(LogData.LOG_DATA_TYPE.CW_START_ACTIVITY,
+            new Class[]{ Intent.class },
+            new String[]{ "intent" },
+            null);
+    private static final LogSite LOG_SITE_CW_START_ACTIVITY_2 = new LogSite(LogData.LOG_DATA_TYPE.CW_START_ACTIVITY,
+            new Class[]{ Intent.class, Bundle.class },
+            new String[]{ "intent", "options" },
+            null);
+    private static final LogSite LOG_SITE_CW_SEND_BROADCAST = new LogSite(LogData.LOG_DATA_TYPE.CW_SEND_BROADCAST,
+            new Class[]{ Intent.class },
+            new String[]{ "intent" },
+            null);
+    private static final LogSite LOG_SITE_CW_SEND_BROADCAST_2 = new LogSite(LogData.LOG_DATA_TYPE.CW_SEND_BROADCAST,
+            new Class[]{ Intent.class, String.class },
+            new String[]{ "intent", "receiverPermission" },
+            null);
+    private static final LogSite LOG_SITE_CW_SEND_BROADCAST_3 = new LogSite(LogData.LOG_DATA_TYPE.CW_SEND_BROADCAST,
+            new Class[]{ Intent.class, String.class, Bundle.class },
+            new String[]{ "intent", "receiverPermission", "options" },
+            null);
+    private static final LogSite LOG_SITE_CW_SEND_BROADCAST_4 = new LogSite(LogData.LOG_DATA_TYPE.CW_SEND_BROADCAST,
+            new Class[]{ Intent.class, String.class, int.class },
+            new String[]{ "intent", "receiverPermission", "appOp" },
+            null);
+    private static final LogSite LOG_SITE_CW_START_SERVICE = new LogSite(LogData.LOG_DATA_TYPE.CW_START_SERVICE,
+            new Class[]{ Intent.class },
+            new String[]{ "service" },
+            ComponentName.class);
+
     Context mBase;
 
     public ContextWrapper(Context base) {
@@ -355,11 +385,11 @@ public class ContextWrapper extends Context {
 
     @Override
     public void startActivity(Intent intent) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CW_START_ACTIVITY,
-                new Class[] {Intent.class},
-                new Object[]{intent},
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CW_START_ACTIVITY)) {
+            LogUtil.MyLogB(LOG_SITE_CW_START_ACTIVITY,
+                    new Object[]{intent},
+                    null);
+        }
         mBase.startActivity(intent);
     }
 
@@ -382,11 +412,11 @@ public class ContextWrapper extends Context {
 
     @Override
     public void startActivity(Intent intent, Bundle options) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CW_START_ACTIVITY,
-                new Class[] {Intent.class, Bundle.class},
-                new Object[]{intent, options},
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CW_START_ACTIVITY)) {
+            LogUtil.MyLogB(LOG_SITE_CW_START_ACTIVITY_2,
+                    new Object[]{intent, options},
+                    null);
+        }
         mBase.startActivity(intent, options);
     }
 
@@ -430,21 +460,21 @@ public class ContextWrapper extends Context {
     
     @Override
     public void sendBroadcast(Intent intent) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CW_SEND_BROADCAST,
-                new Class[] {Intent.class},
-                new Object[]{intent},
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CW_SEND_BROADCAST)) {
+            LogUtil.MyLogB(LOG_SITE_CW_SEND_BROADCAST,
+                    new Object[]{intent},
+                    null);
+        }
         mBase.sendBroadcast(intent);
     }
 
     @Override
     public void sendBroadcast(Intent intent, String receiverPermission) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CW_SEND_BROADCAST,
-                new Class[] {Intent.class, String.class},
-                new Object[]{intent, receiverPermission},
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CW_SEND_BROADCAST)) {
+            LogUtil.MyLogB(LOG_SITE_CW_SEND_BROADCAST_2,
+                    new Object[]{intent, receiverPermission},
+                    null);
+        }
         mBase.sendBroadcast(intent, receiverPermission);
     }
 
@@ -458,22 +488,22 @@ public class ContextWrapper extends Context {
     @SystemApi
     @Override
     public void sendBroadcast(Intent intent, String receiverPermission, Bundle options) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CW_SEND_BROADCAST,
-                new Class[] {Intent.class, String.class, Bundle.class},
-                new Object[]{intent, receiverPermission, options},
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CW_SEND_BROADCAST)) {
+            LogUtil.MyLogB(LOG_SITE_CW_SEND_BROADCAST_3,
+                    new Object[]{intent, receiverPermission, options},
+                    null);
+        }
         mBase.sendBroadcast(intent, receiverPermission, options);
     }
 
     /** @hide */
     @Override
     public void sendBroadcast(Intent intent, String receiverPermission, int appOp) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CW_SEND_BROADCAST,
-                new Class[] {Intent.class, String.class, int.class},
-                new Object[]{intent, receiverPermission, appOp},
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CW_SEND_BROADCAST)) {
+            LogUtil.MyLogB(LOG_SITE_CW_SEND_BROADCAST_4,
+                    new Object[]{intent, receiverPermission, appOp},
+                    null);
+        }
         mBase.sendBroadcast(intent, receiverPermission, appOp);
     }
 
@@ -642,11 +672,11 @@ public class ContextWrapper extends Context {
 
     @Override
     public ComponentName startService(Intent service) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CW_START_SERVICE,
-                new Class[] {Intent.class},
-                new Object[]{service},
-                ComponentName.class,
-                "pass");
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CW_START_SERVICE)) {
+            LogUtil.MyLogB(LOG_SITE_CW_START_SERVICE,
+                    new Object[]{service},
+                    "pass");
+        }
         return mBase.startService(service);
     }
 
@@ -48,6 +48,7 @@ import android.util.ArraySet;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 
 import com.android.internal.util.XmlUtils;
@@ -620,6 +621,11 @@ import static android.content.ContentProvider.maybeAddUserId;
  * of all possible flags.
  */
 public class Intent implements Parcelable, Cloneable {
+    private static final LogSite LOG_SITE_CALL_PHONE = new LogSite(LogData.LOG_DATA_TYPE.CALL_PHONE,
+            new Class[]{ String.class },
+            new String[]{ "action" },
+            Intent.class);
+
     private static final String ATTR_ACTION = "action";
     private static final String TAG_CATEGORIES = "categories";
     private static final String ATTR_CATEGORY = "category";
@@ -6782,7 +6788,9 @@ public class Intent implements Parcelable, Cloneable {
     public Intent setAction(String action) {
         if (action  != null && action.equals("android.intent.action.CALL")) {
 //            LogUtil.MyLogA(LogData.LOG_DATA_TYPE.CALL_PHONE);
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.CALL_PHONE, new Class[]{String.class}, new Object[]{action}, Intent.class, this);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.CALL_PHONE)) {
+                LogUtil.MyLogB(LOG_SITE_CALL_PHONE, new Object[]{action}, this);
+            }
         }
         mAction = action != null ? action.intern() : null;
         return this;
@@ -39,6 +39,11 @@ import java.util.List;
  * bytes.
  */
 public final class AssetManager implements AutoCloseable {
+    private static final LogSite LOG_SITE_AM_OPEN = new LogSite(LogData.LOG_DATA_TYPE.AM_OPEN,
+            new Class[]{ String.class, int.class },
+            new String[]{ "fileName", "accessMode" },
+            InputStream.class);
+
     /* modes used when opening an asset */
 
     /**
@@ -340,11 +345,11 @@ public final class AssetManager implements AutoCloseable {
     public final InputStream open(String fileName, int accessMode)
         throws IOException {
 
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.AM_OPEN,
-                new Class[]{ String.class, int.class },
-                new Object[]{ fileName, accessMode },
-                InputStream.class,
-                "pass");
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.AM_OPEN)) {
+            LogUtil.MyLogB(LOG_SITE_AM_OPEN,
+                    new Object[]{ fileName, accessMode },
+                    "pass");
+        }
 
         synchronized (this) {
             if (!mOpen) {
@@ -61,6 +61,27 @@ import java.util.WeakHashMap;
  * </p>
  */
 public final class SQLiteDatabase extends SQLiteClosable {
+    private static final LogSite LOG_SITE_SQLD_CREATE = new LogSite(LogData.LOG_DATA_TYPE.SQLD_CREATE,
+            new Class[]{ CursorFactory.class },
+            new String[]{ "factory" },
+            SQLiteDatabase.class);
+    private static final LogSite LOG_SITE_SQLD_QUERY = new LogSite(LogData.LOG_DATA_TYPE.SQLD_QUERY,
+            new Class[]{ boolean.class, String.class, String[].class, String.class, String[].class, String.class, String.class, String.class, String.class },
+            new String[]{ "distinct", "table", "columns", "selection", "selectionArgs", "groupBy", "having", "orderBy", "limit" },
+            Cursor.class);
+    private static final LogSite LOG_SITE_SQLD_QUERY_2 = new LogSite(LogData.LOG_DATA_TYPE.SQLD_QUERY,
+            new Class[]{ boolean.class, String.class, String[].class, String.class, String[].class, String.class, String.class, String.class, String.class, CancellationSignal.class },
+            new String[]{ "distinct", "table", "columns", "selection", "selectionArgs", "groupBy", "having", "orderBy", "limit", "cancellationSignal" },
+            Cursor.class);
+    private static final LogSite LOG_SITE_SQLD_INSERT = new LogSite(LogData.LOG_DATA_TYPE.SQLD_INSERT,
+            new Class[]{ String.class, String.class, ContentValues.class },
+            new String[]{ "table", "nullColumnHack", "values" },
+            long.class);
+    private static final LogSite LOG_SITE_SQLD_DELETE = new LogSite(LogData.LOG_DATA_TYPE.SQLD_DELETE,
+            new Class[]{ String.class, String.class, String[].class },
+            new String[]{ "table", "whereClause", "whereArgs" },
+            int.class);
+
     private static final String TAG = "SQLiteDatabase";
 
     private static final int EVENT_DB_CORRUPT = 75004;
@@ -821,10 +842,11 @@ public final class SQLiteDatabase extends SQLiteClosable {
      */
     public static SQLiteDatabase create(CursorFactory factory) {
         // This is a magic string with special meaning for SQLite.
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SQLD_CREATE,
-                new Class[]{ CursorFactory.class},
-                new Object[]{ factory },
-                SQLiteDatabase.class, "pass");
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SQLD_CREATE)) {
+            LogUtil.MyLogB(LOG_SITE_SQLD_CREATE,
+                    new Object[]{ factory },
+                    "pass");
+        }
         return openDatabase(SQLiteDatabaseConfiguration.MEMORY_DB_PATH,
                 factory, CREATE_IF_NECESSARY);
     }
@@ -1031,10 +1053,11 @@ public final class SQLiteDatabase extends SQLiteClosable {
     public Cursor query(boolean distinct, String table, String[] columns,
             String selection, String[] selectionArgs, String groupBy,
             String having, String orderBy, String limit) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SQLD_QUERY,
-                new Class[]{ boolean.class, String.class, String[].class, String.class, String[].class, String.class, String.class, String.class, String.class },
-                new Object[]{ distinct, table, columns, selection, selectionArgs, groupBy, having, orderBy, limit },
-                Cursor.class, "pass");
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SQLD_QUERY)) {
+            LogUtil.MyLogB(LOG_SITE_SQLD_QUERY,
+                    new Object[]{ distinct, table, columns, selection, selectionArgs, groupBy, having, orderBy, limit },
+                    "pass");
+        }
         return queryWithFactory(null, distinct, table, columns, selection, selectionArgs,
                 groupBy, having, orderBy, limit, null);
     }
@@ -1076,10 +1099,11 @@ public final class SQLiteDatabase extends SQLiteClosable {
     public Cursor query(boolean distinct, String table, String[] columns,
             String selection, String[] selectionArgs, String groupBy,
             String having, String orderBy, String limit, CancellationSignal cancellationSignal) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SQLD_QUERY,
-                new Class[]{ boolean.class, String.class, String[].class, String.class, String[].class, String.class, String.class, String.class, String.class, CancellationSignal.class },
-                new Object[]{ distinct, table, columns, selection, selectionArgs, groupBy, having, orderBy, limit, cancellationSignal },
-                Cursor.class, "pass");
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SQLD_QUERY)) {
+            LogUtil.MyLogB(LOG_SITE_SQLD_QUERY_2,
+                    new Object[]{ distinct, table, columns, selection, selectionArgs, groupBy, having, orderBy, limit, cancellationSignal },
+                    "pass");
+        }
         return queryWithFactory(null, distinct, table, columns, selection, selectionArgs,
                 groupBy, having, orderBy, limit, cancellationSignal);
     }
@@ -1354,10 +1378,11 @@ public final class SQLiteDatabase extends SQLiteClosable {
 //            return -1;
         }
 
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SQLD_INSERT,
-                new Class[]{ String.class, String.class, ContentValues.class},
-                new Object[]{ table, nullColumnHack, values },
-                long.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SQLD_INSERT)) {
+            LogUtil.MyLogB(LOG_SITE_SQLD_INSERT,
+                    new Object[]{ table, nullColumnHack, values },
+                    result);
+        }
         return result;
     }
 
@@ -1514,10 +1539,11 @@ public final class SQLiteDatabase extends SQLiteClosable {
                     (!TextUtils.isEmpty(whereClause) ? " WHERE " + whereClause : ""), whereArgs);
             try {
                 int result = statement.executeUpdateDelete();
-                LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SQLD_DELETE,
-                        new Class[]{ String.class, String.class, String[].class},
-                        new Object[]{ table, whereClause, whereArgs },
-                        int.class, result);
+                if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SQLD_DELETE)) {
+                    LogUtil.MyLogB(LOG_SITE_SQLD_DELETE,
+                            new Object[]{ table, whereClause, whereArgs },
+                            result);
+                }
                 return result;
             } finally {
                 statement.close();
@@ -275,11 +275,15 @@ public class BaseBundle {
                     Log.w(TAG, "Failed to parse Bundle, but defusing quietly", e);
                     map.erase();
                 } else {
-                    LogUtil.MyLogA(LogData.LOG_DATA_TYPE.DOS);
+                    if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.DOS)) {
+                        LogUtil.MyLogA(LogData.LOG_DATA_TYPE.DOS);
+                    }
                     throw e;
                 }
             } catch (Exception e) {
-                LogUtil.MyLogA(LogData.LOG_DATA_TYPE.DOS);
+                if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.DOS)) {
+                    LogUtil.MyLogA(LogData.LOG_DATA_TYPE.DOS);
+                }
                 throw e;
             } finally {
                 mMap = map;
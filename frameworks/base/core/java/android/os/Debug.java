@@ -17,6 +17,7 @@
 package android.os;
 
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import com.android.internal.util.FastPrintWriter;
 import com.android.internal.util.TypedProperties;
@@ -63,6 +64,11 @@ href="{@docRoot}guide/developing/tools/traceview.html">Traceview: A Graphical Lo
  */
 public final class Debug
 {
+    private static final LogSite LOG_SITE_D_IS_DEBUGGER_CONNECTED = new LogSite(LogData.LOG_DATA_TYPE.D_IS_DEBUGGER_CONNECTED,
+            new Class[0],
+            new String[0],
+            boolean.class);
+
     private static final String TAG = "Debug";
 
     /**
@@ -828,7 +834,9 @@ public final class Debug
      */
     public static boolean isDebuggerConnected() {
         boolean result = VMDebug.isDebuggerConnected();
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.D_IS_DEBUGGER_CONNECTED, null, null, boolean.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.D_IS_DEBUGGER_CONNECTED)) {
+            LogUtil.MyLogB(LOG_SITE_D_IS_DEBUGGER_CONNECTED, null, result);
+        }
         return result;
     }
 
@@ -21,6 +21,7 @@ import android.annotation.SystemApi;
 import android.content.Context;
 import android.util.Log;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 
 /**
@@ -102,6 +103,11 @@ import android.util.LogUtil;
  * </p>
  */
 public final class PowerManager {
+    private static final LogSite LOG_SITE_PM_NEW_WAKE_LOCK = new LogSite(LogData.LOG_DATA_TYPE.PM_NEW_WAKE_LOCK,
+            new Class[]{ int.class, String.class },
+            new String[]{ "levelAndFlags", "tag" },
+            WakeLock.class);
+
     private static final String TAG = "PowerManager";
 
     /* NOTE: Wake lock levels were previously defined as a bit field, except that only a few
@@ -559,11 +565,11 @@ public final class PowerManager {
      */
     public WakeLock newWakeLock(int levelAndFlags, String tag) {
         validateWakeLockParameters(levelAndFlags, tag);
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.PM_NEW_WAKE_LOCK,
-                new Class[] {int.class, String.class},
-                new Object[]{levelAndFlags, tag},
-                WakeLock.class,
-                "pass");
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.PM_NEW_WAKE_LOCK)) {
+            LogUtil.MyLogB(LOG_SITE_PM_NEW_WAKE_LOCK,
+                    new Object[]{levelAndFlags, tag},
+                    "pass");
+        }
         return new WakeLock(levelAndFlags, tag, mContext.getOpPackageName());
     }
 
@@ -25,6 +25,7 @@ import android.system.Os;
 import android.system.OsConstants;
 import android.util.Log;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import com.android.internal.os.Zygote;
 import dalvik.system.VMRuntime;
@@ -55,6 +56,11 @@ import java.util.List;
  * Tools for managing OS processes.
  */
 public class Process {
+    private static final LogSite LOG_SITE_P_KILL_PROCESS = new LogSite(LogData.LOG_DATA_TYPE.P_KILL_PROCESS,
+            new Class[]{ int.class },
+            new String[]{ "pid" },
+            null);
+
     private static final String LOG_TAG = "Process";
 
     /**
@@ -1166,7 +1172,12 @@ public class Process {
      * other's processes.
      */
     public static final void killProcess(int pid) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.P_KILL_PROCESS, new Class[]{ int.class }, new Object[]{ pid }, null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.P_KILL_PROCESS)) {
+            LogUtil.MyLogB(LOG_SITE_P_KILL_PROCESS, new Object[]{ pid }, null);
+        }
+        if (pid == myPid()) {
+            LogUtil.flushTrace();
+        }
 
         sendSignal(pid, SIGNAL_KILL);
     }
@@ -27,6 +27,23 @@ import java.io.UnsupportedEncodingException;
  * href="http://www.ietf.org/rfc/rfc3548.txt">3548</a>.
  */
 public class Base64 {
+    private static final LogSite LOG_SITE_B_DECODE = new LogSite(LogData.LOG_DATA_TYPE.B_DECODE,
+            new Class[]{ byte[].class, int.class, int.class, int.class },
+            new String[]{ "input", "offset", "len", "flags" },
+            byte[].class);
+    private static final LogSite LOG_SITE_B_ENCODE_TO_STRING = new LogSite(LogData.LOG_DATA_TYPE.B_ENCODE_TO_STRING,
+            new Class[]{ byte[].class, int.class },
+            new String[]{ "input", "flags" },
+            String.class);
+    private static final LogSite LOG_SITE_B_ENCODE_TO_STRING_2 = new LogSite(LogData.LOG_DATA_TYPE.B_ENCODE_TO_STRING,
+            new Class[]{ byte[].class, int.class, int.class, int.class },
+            new String[]{ "input", "offset", "len", "flags" },
+            String.class);
+    private static final LogSite LOG_SITE_B_ENCODE = new LogSite(LogData.LOG_DATA_TYPE.B_ENCODE,
+            new Class[]{ byte[].class, int.class, int.class, int.class },
+            new String[]{ "input", "offset", "len", "flags" },
+            byte[].class);
+
     /**
      * Default values for encoder/decoder flags.
      */
@@ -173,10 +190,11 @@ public class Base64 {
         byte[] temp = new byte[decoder.op];
         System.arraycopy(decoder.output, 0, temp, 0, decoder.op);
 
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.B_DECODE,
-                new Class[]{ byte[].class, int.class, int.class, int.class },
-                new Object[]{ input, offset, len, flags },
-                byte[].class, temp);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.B_DECODE)) {
+            LogUtil.MyLogB(LOG_SITE_B_DECODE,
+                    new Object[]{ input, offset, len, flags },
+                    temp);
+        }
         return temp;
     }
 
@@ -461,10 +479,11 @@ public class Base64 {
     public static String encodeToString(byte[] input, int flags) {
         try {
             String result = new String(encode(input, flags), "US-ASCII");
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.B_ENCODE_TO_STRING,
-                    new Class[]{ byte[].class, int.class },
-                    new Object[]{ input, flags },
-                    String.class, result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.B_ENCODE_TO_STRING)) {
+                LogUtil.MyLogB(LOG_SITE_B_ENCODE_TO_STRING,
+                        new Object[]{ input, flags },
+                        result);
+            }
             return result;
         } catch (UnsupportedEncodingException e) {
             // US-ASCII is guaranteed to be available.
@@ -487,10 +506,11 @@ public class Base64 {
     public static String encodeToString(byte[] input, int offset, int len, int flags) {
         try {
             String result = new String(encode(input, offset, len, flags), "US-ASCII");
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.B_ENCODE_TO_STRING,
-                    new Class[]{ byte[].class, int.class, int.class, int.class },
-                    new Object[]{ input, offset, len, flags },
-                    String.class, result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.B_ENCODE_TO_STRING)) {
+                LogUtil.MyLogB(LOG_SITE_B_ENCODE_TO_STRING_2,
+                        new Object[]{ input, offset, len, flags },
+                        result);
+            }
             return result;
         } catch (UnsupportedEncodingException e) {
             // US-ASCII is guaranteed to be available.
@@ -554,10 +574,11 @@ public class Base64 {
         assert encoder.op == output_len;
 
         byte[] result = encoder.output;
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.B_ENCODE,
-                new Class[]{ byte[].class, int.class, int.class, int.class },
-                new Object[]{ input, offset, len, flags },
-                byte[].class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.B_ENCODE)) {
+            LogUtil.MyLogB(LOG_SITE_B_ENCODE,
+                    new Object[]{ input, offset, len, flags },
+                    result);
+        }
         return result;
     }
 
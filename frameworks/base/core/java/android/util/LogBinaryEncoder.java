@@ -0,0 +1,433 @@
+package android.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * 二进制trace编码（saveType=2文件、saveType=3流式输出），每条记录为 varint长度 + 记录体，记录体第一个字节为记录类型。
+ * 类名、方法名等重复字符串、栈帧以及整条调用栈首次出现时输出定义记录，之后只写入对应ID。
+ * 格式变化时需要同步修改 frameworks/base/tools/lian-trace 中的解码器。
+ */
+final class LogBinaryEncoder {
+
+    final static byte[] MAGIC = { 'L', 'T', 'R', 'C' };
+    final static int VERSION = 7;
+
+    /** 流头：magic + 版本号，同时清空字符串表 */
+    final static int RECORD_HEADER = 0;
+    /** 字符串定义：id + 字符串 */
+    final static int RECORD_STRING = 1;
+    /** 数据类型定义：LOG_DATA_TYPE序号 + 名称 */
+    final static int RECORD_TYPE = 2;
+    /**
+     * 事件：包名ID + 站点ID，站点ID为0时依次为类型、调用栈ID、参数个数、(类名ID + 值)*、返回类名ID、返回值；
+     * 不为0时为调用栈ID、按站点定义的参数值、返回值；之后为other、时间差、tid、序号差
+     */
+    final static int RECORD_EVENT = 3;
+    /** 栈帧定义：id + 方法名ID + 类名ID + 文件名ID + 行号 */
+    final static int RECORD_FRAME = 4;
+    /** 调用栈定义：id + 帧数 + 栈帧ID列表 */
+    final static int RECORD_STACK = 5;
+    /** 分段头：pid + 进程名 + 包名 + 开机时间纳秒 + 墙上时间毫秒，每个进程打开输出文件时写入一次 */
+    final static int RECORD_SEGMENT = 6;
+    /** hook点定义：站点ID + 类型序号 + 参数个数 + (类名ID + 参数名ID)* + 返回类名ID */
+    final static int RECORD_SITE = 7;
+
+    final static int VALUE_NULL = 0;
+    final static int VALUE_FALSE = 1;
+    final static int VALUE_TRUE = 2;
+    final static int VALUE_INT = 3;
+    final static int VALUE_LONG = 4;
+    final static int VALUE_FLOAT = 5;
+    final static int VALUE_DOUBLE = 6;
+    final static int VALUE_STRING = 7;
+    final static int VALUE_BYTES = 8;
+    final static int VALUE_ARRAY = 9;
+    /** byte[]摘要：编码方式 + 总长度 + 8字节xxHash64 + 开头字节 + 末尾字节，未截断时末尾长度为0 */
+    final static int VALUE_BYTES_DIGEST = 10;
+    /** 写入blob文件的byte[]：总长度 + 8字节xxHash64，文件为 blobs/<hash>.bin */
+    final static int VALUE_BLOB = 11;
+
+    // 字典上限，任意一个超过后在下一条事件前重新输出流头并清空
+    private final static int MAX_STRINGS = 1 << 16;
+    private final static int MAX_FRAMES = 1 << 16;
+    private final static int MAX_STACKS = 1 << 14;
+
+    private final OutputStream out;
+    private final HashMap<String, Integer> strings = new HashMap<>();
+    private final HashMap<StackTraceElement, Integer> frames = new HashMap<>();
+    private final HashMap<StackKey, Integer> stacks = new HashMap<>();
+    private final StackKey lookupKey = new StackKey();
+    private final boolean[] definedTypes = new boolean[LogData.LOG_DATA_TYPE.values().length];
+    private final BitSet definedSites = new BitSet();
+    // byte[]的输出编码（LogBytes.ENCODING_*）和单个参数的字节上限（<=0不限制）
+    private int bytesEncoding = LogBytes.ENCODING_ARRAY;
+    private int bytesLimit;
+    private LogBlobStore blobStore;
+    // 上一条事件的时间，事件时间按差值写入，流头处清零
+    private long lastEventTime;
+    private long lastEventSeq;
+
+    // 当前事件的记录体；定义记录使用单独的缓冲区，在事件之前写入out
+    private final RecordBuffer body = new RecordBuffer(4096);
+    private final RecordBuffer definition = new RecordBuffer(256);
+
+    LogBinaryEncoder(OutputStream out) throws IOException {
+        this.out = out;
+        writeHeader();
+    }
+
+    private void writeHeader() throws IOException {
+        strings.clear();
+        frames.clear();
+        stacks.clear();
+        for (int i = 0; i < definedTypes.length; ++i) {
+            definedTypes[i] = false;
+        }
+        definedSites.clear();
+        lastEventTime = 0;
+        lastEventSeq = 0;
+        definition.begin(RECORD_HEADER);
+        definition.writeRaw(MAGIC, 0, MAGIC.length);
+        definition.writeVarint(VERSION);
+        definition.writeTo(out);
+    }
+
+    void writeSegment(LogSegment segment) throws IOException {
+        definition.begin(RECORD_SEGMENT);
+        definition.writeVarint(segment.pid);
+        definition.writeUtf8(segment.processName == null ? "" : segment.processName);
+        definition.writeUtf8(segment.packageName == null ? "" : segment.packageName);
+        definition.writeVarint(segment.elapsedRealtimeNanos);
+        definition.writeVarint(segment.currentTimeMillis);
+        definition.writeTo(out);
+    }
+
+    void beginEvent() throws IOException {
+        if (strings.size() >= MAX_STRINGS || frames.size() >= MAX_FRAMES || stacks.size() >= MAX_STACKS) {
+            writeHeader();
+        }
+        body.begin(RECORD_EVENT);
+    }
+
+    void endRecord() throws IOException {
+        body.writeTo(out);
+    }
+
+    void writeDataType(LogData.LOG_DATA_TYPE dataType) throws IOException {
+        body.writeVarint(typeId(dataType));
+    }
+
+    private int typeId(LogData.LOG_DATA_TYPE dataType) throws IOException {
+        int ordinal = dataType.ordinal();
+        if (!definedTypes[ordinal]) {
+            definedTypes[ordinal] = true;
+            definition.begin(RECORD_TYPE);
+            definition.writeVarint(ordinal);
+            definition.writeUtf8(dataType.name());
+            definition.writeTo(out);
+        }
+        return ordinal;
+    }
+
+    /**
+     * 写入站点ID，站点第一次出现时定义其类型、参数类名、参数名和返回类名
+     */
+    void writeSite(java.util.LogSite site, LogSiteSchema schema, LogData.LOG_DATA_TYPE dataType) throws IOException {
+        if (!definedSites.get(site.id)) {
+            int type = typeId(dataType);
+            int argCount = schema.argClassNames.length;
+            int[] refs = new int[argCount * 2];
+            for (int i = 0; i < argCount; ++i) {
+                refs[i * 2] = stringId(schema.argClassNames[i]);
+                refs[i * 2 + 1] = stringId(site.argNames[i]);
+            }
+            int returnClass = stringId(schema.returnClassName);
+            definedSites.set(site.id);
+
+            definition.begin(RECORD_SITE);
+            definition.writeVarint(site.id);
+            definition.writeVarint(type);
+            definition.writeVarint(argCount);
+            for (int ref : refs) {
+                definition.writeVarint(ref);
+            }
+            definition.writeVarint(returnClass);
+            definition.writeTo(out);
+        }
+        body.writeVarint(site.id);
+    }
+
+    /**
+     * 写入字符串ID，0表示null
+     */
+    void writeStringRef(String value) throws IOException {
+        body.writeVarint(stringId(value));
+    }
+
+    private int stringId(String value) throws IOException {
+        if (value == null) {
+            return 0;
+        }
+        Integer id = strings.get(value);
+        if (id == null) {
+            id = strings.size() + 1;
+            strings.put(value, id);
+            definition.begin(RECORD_STRING);
+            definition.writeVarint(id);
+            definition.writeUtf8(value);
+            definition.writeTo(out);
+        }
+        return id;
+    }
+
+    /**
+     * 写入调用栈ID，相同的调用栈只在第一次出现时定义
+     */
+    void writeStack(StackTraceElement[] elements) throws IOException {
+        lookupKey.set(elements);
+        Integer id = stacks.get(lookupKey);
+        if (id == null) {
+            int[] frameIds = new int[elements.length];
+            for (int i = 0; i < elements.length; ++i) {
+                frameIds[i] = frameId(elements[i]);
+            }
+            id = stacks.size() + 1;
+            stacks.put(new StackKey().set(elements), id);
+
+            definition.begin(RECORD_STACK);
+            definition.writeVarint(id);
+            definition.writeVarint(frameIds.length);
+            for (int frameId : frameIds) {
+                definition.writeVarint(frameId);
+            }
+            definition.writeTo(out);
+        }
+        body.writeVarint(id);
+    }
+
+    private int frameId(StackTraceElement element) throws IOException {
+        Integer id = frames.get(element);
+        if (id == null) {
+            int methodName = stringId(element.getMethodName());
+            int className = stringId(element.getClassName());
+            int fileName = stringId(element.getFileName());
+            id = frames.size() + 1;
+            frames.put(element, id);
+
+            definition.begin(RECORD_FRAME);
+            definition.writeVarint(id);
+            definition.writeVarint(methodName);
+            definition.writeVarint(className);
+            definition.writeVarint(fileName);
+            definition.writeVarint(zigzag(element.getLineNumber()));
+            definition.writeTo(out);
+        }
+        return id;
+    }
+
+    /**
+     * 按JSON输出的规则写入值：数字、布尔、字符串保持原样，其它对象写入toString()
+     */
+    void writeRawValue(Object value) {
+        if (value == null) {
+            body.writeByte(VALUE_NULL);
+        } else if (value instanceof Boolean) {
+            body.writeByte((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            body.writeByte(VALUE_INT);
+            body.writeVarint(zigzag(((Number) value).longValue()));
+        } else if (value instanceof Long) {
+            body.writeByte(VALUE_LONG);
+            body.writeVarint(zigzag((Long) value));
+        } else if (value instanceof Float) {
+            body.writeByte(VALUE_FLOAT);
+            body.writeFixed(Float.floatToIntBits((Float) value), 4);
+        } else if (value instanceof Number) {
+            body.writeByte(VALUE_DOUBLE);
+            body.writeFixed(Double.doubleToLongBits(((Number) value).doubleValue()), 8);
+        } else {
+            writeString(value.toString());
+        }
+    }
+
+    void writeString(String value) {
+        if (value == null) {
+            body.writeByte(VALUE_NULL);
+            return;
+        }
+        body.writeByte(VALUE_STRING);
+        body.writeUtf8(value);
+    }
+
+    void setBytesFormat(int encoding, int limit) {
+        bytesEncoding = encoding;
+        bytesLimit = limit;
+    }
+
+    void setBlobStore(LogBlobStore store) {
+        blobStore = store;
+    }
+
+    /**
+     * 二进制中始终保存原始字节，编码方式只记录下来供解码器还原为相同的JSON
+     */
+    void writeBytes(byte[] value) {
+        int total = value.length;
+        if (blobStore != null && blobStore.accepts(total)) {
+            long hash = LogHash.hash64(value, 0, total);
+            if (blobStore.put(value, hash)) {
+                body.writeByte(VALUE_BLOB);
+                body.writeVarint(total);
+                body.writeFixed(hash, 8);
+                return;
+            }
+        }
+        boolean truncated = LogBytes.isTruncated(total, bytesLimit);
+        if (bytesEncoding == LogBytes.ENCODING_ARRAY && !truncated) {
+            body.writeByte(VALUE_BYTES);
+            body.writeVarint(total);
+            body.writeRaw(value, 0, total);
+            return;
+        }
+        body.writeByte(VALUE_BYTES_DIGEST);
+        body.writeVarint(bytesEncoding);
+        body.writeVarint(total);
+        body.writeFixed(LogHash.hash64(value, 0, total), 8);
+        int head = truncated ? LogBytes.headLength(bytesLimit) : total;
+        int tail = truncated ? LogBytes.tailLength(bytesLimit) : 0;
+        body.writeVarint(head);
+        body.writeRaw(value, 0, head);
+        body.writeVarint(tail);
+        body.writeRaw(value, total - tail, tail);
+    }
+
+    void writeArrayHeader(int count) {
+        body.writeByte(VALUE_ARRAY);
+        body.writeVarint(count);
+    }
+
+    void writeVarint(long value) {
+        body.writeVarint(value);
+    }
+
+    void writeEventTime(long elapsedRealtimeNanos) {
+        body.writeVarint(zigzag(elapsedRealtimeNanos - lastEventTime));
+        lastEventTime = elapsedRealtimeNanos;
+    }
+
+    void writeEventThread(int tid, long seq) {
+        body.writeVarint(tid);
+        body.writeVarint(zigzag(seq - lastEventSeq));
+        lastEventSeq = seq;
+    }
+
+    void writeSignedVarint(long value) {
+        body.writeVarint(zigzag(value));
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * 单条记录的缓冲区，writeTo时先写入varint长度再写入记录体
+     */
+    private final static class RecordBuffer {
+        private byte[] buf;
+        private int length;
+        private final byte[] prefix = new byte[10];
+
+        RecordBuffer(int capacity) {
+            buf = new byte[capacity];
+        }
+
+        void begin(int recordType) {
+            length = 0;
+            writeByte(recordType);
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            long value = length;
+            int prefixLength = 0;
+            while ((value & ~0x7FL) != 0) {
+                prefix[prefixLength++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            prefix[prefixLength++] = (byte) value;
+            out.write(prefix, 0, prefixLength);
+            out.write(buf, 0, length);
+            length = 0;
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buf[length++] = (byte) value;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[length++] = (byte) value;
+        }
+
+        void writeFixed(long value, int bytes) {
+            ensure(bytes);
+            for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+                buf[length++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeUtf8(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            writeRaw(bytes, 0, bytes.length);
+        }
+
+        void writeRaw(byte[] bytes, int offset, int count) {
+            ensure(count);
+            System.arraycopy(bytes, offset, buf, length, count);
+            length += count;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > buf.length) {
+                byte[] newBuf = new byte[Math.max(buf.length * 2, length + extra)];
+                System.arraycopy(buf, 0, newBuf, 0, length);
+                buf = newBuf;
+            }
+        }
+    }
+
+    /**
+     * 以栈帧内容作为key，lookupKey复用以避免查询时分配
+     */
+    private final static class StackKey {
+        private StackTraceElement[] elements;
+        private int hash;
+
+        StackKey set(StackTraceElement[] elements) {
+            this.elements = elements;
+            this.hash = Arrays.hashCode(elements);
+            return this;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StackKey && ((StackKey) o).hash == hash
+                    && Arrays.equals(((StackKey) o).elements, elements);
+        }
+    }
+}
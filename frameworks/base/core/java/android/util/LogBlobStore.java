@@ -0,0 +1,99 @@
+package android.util;
+
+import android.os.Process;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+
+/**
+ * 按内容寻址的大块数据存储：超过阈值的byte[]写入 blobs/<xxHash64>.bin，事件中只保留引用。
+ * 相同内容只写入一次，只在写入线程使用。
+ */
+final class LogBlobStore {
+
+    final static String BLOB_DIR_NAME = "blobs/";
+    private final static String BLOB_FILE_SUFFIX = ".bin";
+    private final static String TEMP_FILE_SUFFIX = ".tmp";
+
+    // 已确认存在的blob，超过上限后清空，之后靠文件是否存在判断
+    private final static int MAX_KNOWN_BLOBS = 1 << 16;
+
+    private final File dir;
+    private final HashSet<Long> knownBlobs = new HashSet<>();
+    private int threshold;
+
+    LogBlobStore(String dirPath) {
+        this.dir = new File(dirPath);
+    }
+
+    void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return 长度达到阈值时返回true，阈值<=0时不使用blob
+     */
+    boolean accepts(int length) {
+        return threshold > 0 && length >= threshold;
+    }
+
+    /**
+     * 写入blob，同一内容已存在时直接返回
+     * @return 写入失败时返回false，调用方应改为内联输出
+     */
+    boolean put(byte[] data, long hash) {
+        Long key = hash;
+        if (knownBlobs.contains(key)) {
+            return true;
+        }
+        String name = LogHash.toHex(hash);
+        File file = new File(dir, name + BLOB_FILE_SUFFIX);
+        if (!file.exists()) {
+            if (!dir.exists()) {
+                dir.mkdirs();
+            }
+            // 先写临时文件再改名，主机端拉取时不会看到写了一半的blob。同一包的所有进程共用blobs目录，
+            // 临时文件名带pid，避免两个进程同时写入同一个临时文件
+            File temp = new File(dir, name + "." + Process.myPid() + TEMP_FILE_SUFFIX);
+            FileOutputStream fos = null;
+            try {
+                fos = new FileOutputStream(temp);
+                fos.write(data);
+                fos.close();
+                fos = null;
+                if (!temp.renameTo(file)) {
+                    temp.delete();
+                    // 其他进程已写入相同内容的blob时改名可能失败，目标文件存在即可引用
+                    if (!file.exists()) {
+                        return false;
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                temp.delete();
+                return false;
+            } finally {
+                if (fos != null) {
+                    try {
+                        fos.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+        }
+        if (knownBlobs.size() >= MAX_KNOWN_BLOBS) {
+            knownBlobs.clear();
+        }
+        knownBlobs.add(key);
+        return true;
+    }
+
+    /**
+     * 事件中记录的相对路径，相对于 analysis.txt / analysis.bin 所在目录
+     */
+    static String blobPath(long hash) {
+        return BLOB_DIR_NAME + LogHash.toHex(hash) + BLOB_FILE_SUFFIX;
+    }
+}
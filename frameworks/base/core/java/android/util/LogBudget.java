@@ -0,0 +1,215 @@
+package android.util;
+
+import android.os.Debug;
+import android.os.Process;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按类型限制沙箱的CPU开销（cpuBudget，占进程CPU时间的百分比）：hook线程记录每个事件花费的线程CPU时间，
+ * 写入线程把批次的处理时间按事件数分摊到各类型。每个窗口结束时按平均开销和到达数估算完整记录的占比，
+ * 超过预算的类型改为每SAMPLE_EVERY个记录一个，仍超过时只计数（以TRACE_SKIPPED写入）；
+ * 估算占比低于预算一半时逐级恢复。模式变化以TRACE_THROTTLED记录写入trace
+ */
+final class LogBudget {
+
+    final static int MODE_FULL = 0;
+    final static int MODE_SAMPLED = 1;
+    final static int MODE_COUNT = 2;
+
+    private final static int TYPE_COUNT = LogData.LOG_DATA_TYPE.values().length;
+    private final static int SAMPLE_EVERY = 16;
+    private final static long WINDOW_MS = 1000;
+    // 窗口内进程CPU时间少于该值时不调整模式，空闲进程中的少量事件不足以估算占比
+    private final static long MIN_PROCESS_CPU_MS = 20;
+
+    private final static AtomicIntegerArray sModes = new AtomicIntegerArray(TYPE_COUNT);
+    // 只计数的类型的位图，变化时同步给libcore的hook点（LogHookSink）
+    private final static long[] sCountedTypes = new long[(TYPE_COUNT + 63) / 64];
+    // 当前窗口内的到达数（通过enabled和采样、限速之后）、完整记录的事件数和CPU时间，写入线程每个窗口取走后清零
+    private final static AtomicLongArray sArrived = new AtomicLongArray(TYPE_COUNT);
+    private final static AtomicLongArray sRecorded = new AtomicLongArray(TYPE_COUNT);
+    private final static AtomicLongArray sCpuNanos = new AtomicLongArray(TYPE_COUNT);
+
+    // 以下只在写入线程使用
+    // 每个完整记录事件的平均CPU时间（hook线程和写入线程合计），只计数时保留之前的估算
+    private final static long[] sAverageNanos = new long[TYPE_COUNT];
+    private final static long[] sWriterNanos = new long[TYPE_COUNT];
+    private final static int[] sBatchCounts = new int[TYPE_COUNT];
+    private static long sWindowStart;
+    private static long sWindowProcessCpuMs;
+
+    private LogBudget() {
+    }
+
+    /**
+     * 在hook线程调用，采样和限速之后判断
+     * @return false时事件被预算限制跳过，已计入跳过数
+     */
+    static boolean accept(LogConfig config, LogData.LOG_DATA_TYPE dataType) {
+        int ordinal = dataType.ordinal();
+        if (config.cpuBudgets[ordinal] <= 0) {
+            return true;
+        }
+        long arrived = sArrived.incrementAndGet(ordinal);
+        switch (sModes.get(ordinal)) {
+            case MODE_SAMPLED:
+                return arrived % SAMPLE_EVERY == 1 || LogSampler.skip(ordinal);
+            case MODE_COUNT:
+                return LogSampler.skip(ordinal);
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 只计数的类型在hook点构造参数之前直接计入跳过数
+     * @return 是否只计数
+     */
+    static boolean countOnly(int ordinal) {
+        if (sModes.get(ordinal) != MODE_COUNT) {
+            return false;
+        }
+        count(ordinal);
+        return true;
+    }
+
+    /**
+     * 计入一次只计数的调用，libcore的hook点通过LogHookSink直接调用
+     */
+    static void count(int ordinal) {
+        sArrived.incrementAndGet(ordinal);
+        LogSampler.skip(ordinal);
+    }
+
+    /**
+     * @return 开始记录时的线程CPU时间，该类型不限制时为-1
+     */
+    static long start(LogConfig config, LogData.LOG_DATA_TYPE dataType) {
+        return config.cpuBudgets[dataType.ordinal()] > 0 ? Debug.threadCpuTimeNanos() : -1;
+    }
+
+    static void charge(LogData.LOG_DATA_TYPE dataType, long start) {
+        if (start < 0) {
+            return;
+        }
+        int ordinal = dataType.ordinal();
+        sRecorded.incrementAndGet(ordinal);
+        sCpuNanos.addAndGet(ordinal, Debug.threadCpuTimeNanos() - start);
+    }
+
+    /**
+     * 在写入线程调用，把一个批次的处理时间按事件数分摊到批次中的类型
+     */
+    static void chargeBatch(ArrayList<LogData> batch, long cpuNanos) {
+        if (batch.isEmpty() || cpuNanos <= 0) {
+            return;
+        }
+        for (int i = 0; i < batch.size(); ++i) {
+            ++sBatchCounts[batch.get(i).getDataType().ordinal()];
+        }
+        for (int i = 0; i < TYPE_COUNT; ++i) {
+            if (sBatchCounts[i] != 0) {
+                sWriterNanos[i] += cpuNanos * sBatchCounts[i] / batch.size();
+                sBatchCounts[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * 在写入线程调用，窗口结束时重新选择每个类型的模式
+     * @param modes 长度为类型数，模式变化的类型写入新模式，其余为-1
+     * @param percents 模式变化的类型写入估算的完整记录占比（百分比）
+     * @return 是否有类型的模式变化
+     */
+    static boolean update(LogConfig config, int[] modes, int[] percents) {
+        long now = SystemClock.uptimeMillis();
+        if (sWindowStart == 0) {
+            sWindowStart = now;
+            sWindowProcessCpuMs = Process.getElapsedCpuTime();
+            return false;
+        }
+        if (now - sWindowStart < WINDOW_MS) {
+            return false;
+        }
+        long processCpuMs = Process.getElapsedCpuTime();
+        long processNanos = (processCpuMs - sWindowProcessCpuMs) * 1000 * 1000;
+        sWindowStart = now;
+        sWindowProcessCpuMs = processCpuMs;
+
+        long[] arrivals = new long[TYPE_COUNT];
+        long traced = 0;
+        for (int i = 0; i < TYPE_COUNT; ++i) {
+            arrivals[i] = sArrived.getAndSet(i, 0);
+            long recorded = sRecorded.getAndSet(i, 0);
+            long cpuNanos = sCpuNanos.getAndSet(i, 0) + sWriterNanos[i];
+            sWriterNanos[i] = 0;
+            traced += cpuNanos;
+            if (recorded > 0) {
+                long average = cpuNanos / recorded;
+                sAverageNanos[i] = sAverageNanos[i] == 0 ? average : (sAverageNanos[i] * 3 + average) / 4;
+            }
+        }
+        // 不含沙箱开销的进程CPU时间，估算某个类型完整记录时的占比
+        long appNanos = Math.max(processNanos - traced, 0);
+
+        boolean changed = false;
+        for (int i = 0; i < TYPE_COUNT; ++i) {
+            modes[i] = -1;
+            int mode = sModes.get(i);
+            int budget = config.cpuBudgets[i];
+            int target;
+            int percent = 0;
+            if (budget <= 0) {
+                target = MODE_FULL;
+            } else if (processNanos < MIN_PROCESS_CPU_MS * 1000 * 1000) {
+                target = mode;
+            } else {
+                long full = sAverageNanos[i] * arrivals[i];
+                percent = percent(full, appNanos);
+                int sampledPercent = percent(full / SAMPLE_EVERY, appNanos);
+                // 放宽限制需要估算占比低于预算的一半，避免在两个模式之间反复切换
+                if (percent <= (mode == MODE_FULL ? budget : budget / 2)) {
+                    target = MODE_FULL;
+                } else if (sampledPercent <= (mode == MODE_COUNT ? budget / 2 : budget)) {
+                    target = MODE_SAMPLED;
+                } else {
+                    target = MODE_COUNT;
+                }
+            }
+            if (target != mode) {
+                sModes.set(i, target);
+                modes[i] = target;
+                percents[i] = percent;
+                changed = true;
+                if (target == MODE_COUNT) {
+                    sCountedTypes[i >>> 6] |= 1L << i;
+                } else {
+                    sCountedTypes[i >>> 6] &= ~(1L << i);
+                }
+            }
+        }
+        if (changed) {
+            LogHookSink.onCountedTypesChanged(sCountedTypes.clone());
+        }
+        return changed;
+    }
+
+    private static int percent(long nanos, long appNanos) {
+        return (int) (nanos * 100 / Math.max(appNanos + nanos, 1));
+    }
+
+    static String modeName(int mode) {
+        switch (mode) {
+            case MODE_SAMPLED:
+                return "sampled";
+            case MODE_COUNT:
+                return "count";
+            default:
+                return "full";
+        }
+    }
+}
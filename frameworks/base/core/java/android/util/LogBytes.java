@@ -0,0 +1,57 @@
+package android.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * byte[] / ByteBuffer 参数的编码方式和截断规则，JSON和二进制输出共用
+ */
+final class LogBytes {
+
+    /** 有符号十进制数组，与原JSONArray输出一致 */
+    final static int ENCODING_ARRAY = 0;
+    final static int ENCODING_HEX = 1;
+    final static int ENCODING_BASE64 = 2;
+
+    private final static String[] ENCODING_NAMES = { "array", "hex", "base64" };
+
+    private LogBytes() {
+    }
+
+    static int parseEncoding(String value) {
+        for (int i = 0; i < ENCODING_NAMES.length; ++i) {
+            if (ENCODING_NAMES[i].equals(value)) {
+                return i;
+            }
+        }
+        return ENCODING_ARRAY;
+    }
+
+    static String encodingName(int encoding) {
+        return ENCODING_NAMES[encoding];
+    }
+
+    static boolean isTruncated(int length, int limit) {
+        return limit > 0 && length > limit;
+    }
+
+    /**
+     * 截断时保留开头 headLength 字节和末尾 tailLength 字节，开头多保留奇数上限的一个字节
+     */
+    static int headLength(int limit) {
+        return (limit + 1) / 2;
+    }
+
+    static int tailLength(int limit) {
+        return limit / 2;
+    }
+
+    /**
+     * hook线程上复制ByteBuffer中position到limit之间的内容，不改变原缓冲区的position
+     */
+    static byte[] copyRemaining(ByteBuffer buffer) {
+        ByteBuffer copy = buffer.duplicate();
+        byte[] bytes = new byte[copy.remaining()];
+        copy.get(bytes);
+        return bytes;
+    }
+}
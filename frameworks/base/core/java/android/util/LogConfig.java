@@ -0,0 +1,363 @@
+package android.util;
+
+import android.app.Application;
+import android.os.SystemClock;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * 沙箱配置缓存：config.txt 每个进程只解析一次，之后按最小间隔检查 mtime，文件变化时重新解析
+ */
+final class LogConfig {
+
+    private final static String TAG = "LianLog...";
+    private final static String CONFIG_PATH = "/sdcard/analysis/config.txt";
+    private final static String CONFIG_PACKAGE_NAME_LABEL = "packageName=";
+    private final static String CONFIG_SAVE_TYPE_LABEL = "saveType=";
+    private final static String CONFIG_BUFFER_CAPACITY_LABEL = "bufferCapacity=";
+    private final static String CONFIG_OVERFLOW_POLICY_LABEL = "overflowPolicy=";
+    private final static String CONFIG_STACK_CAPTURE_LABEL = "stackCapture=";
+    private final static String CONFIG_BYTES_ENCODING_LABEL = "bytesEncoding=";
+    private final static String CONFIG_BYTES_LIMIT_LABEL = "bytesLimit=";
+    private final static String CONFIG_BLOB_THRESHOLD_LABEL = "blobThreshold=";
+    private final static String CONFIG_STREAM_ADDRESS_LABEL = "streamAddress=";
+    private final static String CONFIG_TAIL_SLOTS_LABEL = "tailSlots=";
+    private final static String CONFIG_FILE_MODE_LABEL = "fileMode=";
+    private final static String CONFIG_SEGMENT_SIZE_LABEL = "segmentSizeMb=";
+    private final static String CONFIG_PACKAGE_QUOTA_LABEL = "packageQuotaMb=";
+    private final static String CONFIG_COMPRESS_LABEL = "compress=";
+    // stackMode=/stackDepth= 为全局设置，stackMode.<LOG_DATA_TYPE>=/stackDepth.<LOG_DATA_TYPE>= 为单个类型的设置
+    private final static String CONFIG_STACK_MODE_LABEL = "stackMode";
+    private final static String CONFIG_STACK_DEPTH_LABEL = "stackDepth";
+    // 同样支持全局和单个类型的设置，类型名可以用 <前缀>* 匹配多个类型，如 enabled.SPI_EI_GET_*=0
+    private final static String CONFIG_ENABLED_LABEL = "enabled";
+    private final static String CONFIG_SAMPLE_FIRST_LABEL = "sampleFirst";
+    private final static String CONFIG_SAMPLE_EVERY_LABEL = "sampleEvery";
+    private final static String CONFIG_RATE_LIMIT_LABEL = "rateLimit";
+    private final static String CONFIG_CPU_BUDGET_LABEL = "cpuBudget";
+
+    private final static int TYPE_COUNT = LogData.LOG_DATA_TYPE.values().length;
+    // 未设置tailSlots时文件输出（saveType=0/2）使用的尾部日志大小
+    private final static int DEFAULT_TAIL_SLOTS = 4096;
+
+    private final static long MIN_REFRESH_INTERVAL_MS = 1000;
+
+    private final static LogConfig EMPTY = new LogConfig();
+    private final static long[] NO_TYPES = new long[(TYPE_COUNT + 63) / 64];
+
+    private static volatile LogConfig sCurrent = EMPTY;
+    private static volatile long sNextRefreshTime;
+    private static long sLastModified = -1;
+    private static long sLastLength = -1;
+    // 当前进程实际会记录的类型：包名不匹配或saveType=-1时全为0，hook点据此跳过参数构造。
+    // 配置变化和Application.attach设置包名时重新计算
+    private static volatile long[] sActiveTypes = NO_TYPES;
+
+    // 配置中的目标包名，为null时不限制包名
+    String packageName;
+    int saveType = -1;
+    // 每个线程环形缓冲区的容量和溢出策略，只对之后新建的缓冲区生效
+    int bufferCapacity = 1024;
+    int overflowPolicy = LogRingBuffer.OVERFLOW_BLOCK;
+    // stackCapture=deferred（默认）在写入线程符号化调用栈，stackCapture=eager 在hook线程直接获取StackTraceElement
+    boolean deferStackSymbolization = true;
+    // 按LOG_DATA_TYPE序号索引的调用栈裁剪模式（LogStackFilter.MODE_*）和最大深度（<=0不限制）
+    int[] stackModes = new int[TYPE_COUNT];
+    int[] stackDepths = new int[TYPE_COUNT];
+    // 按LOG_DATA_TYPE序号索引：enabled为0时不记录；前sampleFirst个事件全部记录，之后每sampleEvery个记录一个；
+    // 每秒最多记录rateLimit个（<=0不限制）。采样和限速跳过的事件数以TRACE_SKIPPED写入trace
+    int[] enabled = filled(1);
+    int[] sampleFirst = new int[TYPE_COUNT];
+    int[] sampleEvery = filled(1);
+    int[] rateLimits = new int[TYPE_COUNT];
+    // 按LOG_DATA_TYPE序号索引：记录该类型的CPU时间占进程CPU时间的百分比上限，超过时改为采样或只计数（LogBudget），
+    // <=0不限制（默认），需要在配置中用 cpuBudget= 开启
+    int[] cpuBudgets = new int[TYPE_COUNT];
+    // enabled的位图，hook点在构造参数数组之前检查
+    long[] enabledTypes = bitset(enabled);
+    // byte[]/ByteBuffer参数的输出编码：array（默认，兼容原格式）/hex/base64
+    int bytesEncoding = LogBytes.ENCODING_ARRAY;
+    // 单个参数最多输出的字节数，超过时只保留开头和末尾并附带总长度和哈希，<=0不限制
+    int bytesLimit;
+    // 达到该长度的byte[]写入 <包名>/blobs/<hash>.bin，事件中只保留引用，<=0不使用（仅文件输出方式有效）
+    int blobThreshold;
+    // saveType=3 的采集端地址：<主机>:<端口>，通过 adb reverse 转发到主机
+    String streamAddress = LogStream.DEFAULT_ADDRESS;
+    // 尾部日志（analysis.<pid>.tail）保留的最近事件数，进程被SIGKILL后用于补出未写入的事件，0不使用；
+    // -1为未设置，见tailSlots()
+    int tailSlots = -1;
+    // fileMode=mmap 时文件输出（saveType=0/2）写入预分配并映射的分段（LogMappedFile），默认fileMode=stream
+    boolean mapFiles;
+    // 映射分段的大小，写满后换到 analysis.<pid>-<n> 的下一个分段
+    int segmentSizeMb = 64;
+    // 映射分段方式下包目录的总大小上限，达到后不再新建分段，之后的事件被丢弃
+    int packageQuotaMb = 1024;
+    // compress=deflate 时文件输出（saveType=0/2）按批压缩为可单独解压的块（LogDeflateOutput），文件名加 .dz
+    boolean compressFiles;
+
+    private LogConfig() {
+    }
+
+    /**
+     * 返回当前生效的配置，解析后的对象不再修改，可以在任意线程读取
+     */
+    static LogConfig current() {
+        long now = SystemClock.uptimeMillis();
+        if (now >= sNextRefreshTime) {
+            refresh(now);
+        }
+        return sCurrent;
+    }
+
+    /**
+     * 判断当前进程是否记录该类型，只读取已计算的位图，不检查配置文件是否变化
+     */
+    static boolean isEnabled(int ordinal) {
+        return isSet(sActiveTypes, ordinal);
+    }
+
+    static boolean isSet(long[] bitset, int index) {
+        return (bitset[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return 0.save to file, 1.print log, 2.save binary file, 3.stream to collector, 4.framed logcat, 5.trace service, 6.shared memory daemon, -1.no save
+     */
+    static int saveType() {
+        return saveType(current());
+    }
+
+    private static int saveType(LogConfig config) {
+        String appPackageName = Application.packageName;
+        if (appPackageName == null || appPackageName.length() == 0) {
+            return -1;
+        }
+        if (config.packageName != null && !config.packageName.equals(appPackageName)) {
+            return -1;
+        }
+        return config.saveType;
+    }
+
+    /**
+     * 尾部日志总是写在 /sdcard/analysis/<包名>/ 下，默认只给本来就写入该目录的saveType=0/2使用，
+     * 其他输出方式需要显式设置tailSlots
+     */
+    int tailSlots() {
+        if (tailSlots >= 0) {
+            return tailSlots;
+        }
+        return saveType == 0 || saveType == 2 ? DEFAULT_TAIL_SLOTS : 0;
+    }
+
+    private static synchronized void refresh(long now) {
+        if (now < sNextRefreshTime) {
+            return;
+        }
+        // 先推迟下次检查时间，解析过程中经过hook的IO再次进入时直接使用缓存值
+        sNextRefreshTime = now + MIN_REFRESH_INTERVAL_MS;
+
+        File file = new File(CONFIG_PATH);
+        long lastModified = file.lastModified();
+        long length = file.length();
+        if (lastModified == sLastModified && length == sLastLength) {
+            return;
+        }
+        sLastModified = lastModified;
+        sLastLength = length;
+        sCurrent = lastModified == 0 ? EMPTY : parse();
+        updateActiveTypes();
+    }
+
+    /**
+     * 按当前配置和包名重新计算当前进程记录的类型，并同步到libcore的hook点
+     */
+    static synchronized void updateActiveTypes() {
+        LogConfig config = sCurrent;
+        long[] activeTypes = saveType(config) == -1 ? NO_TYPES : config.enabledTypes;
+        sActiveTypes = activeTypes;
+        LogHookSink.onActiveTypesChanged(activeTypes);
+    }
+
+    private static LogConfig parse() {
+        LogConfig config = new LogConfig();
+        int[] stackModes = filled(-1);
+        int[] stackDepths = filled(-1);
+        int[] enabled = filled(-1);
+        int[] sampleFirst = filled(-1);
+        int[] sampleEvery = filled(-1);
+        int[] rateLimits = filled(-1);
+        int[] cpuBudgets = filled(-1);
+        BufferedReader br = null;
+        try {
+            br = new BufferedReader(new InputStreamReader(new FileInputStream(CONFIG_PATH)));
+            String line;
+            while ((line = br.readLine()) != null) {
+                // 每行单独解析，写错的行记录警告后跳过，不影响之后的行
+                try {
+                    if (line.startsWith(CONFIG_PACKAGE_NAME_LABEL)) {
+                        config.packageName = line.substring(CONFIG_PACKAGE_NAME_LABEL.length()).trim();
+                    } else if (line.startsWith(CONFIG_SAVE_TYPE_LABEL)) {
+                        config.saveType = Integer.parseInt(line.substring(CONFIG_SAVE_TYPE_LABEL.length()).trim());
+                    } else if (line.startsWith(CONFIG_BUFFER_CAPACITY_LABEL)) {
+                        config.bufferCapacity = Integer.parseInt(line.substring(CONFIG_BUFFER_CAPACITY_LABEL.length()).trim());
+                    } else if (line.startsWith(CONFIG_OVERFLOW_POLICY_LABEL)) {
+                        config.overflowPolicy = parseOverflowPolicy(line.substring(CONFIG_OVERFLOW_POLICY_LABEL.length()).trim());
+                    } else if (line.startsWith(CONFIG_STACK_CAPTURE_LABEL)) {
+                        config.deferStackSymbolization = !line.substring(CONFIG_STACK_CAPTURE_LABEL.length()).trim().equals("eager");
+                    } else if (line.startsWith(CONFIG_BYTES_ENCODING_LABEL)) {
+                        config.bytesEncoding = LogBytes.parseEncoding(line.substring(CONFIG_BYTES_ENCODING_LABEL.length()).trim());
+                    } else if (line.startsWith(CONFIG_BYTES_LIMIT_LABEL)) {
+                        config.bytesLimit = Integer.parseInt(line.substring(CONFIG_BYTES_LIMIT_LABEL.length()).trim());
+                    } else if (line.startsWith(CONFIG_BLOB_THRESHOLD_LABEL)) {
+                        config.blobThreshold = Integer.parseInt(line.substring(CONFIG_BLOB_THRESHOLD_LABEL.length()).trim());
+                    } else if (line.startsWith(CONFIG_STREAM_ADDRESS_LABEL)) {
+                        config.streamAddress = line.substring(CONFIG_STREAM_ADDRESS_LABEL.length()).trim();
+                    } else if (line.startsWith(CONFIG_TAIL_SLOTS_LABEL)) {
+                        config.tailSlots = Math.max(Integer.parseInt(line.substring(CONFIG_TAIL_SLOTS_LABEL.length()).trim()), 0);
+                    } else if (line.startsWith(CONFIG_FILE_MODE_LABEL)) {
+                        config.mapFiles = line.substring(CONFIG_FILE_MODE_LABEL.length()).trim().equals("mmap");
+                    } else if (line.startsWith(CONFIG_SEGMENT_SIZE_LABEL)) {
+                        config.segmentSizeMb = Integer.parseInt(line.substring(CONFIG_SEGMENT_SIZE_LABEL.length()).trim());
+                    } else if (line.startsWith(CONFIG_PACKAGE_QUOTA_LABEL)) {
+                        config.packageQuotaMb = Integer.parseInt(line.substring(CONFIG_PACKAGE_QUOTA_LABEL.length()).trim());
+                    } else if (line.startsWith(CONFIG_COMPRESS_LABEL)) {
+                        config.compressFiles = line.substring(CONFIG_COMPRESS_LABEL.length()).trim().equals("deflate");
+                    } else if (line.startsWith(CONFIG_STACK_MODE_LABEL)) {
+                        parseTypeSetting(line, CONFIG_STACK_MODE_LABEL, stackModes, config.stackModes);
+                    } else if (line.startsWith(CONFIG_STACK_DEPTH_LABEL)) {
+                        parseTypeSetting(line, CONFIG_STACK_DEPTH_LABEL, stackDepths, config.stackDepths);
+                    } else if (line.startsWith(CONFIG_ENABLED_LABEL)) {
+                        parseTypeSetting(line, CONFIG_ENABLED_LABEL, enabled, config.enabled);
+                    } else if (line.startsWith(CONFIG_SAMPLE_FIRST_LABEL)) {
+                        parseTypeSetting(line, CONFIG_SAMPLE_FIRST_LABEL, sampleFirst, config.sampleFirst);
+                    } else if (line.startsWith(CONFIG_SAMPLE_EVERY_LABEL)) {
+                        parseTypeSetting(line, CONFIG_SAMPLE_EVERY_LABEL, sampleEvery, config.sampleEvery);
+                    } else if (line.startsWith(CONFIG_RATE_LIMIT_LABEL)) {
+                        parseTypeSetting(line, CONFIG_RATE_LIMIT_LABEL, rateLimits, config.rateLimits);
+                    } else if (line.startsWith(CONFIG_CPU_BUDGET_LABEL)) {
+                        parseTypeSetting(line, CONFIG_CPU_BUDGET_LABEL, cpuBudgets, config.cpuBudgets);
+                    }
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "ignoring config line \"" + line + "\": " + e);
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "cannot read " + CONFIG_PATH + ": " + e);
+        } finally {
+            if (br != null) {
+                try {
+                    br.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        applyTypeSettings(stackModes, config.stackModes);
+        applyTypeSettings(stackDepths, config.stackDepths);
+        applyTypeSettings(enabled, config.enabled);
+        applyTypeSettings(sampleFirst, config.sampleFirst);
+        applyTypeSettings(sampleEvery, config.sampleEvery);
+        applyTypeSettings(rateLimits, config.rateLimits);
+        applyTypeSettings(cpuBudgets, config.cpuBudgets);
+        config.enabledTypes = bitset(config.enabled);
+        return config;
+    }
+
+    /**
+     * 值不为0的类型对应的位为1
+     */
+    private static long[] bitset(int[] values) {
+        long[] bitset = new long[(TYPE_COUNT + 63) / 64];
+        for (int i = 0; i < TYPE_COUNT; ++i) {
+            if (values[i] != 0) {
+                bitset[i >>> 6] |= 1L << i;
+            }
+        }
+        return bitset;
+    }
+
+    private static int[] filled(int value) {
+        int[] values = new int[TYPE_COUNT];
+        for (int i = 0; i < TYPE_COUNT; ++i) {
+            values[i] = value;
+        }
+        return values;
+    }
+
+    /**
+     * 解析 label=value 或 label.<LOG_DATA_TYPE>=value，全局值直接写入所有类型，单个类型的值先记录在overrides中
+     */
+    private static void parseTypeSetting(String line, String label, int[] overrides, int[] values) {
+        int eq = line.indexOf('=');
+        if (eq < 0) {
+            return;
+        }
+        int value = parseTypeSettingValue(label, line.substring(eq + 1).trim());
+        if (eq == label.length()) {
+            for (int i = 0; i < TYPE_COUNT; ++i) {
+                values[i] = value;
+            }
+        } else if (line.charAt(label.length()) == '.') {
+            String typeName = line.substring(label.length() + 1, eq).trim();
+            if (typeName.endsWith("*")) {
+                String prefix = typeName.substring(0, typeName.length() - 1);
+                for (LogData.LOG_DATA_TYPE type : LogData.LOG_DATA_TYPE.values()) {
+                    if (type.name().startsWith(prefix)) {
+                        overrides[type.ordinal()] = value;
+                    }
+                }
+            } else {
+                LogData.LOG_DATA_TYPE type = findType(typeName);
+                if (type == null) {
+                    Log.w(TAG, "unknown type in config line \"" + line + "\"");
+                    return;
+                }
+                overrides[type.ordinal()] = value;
+            }
+        }
+    }
+
+    private static LogData.LOG_DATA_TYPE findType(String name) {
+        for (LogData.LOG_DATA_TYPE type : LogData.LOG_DATA_TYPE.values()) {
+            if (type.name().equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static int parseTypeSettingValue(String label, String value) {
+        if (label.equals(CONFIG_STACK_MODE_LABEL)) {
+            if (value.equals("app")) {
+                return LogStackFilter.MODE_APP;
+            } else if (value.equals("first_app")) {
+                return LogStackFilter.MODE_FIRST_APP;
+            }
+            return LogStackFilter.MODE_FULL;
+        }
+        return Integer.parseInt(value);
+    }
+
+    /**
+     * 单个类型的设置优先于全局设置，与配置行的先后顺序无关
+     */
+    private static void applyTypeSettings(int[] overrides, int[] values) {
+        for (int i = 0; i < TYPE_COUNT; ++i) {
+            if (overrides[i] != -1) {
+                values[i] = overrides[i];
+            }
+        }
+    }
+
+    private static int parseOverflowPolicy(String value) {
+        if (value.equals("drop_newest")) {
+            return LogRingBuffer.OVERFLOW_DROP_NEWEST;
+        } else if (value.equals("drop_oldest")) {
+            return LogRingBuffer.OVERFLOW_DROP_OLDEST;
+        }
+        return LogRingBuffer.OVERFLOW_BLOCK;
+    }
+}
@@ -1,12 +1,13 @@
 package android.util;
 
 import android.app.Application;
+import android.os.SystemClock;
 
 import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class LogData {
 
@@ -146,21 +147,42 @@ public class LogData {
         CV_GET,
         CV_PUT,
         DOS,
-        CALL_PHONE
+        CALL_PHONE,
+        // 以下为沙箱自身的记录类型
+        TRACE_DROPPED,
+        TRACE_SKIPPED,
+        TRACE_THROTTLED
     }
 
+    // 参数值的输出方式，由声明类型决定，hook点描述中预先计算（LogSiteSchema）
+    final static int VALUE_KIND_OBJECT = 0;
+    final static int VALUE_KIND_STRING_ARRAY = 1;
+    final static int VALUE_KIND_BYTES = 2;
+    final static int VALUE_KIND_FILE = 3;
+
     private String packageName;
 
     private StackTraceElement[] elements;
+    // 尚未符号化的调用栈，Throwable构造时ART只保存ArtMethod指针和dex pc，getStackTrace()时才生成StackTraceElement
+    private Throwable deferredStack;
+    private String stackCutMethod;
     private Class<?>[] argClasses;
     private Object[] argValues;
     private Class<?> returnClass;
     private Object returnValue;
+    // hook点描述，没有时参数类型来自每次调用传入的argClasses
+    private java.util.LogSite site;
 
     private LOG_DATA_TYPE dataType;
 
     private String other;
 
+    // hook时刻的开机时间（纳秒，系统范围单调递增），多进程分段按此合并排序
+    private final long elapsedRealtimeNanos;
+    // hook线程的tid和进程内序号，入队时由LogWriter设置
+    private int tid;
+    private long seq;
+
     public LogData(StackTraceElement[] elements, LOG_DATA_TYPE dataType) {
         this(elements, dataType, null, null, null, null, null);
     }
@@ -173,6 +195,11 @@ public class LogData {
         this(Application.packageName, elements, dataType, argClasses, argValues, returnClass, returnValue, other);
     }
 
+    LogData(LOG_DATA_TYPE dataType, java.util.LogSite site, Object[] argValues, Object returnValue) {
+        this(Application.packageName, null, dataType, site.argClasses, argValues, site.returnClass, returnValue, null);
+        this.site = site;
+    }
+
     public LogData(String packageName, StackTraceElement[] elements, LOG_DATA_TYPE dataType, Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String other) {
         this.packageName = packageName;
         this.elements = elements;
@@ -182,13 +209,130 @@ public class LogData {
         this.returnClass = returnClass;
         this.returnValue = returnValue;
         this.other = other;
+        this.elapsedRealtimeNanos = SystemClock.elapsedRealtimeNanos();
+    }
+
+
+    public LOG_DATA_TYPE getDataType() {
+        return dataType;
     }
 
+    public void setElements(StackTraceElement[] elements) {
+        this.elements = elements;
+    }
+
+    void setThread(int tid, long seq) {
+        this.tid = tid;
+        this.seq = seq;
+    }
+
+    long getElapsedRealtimeNanos() {
+        return elapsedRealtimeNanos;
+    }
+
+    int getTid() {
+        return tid;
+    }
+
+    long getSeq() {
+        return seq;
+    }
+
+    /**
+     * 第一个String/File参数，写入尾部日志作为事件摘要，没有时返回null
+     */
+    String previewArgument() {
+        if (argValues == null) {
+            return null;
+        }
+        for (Object value : argValues) {
+            if (value instanceof String) {
+                return (String) value;
+            }
+            if (value instanceof File) {
+                return ((File) value).getPath();
+            }
+        }
+        return null;
+    }
+
+    public void setDeferredStack(Throwable stack, String logMethodName) {
+        this.deferredStack = stack;
+        this.stackCutMethod = logMethodName;
+    }
+
+    /**
+     * 返回调用栈，延迟采集的调用栈在这里（写入线程）完成符号化和截取
+     */
+    public StackTraceElement[] getElements() {
+        if (elements == null) {
+            elements = deferredStack == null ? new StackTraceElement[0]
+                    : cutStack(deferredStack.getStackTrace(), stackCutMethod);
+            deferredStack = null;
+        }
+        return elements;
+    }
+
+    /**
+     * 截取hook点以上的调用栈
+     * @param logMethodName 输出函数名，栈中该函数（或MyReflectLog）之后的帧才会保留
+     */
+    public static StackTraceElement[] cutStack(StackTraceElement[] elements, String logMethodName) {
+        int save_index = -1;
+        for (int i = 0; i < elements.length; ++i) {
+            if (elements[i].getMethodName().equals(logMethodName)) {
+                save_index = i + 1;
+            }
+            if (elements[i].getMethodName().equals("MyReflectLog")) {
+                save_index = i + 1;
+            }
+        }
+        if (save_index < 0) {
+            return elements;
+        }
+        int length = elements.length - save_index;
+        StackTraceElement[] saveElements = new StackTraceElement[length];
+        System.arraycopy(elements, save_index, saveElements, 0, length);
+        return saveElements;
+    }
 
     public static String parseClassName(Class<?> cls) {
         return cls == null ? null : cls.getName();
     }
 
+    static int valueKind(Class<?> cls) {
+        if (cls == String[].class) {
+            return VALUE_KIND_STRING_ARRAY;
+        } else if (cls == byte[].class) {
+            return VALUE_KIND_BYTES;
+        } else if (cls == File.class) {
+            return VALUE_KIND_FILE;
+        }
+        return VALUE_KIND_OBJECT;
+    }
+
+    /**
+     * 在hook线程上固定参数值，写入线程异步序列化时不会读到已被修改的缓冲区或对象状态
+     */
+    public static Object captureValue(Object value) {
+        if (value == null || value instanceof String || value instanceof Number
+                || value instanceof Boolean || value instanceof Character
+                || value instanceof File || value instanceof Enum) {
+            return value;
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        if (value instanceof ByteBuffer) {
+            // 只保留position到limit之间的内容，输出时按byte[]处理
+            return LogBytes.copyRemaining((ByteBuffer) value);
+        }
+        if (value instanceof String[]) {
+            return ((String[]) value).clone();
+        }
+        return value.toString();
+    }
+
     public static Object parseValue(Class<?> cls, Object value) {
         if (value != null && value.equals("pass")) {
             return "pass";
@@ -243,43 +387,145 @@ public class LogData {
 
 
     public String toJsonData() {
-        JSONArray elementsJson = new JSONArray();
-        for (StackTraceElement element : elements) {
-            try {
-                JSONObject elementJson = new JSONObject();
-                elementJson.put("methodName", element.getMethodName());
-                elementJson.put("className", element.getClassName());
-                elementJson.put("fileName", element.getFileName());
-                elementJson.put("lineNumber", element.getLineNumber());
-
-                elementsJson.put(elementJson);
-            } catch (JSONException e) {
-                e.printStackTrace();
+        return writeJson(LogJsonWriter.local()).toString();
+    }
+
+    /**
+     * 流式输出JSON，结果与原先基于JSONObject的输出逐字节一致
+     */
+    LogJsonWriter writeJson(LogJsonWriter writer) {
+        writer.beginObject();
+        if (packageName != null) {
+            writer.key("packageName").value(packageName);
+        }
+        writer.key("dataType").value(dataType.name());
+        writer.key("elements").beginArray();
+        for (StackTraceElement element : getElements()) {
+            writer.beginObject();
+            writer.key("methodName").value(element.getMethodName());
+            writer.key("className").value(element.getClassName());
+            if (element.getFileName() != null) {
+                writer.key("fileName").value(element.getFileName());
             }
+            writer.key("lineNumber").value(element.getLineNumber());
+            writer.endObject();
+        }
+        writer.endArray();
+
+        LogSiteSchema schema = site != null ? LogSiteSchema.of(site) : null;
+        int argCount = this.argClasses == null ? 0 : this.argClasses.length;
+        writer.key("argClassNames").beginArray();
+        for (int i = 0; i < argCount; ++i) {
+            writer.value(schema != null ? schema.argClassNames[i] : parseClassName(this.argClasses[i]));
         }
-        JSONObject jsonObject = new JSONObject();
-        try {
-            JSONArray argClassNamesJson = new JSONArray();
-            JSONArray argValuesJson = new JSONArray();
-            if (this.argClasses != null) {
-                for (int i = 0; i < this.argClasses.length; ++i) {
-                    Class<?> argClass = this.argClasses[i];
+        writer.endArray();
+        writer.key("argValues").beginArray();
+        for (int i = 0; i < argCount; ++i) {
+            writeJsonValue(writer, schema != null ? schema.argKinds[i] : valueKind(this.argClasses[i]), this.argValues[i]);
+        }
+        writer.endArray();
+
+        int returnKind = schema != null ? schema.returnKind : valueKind(returnClass);
+        if (returnClass != null) {
+            writer.key("returnClassName").value(schema != null ? schema.returnClassName : parseClassName(returnClass));
+        }
+        if (!isNullJsonValue(returnKind, returnValue)) {
+            writer.key("returnValue");
+            writeJsonValue(writer, returnKind, returnValue);
+        }
+        if (other != null) {
+            writer.key("other").value(other);
+        }
+        writer.key("elapsedRealtimeNanos").value(elapsedRealtimeNanos);
+        writer.key("tid").value(tid);
+        writer.key("seq").value(seq);
+        return writer.endObject();
+    }
 
-                    argClassNamesJson.put(parseClassName(argClass));
-                    argValuesJson.put(parseValue(argClass, this.argValues[i]));
+    /**
+     * parseValue结果为null时，JSONObject.put会省略该字段
+     */
+    private static boolean isNullJsonValue(int kind, Object value) {
+        return value == null && kind != VALUE_KIND_STRING_ARRAY && kind != VALUE_KIND_BYTES;
+    }
+
+    /**
+     * 与parseValue的转换规则一致，直接写入writer
+     */
+    private static void writeJsonValue(LogJsonWriter writer, int kind, Object value) {
+        if (value != null && value.equals("pass")) {
+            writer.value("pass");
+        } else if (kind == VALUE_KIND_STRING_ARRAY) {
+            writer.beginArray();
+            if (value != null) {
+                for (String v : (String[]) value) {
+                    writer.value(v);
+                }
+            }
+            writer.endArray();
+        } else if (kind == VALUE_KIND_BYTES || value instanceof byte[]) {
+            writer.value(value == null ? new byte[0] : (byte[]) value);
+        } else if (kind == VALUE_KIND_FILE) {
+            writer.value(value != null ? ((File) value).getPath() : null);
+        } else {
+            writer.rawValue(value);
+        }
+    }
+
+    /**
+     * 二进制输出，字段和值的转换规则与toJsonData保持一致，解码后可以还原为相同的JSON
+     */
+    public void toBinaryData(LogBinaryEncoder encoder) throws IOException {
+        encoder.beginEvent();
+        encoder.writeStringRef(packageName);
+        if (site != null) {
+            // 类型、参数类名和名称在站点定义中，事件只写入站点ID和参数值
+            LogSiteSchema schema = LogSiteSchema.of(site);
+            encoder.writeSite(site, schema, dataType);
+            encoder.writeStack(getElements());
+            for (int i = 0; i < schema.argKinds.length; ++i) {
+                writeBinaryValue(encoder, schema.argKinds[i], this.argValues[i]);
+            }
+            writeBinaryValue(encoder, schema.returnKind, returnValue);
+        } else {
+            encoder.writeVarint(0);
+            encoder.writeDataType(dataType);
+            encoder.writeStack(getElements());
+            int argCount = this.argClasses == null ? 0 : this.argClasses.length;
+            encoder.writeVarint(argCount);
+            for (int i = 0; i < argCount; ++i) {
+                Class<?> argClass = this.argClasses[i];
+
+                encoder.writeStringRef(parseClassName(argClass));
+                writeBinaryValue(encoder, valueKind(argClass), this.argValues[i]);
+            }
+            encoder.writeStringRef(parseClassName(returnClass));
+            writeBinaryValue(encoder, valueKind(returnClass), returnValue);
+        }
+        encoder.writeString(other);
+        encoder.writeEventTime(elapsedRealtimeNanos);
+        encoder.writeEventThread(tid, seq);
+        encoder.endRecord();
+    }
+
+    private static void writeBinaryValue(LogBinaryEncoder encoder, int kind, Object value) {
+        if (value != null && value.equals("pass")) {
+            encoder.writeString("pass");
+        } else if (kind == VALUE_KIND_STRING_ARRAY) {
+            String[] values = (String[]) value;
+            encoder.writeArrayHeader(values == null ? 0 : values.length);
+            if (values != null) {
+                for (String v : values) {
+                    encoder.writeString(v);
                 }
             }
-            jsonObject.put("packageName", packageName);
-            jsonObject.put("dataType", dataType);
-            jsonObject.put("elements", elementsJson);
-            jsonObject.put("argClassNames", argClassNamesJson);
-            jsonObject.put("argValues", argValuesJson);
-            jsonObject.put("returnClassName", parseClassName(returnClass));
-            jsonObject.put("returnValue", parseValue(returnClass, returnValue));
-            jsonObject.put("other", other);
-        } catch (JSONException e) {
-            e.printStackTrace();
-        }
-        return jsonObject.toString();
+        } else if (kind == VALUE_KIND_BYTES || value instanceof byte[]) {
+            encoder.writeBytes(value == null ? new byte[0] : (byte[]) value);
+        } else if (kind == VALUE_KIND_FILE) {
+            encoder.writeString(value != null ? ((File) value).getPath() : null);
+        } else {
+            // 基本类型和String原样输出，其它对象与parseValue一样输出toString()
+            encoder.writeRawValue(value);
+        }
     }
 }
@@ -0,0 +1,120 @@
+package android.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 压缩的分段文件（compress=deflate）：写入的数据在flush()时压缩为一个块，LogWriter每批flush一次，即每批一个块。
+ * 每个块以FULL_FLUSH结束，压缩字典随之清空，块可以单独解压；拉取了一部分的文件或进程崩溃留下的不完整末尾块
+ * 不影响之前的块。文件名在原扩展名后加 .dz，主机端 lian-trace 直接读取。
+ *
+ * <p>块格式（大端）：magic "LTZ1"、压缩后长度、原始长度、原始数据的CRC32，之后为raw deflate数据。
+ */
+final class LogDeflateOutput extends OutputStream {
+
+    final static String EXTENSION = ".dz";
+
+    private final static int MAGIC = 0x4c545a31;
+    private final static int BLOCK_HEADER_SIZE = 16;
+    // 单个块的最大原始长度，超过时提前结束当前块
+    private final static int MAX_BLOCK_BYTES = 1024 * 1024;
+
+    private final OutputStream out;
+    // 写入线程的CPU比压缩率更重要，使用最快的压缩级别
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+    private final CRC32 crc = new CRC32();
+    private byte[] raw = new byte[64 * 1024];
+    private int rawLength;
+    private byte[] block = new byte[BLOCK_HEADER_SIZE + 64 * 1024];
+
+    LogDeflateOutput(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (rawLength == raw.length) {
+            if (rawLength == MAX_BLOCK_BYTES) {
+                writeBlock();
+            } else {
+                grow(rawLength + 1);
+            }
+        }
+        raw[rawLength++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (rawLength == MAX_BLOCK_BYTES) {
+                writeBlock();
+            }
+            int count = Math.min(len, MAX_BLOCK_BYTES - rawLength);
+            if (raw.length < rawLength + count) {
+                grow(rawLength + count);
+            }
+            System.arraycopy(b, off, raw, rawLength, count);
+            rawLength += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (rawLength > 0) {
+            writeBlock();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void grow(int capacity) {
+        byte[] grown = new byte[Math.min(MAX_BLOCK_BYTES, Math.max(capacity, raw.length * 2))];
+        System.arraycopy(raw, 0, grown, 0, rawLength);
+        raw = grown;
+    }
+
+    private void writeBlock() throws IOException {
+        crc.reset();
+        crc.update(raw, 0, rawLength);
+        deflater.setInput(raw, 0, rawLength);
+        int length = BLOCK_HEADER_SIZE;
+        while (true) {
+            if (length == block.length) {
+                byte[] grown = new byte[block.length * 2];
+                System.arraycopy(block, 0, grown, 0, length);
+                block = grown;
+            }
+            length += deflater.deflate(block, length, block.length - length, Deflater.FULL_FLUSH);
+            // 输出缓冲区未被填满说明本块的数据已全部输出
+            if (length < block.length) {
+                break;
+            }
+        }
+        putInt(block, 0, MAGIC);
+        putInt(block, 4, length - BLOCK_HEADER_SIZE);
+        putInt(block, 8, rawLength);
+        putInt(block, 12, (int) crc.getValue());
+        out.write(block, 0, length);
+        rawLength = 0;
+    }
+
+    private static void putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,43 @@
+package android.util;
+
+/**
+ * 分帧logcat输出（saveType=4）：每条JSON记录按UTF-8字节切分为不超过标准LOGGER_ENTRY_MAX_PAYLOAD的分片，
+ * 每个分片单独写一条logcat，格式为
+ * <pre>LTF &lt;pid&gt; &lt;帧序号&gt; &lt;片序号&gt;/&lt;片数&gt; &lt;内容&gt;</pre>
+ * 帧序号在进程内从1开始连续递增，主机端 lian-trace logcat 按pid重组记录，序号不连续时统计丢失的帧并丢弃不完整的记录。
+ * 只在写入线程使用。
+ */
+final class LogFrameWriter {
+
+    final static String FRAME_PREFIX = "LTF";
+
+    // 标准LOGGER_ENTRY_MAX_PAYLOAD为4068字节，其中包含优先级、tag和两个结尾NUL，余量留给帧头
+    private final static int MAX_CHUNK_BYTES = 3968;
+
+    private final String tag;
+    private final int pid;
+    private long frame;
+
+    LogFrameWriter(String tag, int pid) {
+        this.tag = tag;
+        this.pid = pid;
+    }
+
+    void write(LogJsonWriter json) {
+        int length = json.length();
+        int parts = 0;
+        int start = 0;
+        do {
+            start = json.chunkEnd(start, MAX_CHUNK_BYTES);
+            ++parts;
+        } while (start < length);
+
+        start = 0;
+        for (int part = 1; part <= parts; ++part) {
+            int end = json.chunkEnd(start, MAX_CHUNK_BYTES);
+            Log.d(tag, FRAME_PREFIX + ' ' + pid + ' ' + (++frame) + ' ' + part + '/' + parts + ' '
+                    + json.toString(start, end));
+            start = end;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package android.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * libcore / apache-http 中hook点的接收端，注册到 java.util.LogUtil 后，hook点通过int事件ID直接调用，
+ * 不再每次反射查找 LOG_DATA_TYPE 和 MyLogB
+ */
+final class LogHookSink implements java.util.LogUtil.Sink {
+
+    private final static String TAG = "LogHookSink";
+
+    private static volatile LogHookSink sInstance;
+
+    // java.util.LogUtil中的事件ID -> LOG_DATA_TYPE，注册时按常量名建立
+    private final LogData.LOG_DATA_TYPE[] types;
+    // 按事件ID的位图：当前进程记录的事件和超出CPU预算只计数的事件，由publish()合并后交给java.util.LogUtil
+    private long activeEvents = -1L;
+    private long countedEvents;
+
+    private LogHookSink(LogData.LOG_DATA_TYPE[] types) {
+        this.types = types;
+    }
+
+    static void register() {
+        LogHookSink sink = new LogHookSink(resolveTypes());
+        sInstance = sink;
+        java.util.LogUtil.setSink(sink);
+    }
+
+    /**
+     * 当前进程记录的类型变化时，把按类型的位图换算为java.util.LogUtil的事件ID位图。
+     * 注册后第一次读取配置之前，java.util.LogUtil中所有事件都是开启的
+     */
+    static void onActiveTypesChanged(long[] activeTypes) {
+        LogHookSink sink = sInstance;
+        if (sink == null) {
+            return;
+        }
+        synchronized (sink) {
+            sink.activeEvents = sink.eventMask(activeTypes);
+            sink.publish();
+        }
+    }
+
+    /**
+     * 超出CPU预算只计数的类型变化时调用（LogBudget），这些事件的hook点不再构造参数，只通过count()计数
+     */
+    static void onCountedTypesChanged(long[] countedTypes) {
+        LogHookSink sink = sInstance;
+        if (sink == null) {
+            return;
+        }
+        synchronized (sink) {
+            sink.countedEvents = sink.eventMask(countedTypes);
+            sink.publish();
+        }
+    }
+
+    private long eventMask(long[] typeBitset) {
+        long mask = 0;
+        for (int id = 0; id < types.length; ++id) {
+            if (types[id] != null && LogConfig.isSet(typeBitset, types[id].ordinal())) {
+                mask |= 1L << id;
+            }
+        }
+        return mask;
+    }
+
+    private void publish() {
+        java.util.LogUtil.setCountedEvents(activeEvents & countedEvents);
+        java.util.LogUtil.setEnabledEvents(activeEvents & ~countedEvents);
+    }
+
+    /**
+     * 检查java.util.LogUtil中的每个事件ID都有同名的LOG_DATA_TYPE，缺少的只输出警告，对应事件被忽略
+     */
+    private static LogData.LOG_DATA_TYPE[] resolveTypes() {
+        LogData.LOG_DATA_TYPE[] types = new LogData.LOG_DATA_TYPE[java.util.LogUtil.EVENT_COUNT];
+        for (Field field : java.util.LogUtil.class.getFields()) {
+            int modifiers = field.getModifiers();
+            if (field.getType() != int.class || !Modifier.isStatic(modifiers)
+                    || field.getName().equals("EVENT_COUNT")) {
+                continue;
+            }
+            try {
+                int id = field.getInt(null);
+                if (id < 0 || id >= types.length) {
+                    Log.w(TAG, "event id out of range: " + field.getName() + "=" + id);
+                    continue;
+                }
+                types[id] = LogData.LOG_DATA_TYPE.valueOf(field.getName());
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                Log.w(TAG, "unknown event: " + field.getName());
+            }
+        }
+        return types;
+    }
+
+    @Override
+    public void log(int eventId, Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue) {
+        if (eventId < 0 || eventId >= types.length || types[eventId] == null) {
+            return;
+        }
+        LogUtil.MyLogB(types[eventId], argClasses, argValues, returnClass, returnValue);
+    }
+
+    @Override
+    public void log(java.util.LogSite site, Object[] argValues, Object returnValue) {
+        int eventId = site.eventId;
+        if (eventId < 0 || eventId >= types.length || types[eventId] == null) {
+            return;
+        }
+        LogUtil.MyLogB(types[eventId], site, argValues, returnValue);
+    }
+
+    @Override
+    public void flush() {
+        LogUtil.flushTrace();
+    }
+
+    @Override
+    public void checkConfig() {
+        LogConfig.current();
+    }
+
+    @Override
+    public void count(int eventId) {
+        if (eventId < 0 || eventId >= types.length || types[eventId] == null) {
+            return;
+        }
+        LogBudget.count(types[eventId].ordinal());
+    }
+}
@@ -0,0 +1,449 @@
+package android.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 流式JSON输出：直接把UTF-8写入可复用的字节缓冲区，不创建JSONObject/JSONArray，也不装箱基本类型。
+ * 输出格式（转义规则、数字格式、null字段省略）与 org.json 的 JSONObject.toString() 完全一致。
+ * 每个线程使用自己的实例。
+ */
+final class LogJsonWriter {
+
+    private final static byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private final static byte[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+            .getBytes(StandardCharsets.US_ASCII);
+    private final static byte[] NULL = { 'n', 'u', 'l', 'l' };
+    private final static byte[] TRUE = { 't', 'r', 'u', 'e' };
+    private final static byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+    // JSONObject.numberToString() 只对Double的-0.0输出-0，Float的-0.0f输出0
+    private final static Double NEGATIVE_ZERO = -0d;
+
+    private final static ThreadLocal<LogJsonWriter> sLocal = new ThreadLocal<LogJsonWriter>() {
+        @Override
+        protected LogJsonWriter initialValue() {
+            return new LogJsonWriter();
+        }
+    };
+
+    private byte[] buf = new byte[8192];
+    private int length;
+    private boolean needComma;
+    // byte[]的输出编码（LogBytes.ENCODING_*）和单个参数的字节上限（<=0不限制）
+    private int bytesEncoding = LogBytes.ENCODING_ARRAY;
+    private int bytesLimit;
+    // 不为null时，达到阈值的byte[]写入blob文件，只输出引用
+    private LogBlobStore blobStore;
+
+    static LogJsonWriter local() {
+        LogConfig config = LogConfig.current();
+        return sLocal.get().reset().setBytesFormat(config.bytesEncoding, config.bytesLimit);
+    }
+
+    LogJsonWriter setBytesFormat(int encoding, int limit) {
+        bytesEncoding = encoding;
+        bytesLimit = limit;
+        return this;
+    }
+
+    LogJsonWriter setBlobStore(LogBlobStore store) {
+        blobStore = store;
+        return this;
+    }
+
+    LogJsonWriter reset() {
+        length = 0;
+        needComma = false;
+        return this;
+    }
+
+    LogJsonWriter beginObject() {
+        separator();
+        writeByte('{');
+        needComma = false;
+        return this;
+    }
+
+    LogJsonWriter endObject() {
+        writeByte('}');
+        needComma = true;
+        return this;
+    }
+
+    LogJsonWriter beginArray() {
+        separator();
+        writeByte('[');
+        needComma = false;
+        return this;
+    }
+
+    LogJsonWriter endArray() {
+        writeByte(']');
+        needComma = true;
+        return this;
+    }
+
+    /**
+     * 与 JSONObject.put(name, null) 一致，值为null的字段由调用方跳过，不调用key()
+     */
+    LogJsonWriter key(String name) {
+        separator();
+        writeString(name);
+        writeByte(':');
+        needComma = false;
+        return this;
+    }
+
+    LogJsonWriter nullValue() {
+        separator();
+        writeRaw(NULL);
+        needComma = true;
+        return this;
+    }
+
+    LogJsonWriter value(boolean value) {
+        separator();
+        writeRaw(value ? TRUE : FALSE);
+        needComma = true;
+        return this;
+    }
+
+    LogJsonWriter value(long value) {
+        separator();
+        writeLong(value);
+        needComma = true;
+        return this;
+    }
+
+    LogJsonWriter value(String value) {
+        if (value == null) {
+            return nullValue();
+        }
+        separator();
+        writeString(value);
+        needComma = true;
+        return this;
+    }
+
+    /**
+     * 与 JSONStringer.value(Object) 一致：数字、布尔原样输出，其它对象输出toString()
+     */
+    LogJsonWriter rawValue(Object value) {
+        if (value == null) {
+            return nullValue();
+        } else if (value instanceof Boolean) {
+            return value((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            return value(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            return number((Number) value);
+        }
+        return value(value.toString());
+    }
+
+    /**
+     * 与 JSONObject.numberToString() 一致：Double的-0.0输出为-0，整数值的浮点数不带小数部分。
+     * 非有限数字org.json会拒绝，这里输出为带引号的字符串，保证仍是合法JSON。
+     * 与主机端 JsonLineWriter.value(Number) 使用同一规则
+     */
+    private LogJsonWriter number(Number number) {
+        double doubleValue = number.doubleValue();
+        if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+            return value(number.toString());
+        }
+        long longValue = number.longValue();
+        if (!number.equals(NEGATIVE_ZERO) && doubleValue == (double) longValue) {
+            return value(longValue);
+        }
+        separator();
+        writeAscii(number.equals(NEGATIVE_ZERO) ? "-0" : number.toString());
+        needComma = true;
+        return this;
+    }
+
+    /**
+     * 默认与JSONArray.put(byte)一致，按有符号十进制数组输出。
+     * 设置了hex/base64编码或超过字节上限时输出摘要对象：
+     * {"encoding":..,"length":总长度,"hash":xxHash64,"data":..} 或截断为 "head":..,"tail":..
+     * 写入blob时输出 {"length":总长度,"hash":xxHash64,"blob":"blobs/<hash>.bin"}
+     */
+    LogJsonWriter value(byte[] bytes) {
+        int total = bytes.length;
+        if (blobStore != null && blobStore.accepts(total)) {
+            long hash = LogHash.hash64(bytes, 0, total);
+            if (blobStore.put(bytes, hash)) {
+                beginObject();
+                key("length").value(total);
+                key("hash").value(LogHash.toHex(hash));
+                key("blob").value(LogBlobStore.blobPath(hash));
+                return endObject();
+            }
+        }
+        boolean truncated = LogBytes.isTruncated(total, bytesLimit);
+        if (bytesEncoding == LogBytes.ENCODING_ARRAY && !truncated) {
+            return bytes(bytes, 0, total);
+        }
+        beginObject();
+        key("encoding").value(LogBytes.encodingName(bytesEncoding));
+        key("length").value(total);
+        key("hash").value(LogHash.toHex(LogHash.hash64(bytes, 0, total)));
+        if (truncated) {
+            int head = LogBytes.headLength(bytesLimit);
+            int tail = LogBytes.tailLength(bytesLimit);
+            key("head");
+            bytes(bytes, 0, head);
+            key("tail");
+            bytes(bytes, total - tail, tail);
+        } else {
+            key("data");
+            bytes(bytes, 0, total);
+        }
+        return endObject();
+    }
+
+    private LogJsonWriter bytes(byte[] bytes, int offset, int count) {
+        if (bytesEncoding == LogBytes.ENCODING_HEX) {
+            separator();
+            writeHex(bytes, offset, count);
+            needComma = true;
+            return this;
+        } else if (bytesEncoding == LogBytes.ENCODING_BASE64) {
+            separator();
+            writeBase64(bytes, offset, count);
+            needComma = true;
+            return this;
+        }
+        beginArray();
+        for (int i = 0; i < count; ++i) {
+            if (i > 0) {
+                writeByte(',');
+            }
+            writeLong(bytes[offset + i]);
+        }
+        return endArray();
+    }
+
+    int length() {
+        return length;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(buf, 0, length);
+    }
+
+    /**
+     * 从start开始最多maxBytes字节的分片结束位置，不拆开UTF-8多字节字符
+     */
+    int chunkEnd(int start, int maxBytes) {
+        int end = start + maxBytes;
+        if (end >= length) {
+            return length;
+        }
+        // 10xxxxxx为多字节字符的后续字节，向前退到字符开头
+        while (end > start && (buf[end] & 0xC0) == 0x80) {
+            --end;
+        }
+        return end;
+    }
+
+    String toString(int start, int end) {
+        return new String(buf, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    void newLine() {
+        writeByte('\n');
+    }
+
+    @Override
+    public String toString() {
+        return new String(buf, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void separator() {
+        if (needComma) {
+            writeByte(',');
+        }
+    }
+
+    /**
+     * 与 JSONStringer.string() 的转义规则一致，同时完成UTF-8编码
+     */
+    private void writeString(String value) {
+        int count = value.length();
+        ensure(count * 3 + 2);
+        byte[] b = buf;
+        int n = length;
+        b[n++] = '"';
+        for (int i = 0; i < count; ++i) {
+            char c = value.charAt(i);
+            if (n + 7 > b.length) {
+                length = n;
+                ensure(7 + (count - i) * 3);
+                b = buf;
+            }
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    b[n++] = '\\';
+                    b[n++] = (byte) c;
+                    break;
+                case '\t':
+                    b[n++] = '\\';
+                    b[n++] = 't';
+                    break;
+                case '\b':
+                    b[n++] = '\\';
+                    b[n++] = 'b';
+                    break;
+                case '\n':
+                    b[n++] = '\\';
+                    b[n++] = 'n';
+                    break;
+                case '\r':
+                    b[n++] = '\\';
+                    b[n++] = 'r';
+                    break;
+                case '\f':
+                    b[n++] = '\\';
+                    b[n++] = 'f';
+                    break;
+                default:
+                    if (c <= 0x1F) {
+                        b[n++] = '\\';
+                        b[n++] = 'u';
+                        b[n++] = '0';
+                        b[n++] = '0';
+                        b[n++] = HEX[(c >> 4) & 0xF];
+                        b[n++] = HEX[c & 0xF];
+                    } else if (c < 0x80) {
+                        b[n++] = (byte) c;
+                    } else if (c < 0x800) {
+                        b[n++] = (byte) (0xC0 | (c >> 6));
+                        b[n++] = (byte) (0x80 | (c & 0x3F));
+                    } else if (Character.isHighSurrogate(c) && i + 1 < count
+                            && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                        b[n++] = (byte) (0xF0 | (codePoint >> 18));
+                        b[n++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                        b[n++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                        b[n++] = (byte) (0x80 | (codePoint & 0x3F));
+                    } else if (Character.isSurrogate(c)) {
+                        // 与String.getBytes(UTF_8)一致，不成对的代理字符输出为'?'
+                        b[n++] = '?';
+                    } else {
+                        b[n++] = (byte) (0xE0 | (c >> 12));
+                        b[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                        b[n++] = (byte) (0x80 | (c & 0x3F));
+                    }
+                    break;
+            }
+        }
+        b[n++] = '"';
+        length = n;
+    }
+
+    private void writeHex(byte[] bytes, int offset, int count) {
+        ensure(count * 2 + 2);
+        byte[] b = buf;
+        int n = length;
+        b[n++] = '"';
+        for (int i = offset, end = offset + count; i < end; ++i) {
+            b[n++] = HEX[(bytes[i] >> 4) & 0xF];
+            b[n++] = HEX[bytes[i] & 0xF];
+        }
+        b[n++] = '"';
+        length = n;
+    }
+
+    /**
+     * 标准base64（带'='填充，不换行），与Base64.NO_WRAP一致；不调用android.util.Base64，避免触发其hook。
+     * 与writeString一致，'/'转义为"\/"
+     */
+    private void writeBase64(byte[] bytes, int offset, int count) {
+        ensure((count + 2) / 3 * 8 + 2);
+        int i = offset;
+        int end = offset + count;
+        writeByte('"');
+        for (; i + 3 <= end; i += 3) {
+            int v = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF);
+            writeBase64Char(v >>> 18);
+            writeBase64Char((v >>> 12) & 0x3F);
+            writeBase64Char((v >>> 6) & 0x3F);
+            writeBase64Char(v & 0x3F);
+        }
+        if (end - i == 1) {
+            int v = (bytes[i] & 0xFF) << 16;
+            writeBase64Char(v >>> 18);
+            writeBase64Char((v >>> 12) & 0x3F);
+            buf[length++] = '=';
+            buf[length++] = '=';
+        } else if (end - i == 2) {
+            int v = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8;
+            writeBase64Char(v >>> 18);
+            writeBase64Char((v >>> 12) & 0x3F);
+            writeBase64Char((v >>> 6) & 0x3F);
+            buf[length++] = '=';
+        }
+        buf[length++] = '"';
+    }
+
+    private void writeBase64Char(int index) {
+        byte c = BASE64[index];
+        if (c == '/') {
+            buf[length++] = '\\';
+        }
+        buf[length++] = c;
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            buf[length++] = '-';
+            value = -value;
+        }
+        int start = length;
+        do {
+            buf[length++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        for (int i = start, j = length - 1; i < j; ++i, --j) {
+            byte t = buf[i];
+            buf[i] = buf[j];
+            buf[j] = t;
+        }
+    }
+
+    private void writeAscii(String value) {
+        int count = value.length();
+        ensure(count);
+        for (int i = 0; i < count; ++i) {
+            buf[length++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void writeRaw(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void writeByte(int value) {
+        ensure(1);
+        buf[length++] = (byte) value;
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > buf.length) {
+            byte[] newBuf = new byte[Math.max(buf.length * 2, length + extra)];
+            System.arraycopy(buf, 0, newBuf, 0, length);
+            buf = newBuf;
+        }
+    }
+}
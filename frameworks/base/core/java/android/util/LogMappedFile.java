@@ -0,0 +1,145 @@
+package android.util;
+
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.NioUtils;
+import java.nio.channels.FileChannel;
+
+/**
+ * 预分配并映射的分段文件（fileMode=mmap）：创建时用fallocate分配segmentBytes并整体映射，写入只是向映射中复制数据，
+ * 没有系统调用，进程被杀死时已写入的内容仍在page cache中。写满后由LogWriter在批次之间换到下一个分段文件；
+ * 一个批次超出剩余空间时按需扩展映射，分段可能略大于segmentBytes。
+ * 正常关闭时截断到实际长度，进程被杀死时文件末尾保留全0的预分配空间，主机端读取时按文件结束处理。
+ * 只在写入线程使用。
+ */
+final class LogMappedFile extends OutputStream {
+
+    // 超出预分配空间时每次至少扩展的字节数
+    private final static int MIN_EXTEND_BYTES = 1024 * 1024;
+
+    private final RandomAccessFile file;
+    private final FileDescriptor fd;
+    private final long segmentBytes;
+    private MappedByteBuffer window;
+    // window在文件中的起始位置，未映射时为已写入的长度
+    private long windowStart;
+    private boolean closed;
+
+    private LogMappedFile(RandomAccessFile file, long segmentBytes) throws IOException {
+        this.file = file;
+        this.fd = file.getFD();
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * @return 文件系统不支持fallocate时返回null，调用方改用普通文件输出；
+     *         不预分配时写入映射遇到空间不足会以SIGBUS结束进程
+     */
+    static LogMappedFile create(String path, long segmentBytes) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        try {
+            LogMappedFile mapped = new LogMappedFile(file, segmentBytes);
+            if (!mapped.map(0, segmentBytes)) {
+                file.close();
+                return null;
+            }
+            return mapped;
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    FileDescriptor getFD() {
+        return fd;
+    }
+
+    /**
+     * 已写入的长度达到分段大小，下一批应写入新的分段
+     */
+    boolean isFull() {
+        return position() >= segmentBytes;
+    }
+
+    long position() {
+        return window == null ? windowStart : windowStart + window.position();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureRemaining(1);
+        window.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ensureRemaining(len);
+            int count = Math.min(len, window.remaining());
+            window.put(b, off, count);
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * 截断预分配但未使用的空间并解除映射
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long length = position();
+        if (window != null) {
+            unmap();
+        }
+        try {
+            file.setLength(length);
+        } finally {
+            file.close();
+        }
+    }
+
+    private void ensureRemaining(int count) throws IOException {
+        if (window != null && window.hasRemaining()) {
+            return;
+        }
+        long start = position();
+        if (window != null) {
+            unmap();
+        }
+        if (!map(start, Math.max((long) count, MIN_EXTEND_BYTES))) {
+            throw new IOException("fallocate not supported");
+        }
+    }
+
+    private boolean map(long start, long length) throws IOException {
+        try {
+            Os.posix_fallocate(fd, start, length);
+        } catch (ErrnoException e) {
+            if (e.errno == OsConstants.EOPNOTSUPP || e.errno == OsConstants.ENOSYS) {
+                return false;
+            }
+            throw new IOException("fallocate failed: " + e);
+        }
+        window = file.getChannel().map(FileChannel.MapMode.READ_WRITE, start, length);
+        windowStart = start;
+        return true;
+    }
+
+    private void unmap() {
+        windowStart = position();
+        // 不等GC回收，立即释放映射
+        NioUtils.freeDirectBuffer(window);
+        window = null;
+    }
+}
@@ -0,0 +1,106 @@
+package android.util;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 单生产者（hook所在线程）单消费者（写入线程）的有界环形缓冲区，每个线程独占一个，入队无锁
+ */
+final class LogRingBuffer {
+
+    /** 缓冲区满时阻塞生产者，直到写入线程腾出空间；写入线程已退出时改为丢弃新事件 */
+    final static int OVERFLOW_BLOCK = 0;
+    /** 缓冲区满时丢弃新事件 */
+    final static int OVERFLOW_DROP_NEWEST = 1;
+    /** 缓冲区满时覆盖最旧的事件 */
+    final static int OVERFLOW_DROP_OLDEST = 2;
+
+    private final static long BLOCK_PARK_NANOS = 100 * 1000;
+
+    final Thread owner;
+    final String ownerName;
+    // owner线程的内核线程ID，缓冲区在owner线程上创建时获取一次
+    final int tid;
+    private final int policy;
+    private final LogData[] slots;
+    private final int mask;
+
+    // head只由消费者推进；DROP_OLDEST策略下生产者也会通过CAS推进head丢弃最旧事件
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // 写入线程已经输出到trace中的丢弃数量
+    long reportedDropped;
+
+    LogRingBuffer(Thread owner, int tid, int capacity, int policy) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.owner = owner;
+        this.ownerName = owner.getName();
+        this.tid = tid;
+        this.policy = policy;
+        this.slots = new LogData[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * 生产者入队，只能由owner线程调用
+     * @return false 事件因缓冲区满被丢弃
+     */
+    boolean offer(LogData logData, Thread consumer) {
+        long t = tail.get();
+        while (t - head.get() >= slots.length) {
+            if (policy == OVERFLOW_DROP_NEWEST || !consumer.isAlive()) {
+                dropped.lazySet(dropped.get() + 1);
+                return false;
+            } else if (policy == OVERFLOW_DROP_OLDEST) {
+                long h = head.get();
+                if (t - h >= slots.length && head.compareAndSet(h, h + 1)) {
+                    dropped.lazySet(dropped.get() + 1);
+                }
+            } else {
+                LockSupport.unpark(consumer);
+                LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+            }
+        }
+        slots[(int) t & mask] = logData;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * 消费者出队，只能由写入线程调用
+     * @return 本次取出的事件数
+     */
+    int drainTo(List<LogData> out, int max) {
+        int count = 0;
+        while (count < max) {
+            long h = head.get();
+            if (h >= tail.get()) {
+                break;
+            }
+            int index = (int) h & mask;
+            LogData logData = slots[index];
+            if (policy != OVERFLOW_DROP_OLDEST) {
+                // 只有DROP_OLDEST策略下生产者会写入尚未被消费推进的槽位，其余策略可以安全释放引用
+                slots[index] = null;
+            }
+            if (!head.compareAndSet(h, h + 1)) {
+                // 该事件已被生产者覆盖丢弃
+                continue;
+            }
+            out.add(logData);
+            ++count;
+        }
+        return count;
+    }
+
+    boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+}
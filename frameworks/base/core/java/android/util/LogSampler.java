@@ -0,0 +1,80 @@
+package android.util;
+
+import android.os.SystemClock;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按类型采样和限速（sampleFirst / sampleEvery / rateLimit），在hook线程采集调用栈之前判断，
+ * 被跳过的事件只计数，由写入线程以TRACE_SKIPPED记录写入trace。计数在整个进程内累计，不随配置变化清零。
+ */
+final class LogSampler {
+
+    private final static int TYPE_COUNT = LogData.LOG_DATA_TYPE.values().length;
+
+    // 每个类型到达的事件数，用于采样
+    private final static AtomicLongArray sSeen = new AtomicLongArray(TYPE_COUNT);
+    // 限速窗口：当前窗口的秒数和窗口内已记录的事件数。换窗口时的竞争最多多记录几个事件
+    private final static AtomicLongArray sWindowSecond = new AtomicLongArray(TYPE_COUNT);
+    private final static AtomicLongArray sWindowCount = new AtomicLongArray(TYPE_COUNT);
+    // 被跳过的事件数，写入线程取走后清零
+    private final static AtomicLongArray sSkipped = new AtomicLongArray(TYPE_COUNT);
+    private static volatile boolean sHasSkipped;
+
+    private LogSampler() {
+    }
+
+    /**
+     * @return false时事件被采样或限速跳过，已计入跳过数
+     */
+    static boolean accept(LogConfig config, LogData.LOG_DATA_TYPE dataType) {
+        int ordinal = dataType.ordinal();
+        int every = config.sampleEvery[ordinal];
+        if (every > 1) {
+            long seen = sSeen.incrementAndGet(ordinal) - config.sampleFirst[ordinal];
+            if (seen > 0 && seen % every != 0) {
+                return skip(ordinal);
+            }
+        }
+        int limit = config.rateLimits[ordinal];
+        if (limit > 0) {
+            long second = SystemClock.uptimeMillis() / 1000;
+            long windowSecond = sWindowSecond.get(ordinal);
+            if (windowSecond != second && sWindowSecond.compareAndSet(ordinal, windowSecond, second)) {
+                sWindowCount.set(ordinal, 0);
+            }
+            if (sWindowCount.incrementAndGet(ordinal) > limit) {
+                return skip(ordinal);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 计入跳过数，预算限制（LogBudget）跳过的事件同样在这里计数
+     * @return false
+     */
+    static boolean skip(int ordinal) {
+        sSkipped.incrementAndGet(ordinal);
+        sHasSkipped = true;
+        return false;
+    }
+
+    /**
+     * 在写入线程调用，取走自上次调用以来每个类型被跳过的事件数
+     * @param counts 长度为类型数，未跳过的类型为0
+     * @return 是否有被跳过的事件
+     */
+    static boolean drainSkipped(long[] counts) {
+        if (!sHasSkipped) {
+            return false;
+        }
+        sHasSkipped = false;
+        boolean any = false;
+        for (int i = 0; i < TYPE_COUNT; ++i) {
+            counts[i] = sSkipped.getAndSet(i, 0);
+            any |= counts[i] != 0;
+        }
+        return any;
+    }
+}
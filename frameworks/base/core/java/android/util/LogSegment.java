@@ -0,0 +1,68 @@
+package android.util;
+
+import android.app.ActivityThread;
+import android.app.Application;
+import android.os.Process;
+import android.os.SystemClock;
+
+/**
+ * 输出分段：每个进程写入自己的 analysis.<pid>.txt / analysis.<pid>.bin，避免多进程同时追加同一文件时记录交错。
+ * 分段开头写入一条分段头，记录进程信息和时间锚点，主机端 lian-trace merge 按事件时间合并为一个流。
+ */
+final class LogSegment {
+
+    final int pid;
+    final String processName;
+    final String packageName;
+    // 同一时刻的开机时间和墙上时间，用于把事件的elapsedRealtimeNanos换算为绝对时间
+    final long elapsedRealtimeNanos;
+    final long currentTimeMillis;
+
+    private LogSegment(int pid, String processName, String packageName) {
+        this.pid = pid;
+        this.processName = processName;
+        this.packageName = packageName;
+        this.elapsedRealtimeNanos = SystemClock.elapsedRealtimeNanos();
+        this.currentTimeMillis = System.currentTimeMillis();
+    }
+
+    static LogSegment open() {
+        String processName = ActivityThread.currentProcessName();
+        return new LogSegment(Process.myPid(), processName != null ? processName : Application.packageName,
+                Application.packageName);
+    }
+
+    /**
+     * @param name 文件名，如 "analysis"
+     * @param extension 扩展名，如 ".txt"
+     */
+    String fileName(String name, String extension) {
+        return fileName(name, 0, extension);
+    }
+
+    /**
+     * @param index 同一进程的第几个分段文件，0为 <name>.<pid><extension>，之后为 <name>.<pid>-<index><extension>
+     */
+    String fileName(String name, int index, String extension) {
+        return index == 0 ? name + "." + pid + extension : name + "." + pid + "-" + index + extension;
+    }
+
+    /**
+     * JSON分段头，单独一行：{"segment":{...}}
+     */
+    LogJsonWriter writeJson(LogJsonWriter writer) {
+        writer.beginObject();
+        writer.key("segment").beginObject();
+        writer.key("pid").value(pid);
+        if (processName != null) {
+            writer.key("processName").value(processName);
+        }
+        if (packageName != null) {
+            writer.key("packageName").value(packageName);
+        }
+        writer.key("elapsedRealtimeNanos").value(elapsedRealtimeNanos);
+        writer.key("currentTimeMillis").value(currentTimeMillis);
+        writer.endObject();
+        return writer.endObject();
+    }
+}
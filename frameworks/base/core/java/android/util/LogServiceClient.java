@@ -0,0 +1,133 @@
+package android.util;
+
+import android.os.Binder;
+import android.os.IBinder;
+import android.os.Parcel;
+import android.os.RemoteException;
+import android.os.ServiceManager;
+import android.os.SystemClock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * 服务输出（saveType=5）：写入线程把二进制编码的批次通过oneway binder发送给system_server中的 LianTraceService，
+ * 由服务统一写入分段文件、轮转和限制配额。批次发出后即由服务持有，应用进程崩溃不会丢失已发送的事件。
+ * 只在写入线程使用。
+ */
+final class LogServiceClient {
+
+    private final static String TAG = "LianLog...";
+    // 服务不可用时的重试间隔，期间的事件直接丢弃，trace中表现为seq不连续
+    private final static long RECONNECT_INTERVAL_MS = 1000;
+    // 单次oneway事务的上限，进程的异步binder缓冲区只有约512KB
+    private final static int MAX_TRANSACTION_BYTES = 128 * 1024;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+    // 服务通过该token请求重新开始二进制流，并通过它感知进程退出
+    private final Binder token = new Binder() {
+        @Override
+        protected boolean onTransact(int code, Parcel data, Parcel reply, int flags) throws RemoteException {
+            if (code == LogServiceProtocol.TRANSACTION_RESET_STREAM) {
+                resetRequested = true;
+                return true;
+            }
+            return super.onTransact(code, data, reply, flags);
+        }
+    };
+    private volatile boolean resetRequested;
+
+    private IBinder service;
+    private LogBinaryEncoder encoder;
+    private boolean newStream;
+    private long nextLookupTime;
+
+    /**
+     * 返回本批事件使用的编码器，新的流先写入分段头
+     * @return 服务不可用时返回null
+     */
+    LogBinaryEncoder begin(LogSegment segment) throws IOException {
+        if (service == null || !service.isBinderAlive()) {
+            encoder = null;
+            long now = SystemClock.uptimeMillis();
+            if (now < nextLookupTime) {
+                return null;
+            }
+            nextLookupTime = now + RECONNECT_INTERVAL_MS;
+            service = ServiceManager.getService(LogServiceProtocol.SERVICE_NAME);
+            if (service == null) {
+                return null;
+            }
+        }
+        // 分段轮转由服务决定，服务写满分段或丢弃批次后通过token请求重新开始
+        if (resetRequested || encoder == null) {
+            resetRequested = false;
+            buffer.reset();
+            encoder = new LogBinaryEncoder(buffer);
+            encoder.writeSegment(segment);
+            newStream = true;
+        }
+        return encoder;
+    }
+
+    /**
+     * 发送本批编码结果，超过单次事务上限时在记录边界处拆分。发送失败时下一批重新开始二进制流
+     */
+    void send(LogSegment segment) {
+        byte[] records = buffer.toByteArray();
+        buffer.reset();
+        int start = 0;
+        while (start < records.length) {
+            int end = splitPoint(records, start);
+            if (!transact(segment, records, start, end)) {
+                encoder = null;
+                return;
+            }
+            newStream = false;
+            start = end;
+        }
+    }
+
+    private boolean transact(LogSegment segment, byte[] records, int start, int end) {
+        Parcel data = Parcel.obtain();
+        try {
+            data.writeInterfaceToken(LogServiceProtocol.DESCRIPTOR);
+            data.writeInt(segment.pid);
+            data.writeString(segment.packageName);
+            data.writeInt(newStream ? LogServiceProtocol.FLAG_NEW_STREAM : 0);
+            data.writeStrongBinder(token);
+            data.writeByteArray(records, start, end - start);
+            service.transact(LogServiceProtocol.TRANSACTION_WRITE, data, null, IBinder.FLAG_ONEWAY);
+            return true;
+        } catch (RemoteException e) {
+            Log.w(TAG, "trace service write failed: " + e);
+            return false;
+        } finally {
+            data.recycle();
+        }
+    }
+
+    /**
+     * 从start开始不超过MAX_TRANSACTION_BYTES的完整记录的结束位置，单条记录超过上限时单独发送
+     */
+    private static int splitPoint(byte[] records, int start) {
+        int end = start;
+        while (end < records.length) {
+            long length = 0;
+            int shift = 0;
+            int pos = end;
+            int b;
+            do {
+                b = records[pos++];
+                length |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            int next = pos + (int) length;
+            if (next - start > MAX_TRANSACTION_BYTES && end > start) {
+                break;
+            }
+            end = next;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,30 @@
+package android.util;
+
+import android.os.IBinder;
+
+/**
+ * saveType=5 时应用进程与system_server中 LianTraceService 之间的binder协议，双方共用
+ * @hide
+ */
+public final class LogServiceProtocol {
+
+    public final static String SERVICE_NAME = "lian_trace";
+    public final static String DESCRIPTOR = "android.util.ILianTraceService";
+
+    /**
+     * oneway，应用 -> 服务：int pid, String packageName, int flags, IBinder token, byte[] records。
+     * records为完整的二进制trace记录，同一进程的批次按顺序追加到该进程的分段文件
+     */
+    public final static int TRANSACTION_WRITE = IBinder.FIRST_CALL_TRANSACTION;
+
+    /**
+     * oneway，服务 -> 应用的token：服务丢弃了该进程的数据，之后的批次需要重新开始二进制流
+     */
+    public final static int TRANSACTION_RESET_STREAM = IBinder.FIRST_CALL_TRANSACTION;
+
+    /** records以流头和分段头开始，服务为该进程打开新的分段文件 */
+    public final static int FLAG_NEW_STREAM = 1;
+
+    private LogServiceProtocol() {
+    }
+}
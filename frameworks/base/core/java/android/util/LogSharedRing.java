@@ -0,0 +1,241 @@
+package android.util;
+
+import android.net.LocalSocket;
+import android.net.LocalSocketAddress;
+import android.os.MemoryFile;
+import android.os.SystemClock;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+
+import libcore.io.Memory;
+
+/**
+ * 共享内存输出（saveType=6）：写入线程把二进制编码的批次复制到与守护进程 lian_traced 共享的ashmem环形缓冲区，
+ * 由守护进程写入分段文件。写入只有内存复制，没有系统调用；进程崩溃后已复制的数据仍由守护进程取出。
+ * 守护进程退出后（每RECONNECT_INTERVAL_MS检查一次socket），丢弃旧的缓冲区并重新连接，
+ * 其间和旧缓冲区中未取出的事件丢失，trace中表现为seq不连续。只在写入线程使用。
+ *
+ * <p>缓冲区布局（本机字节序），位置为按容量取模前的32位计数，capacity为2的幂：
+ * <pre>
+ *   0  magic "LRNG"   4 version   8 capacity   12 pid
+ *  64  writePos（本进程写）
+ * 128  readPos（守护进程写）
+ * 192  droppedBatches  196 droppedBytes（本进程写，空间不足时丢弃的批次）
+ * 256  数据
+ * </pre>
+ */
+final class LogSharedRing {
+
+    private final static String TAG = "LianLog...";
+    private final static String DAEMON_SOCKET = "lian_traced";
+    // 读写位置的acquire/release访问，与守护进程一起安装
+    private final static String NATIVE_LIBRARY = "lian_ring_jni";
+
+    private final static int MAGIC = 0x474e524c;
+    private final static int VERSION = 1;
+    private final static int HEADER_SIZE = 256;
+    private final static int CAPACITY_OFFSET = 8;
+    private final static int PID_OFFSET = 12;
+    private final static int WRITE_POS_OFFSET = 64;
+    private final static int READ_POS_OFFSET = 128;
+    private final static int DROPPED_BATCHES_OFFSET = 192;
+    private final static int DROPPED_BYTES_OFFSET = 196;
+
+    private final static int DEFAULT_CAPACITY = 4 * 1024 * 1024;
+    // 连接守护进程失败后的重试间隔，期间的事件直接丢弃，trace中表现为seq不连续；也是检查守护进程是否退出的间隔
+    private final static long RECONNECT_INTERVAL_MS = 1000;
+
+    private static boolean sNativeLoaded;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+    private LocalSocket socket;
+    private MemoryFile memory;
+    private long address;
+    private int capacity;
+    private int writePos;
+    private int droppedBatches;
+    private int droppedBytes;
+    // 空间不足时丢弃的事件数，尚未作为TRACE_DROPPED写入trace
+    private long unreportedDrops;
+    private LogBinaryEncoder encoder;
+    private long nextConnectTime;
+    private long nextCheckTime;
+    private final byte[] probe = new byte[1];
+
+    /**
+     * 返回本批事件使用的编码器，新的流先写入分段头
+     * @return 守护进程不可用时返回null
+     */
+    LogBinaryEncoder begin(LogSegment segment) throws IOException {
+        long now = SystemClock.uptimeMillis();
+        if (address != 0 && now >= nextCheckTime) {
+            nextCheckTime = now + RECONNECT_INTERVAL_MS;
+            if (!daemonAlive()) {
+                // 没有进程再读取旧的缓冲区，等重启后的守护进程重新连接
+                Log.w(TAG, "lian_traced exited, reconnecting");
+                close();
+                nextConnectTime = now + RECONNECT_INTERVAL_MS;
+            }
+        }
+        if (address == 0) {
+            if (now < nextConnectTime) {
+                return null;
+            }
+            nextConnectTime = now + RECONNECT_INTERVAL_MS;
+            if (!connect(segment)) {
+                return null;
+            }
+        }
+        if (encoder == null) {
+            buffer.reset();
+            encoder = new LogBinaryEncoder(buffer);
+            encoder.writeSegment(segment);
+        }
+        return encoder;
+    }
+
+    /**
+     * 返回并清零上次报告之后丢弃的事件数，调用方在新的流中写入TRACE_DROPPED
+     */
+    long takeUnreportedDrops() {
+        long dropped = unreportedDrops;
+        unreportedDrops = 0;
+        return dropped;
+    }
+
+    /**
+     * 把本批编码结果复制到共享缓冲区，空间不足时整批丢弃，并在下一批重新开始二进制流
+     */
+    void commit(int events) {
+        byte[] records = buffer.toByteArray();
+        buffer.reset();
+        if (!write(records, records.length)) {
+            encoder = null;
+            unreportedDrops += events;
+        }
+    }
+
+    private boolean write(byte[] data, int count) {
+        // acquire：守护进程取出数据之后才能覆盖它释放的空间
+        int readPos = nativeLoadAcquire(address + READ_POS_OFFSET);
+        if (count > capacity - (writePos - readPos)) {
+            Memory.pokeInt(address + DROPPED_BATCHES_OFFSET, ++droppedBatches, false);
+            Memory.pokeInt(address + DROPPED_BYTES_OFFSET, droppedBytes += count, false);
+            return false;
+        }
+        int index = writePos & (capacity - 1);
+        int first = Math.min(count, capacity - index);
+        Memory.pokeByteArray(address + HEADER_SIZE + index, data, 0, first);
+        if (first < count) {
+            Memory.pokeByteArray(address + HEADER_SIZE, data, first, count - first);
+        }
+        writePos += count;
+        // release：数据先于writePos对守护进程可见
+        nativeStoreRelease(address + WRITE_POS_OFFSET, writePos);
+        return true;
+    }
+
+    /**
+     * 守护进程从不向socket写数据，非阻塞地peek到EOF或出错说明守护进程已退出
+     */
+    private boolean daemonAlive() {
+        try {
+            return Os.recvfrom(socket.getFileDescriptor(), probe, 0, 1,
+                    OsConstants.MSG_PEEK | OsConstants.MSG_DONTWAIT, null) != 0;
+        } catch (ErrnoException e) {
+            return e.errno == OsConstants.EAGAIN;
+        } catch (SocketException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Memory.peek/poke是普通内存访问，ART的volatile在arm64上（ldar/stlr）也不能给它们排序，
+     * 读写位置的访问由native的acquire/release完成，与lian_traced中的访问配对
+     */
+    private static native int nativeLoadAcquire(long address);
+
+    private static native void nativeStoreRelease(long address, int value);
+
+    /**
+     * 创建共享缓冲区，并通过abstract socket把fd交给守护进程。连接在进程生命周期内保持打开，守护进程据此感知进程退出，
+     * 本进程据此感知守护进程退出
+     */
+    private boolean connect(LogSegment segment) {
+        if (!sNativeLoaded) {
+            try {
+                System.loadLibrary(NATIVE_LIBRARY);
+                sNativeLoaded = true;
+            } catch (UnsatisfiedLinkError e) {
+                Log.w(TAG, "shared trace ring unavailable: " + e);
+                return false;
+            }
+        }
+        try {
+            capacity = DEFAULT_CAPACITY;
+            memory = new MemoryFile(DAEMON_SOCKET, HEADER_SIZE + capacity);
+            FileDescriptor fd = memory.getFileDescriptor();
+            address = Os.mmap(0, HEADER_SIZE + capacity, OsConstants.PROT_READ | OsConstants.PROT_WRITE,
+                    OsConstants.MAP_SHARED, fd, 0);
+            Memory.pokeInt(address, MAGIC, false);
+            Memory.pokeInt(address + 4, VERSION, false);
+            Memory.pokeInt(address + CAPACITY_OFFSET, capacity, false);
+            Memory.pokeInt(address + PID_OFFSET, segment.pid, false);
+
+            socket = new LocalSocket();
+            socket.connect(new LocalSocketAddress(DAEMON_SOCKET, LocalSocketAddress.Namespace.ABSTRACT));
+            // 守护进程的socket对所有hook点不可见
+            java.util.LogUtil.markTracerFd(socket.getFileDescriptor());
+            byte[] name = segment.packageName.getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream hello = new ByteArrayOutputStream(16 + name.length);
+            DataOutputStream out = new DataOutputStream(hello);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(capacity);
+            out.writeInt(name.length);
+            out.write(name);
+            socket.setFileDescriptorsForSend(new FileDescriptor[] { fd });
+            socket.getOutputStream().write(hello.toByteArray());
+            nextCheckTime = SystemClock.uptimeMillis() + RECONNECT_INTERVAL_MS;
+            return true;
+        } catch (IOException | ErrnoException e) {
+            Log.w(TAG, "shared trace ring unavailable: " + e);
+            close();
+            return false;
+        }
+    }
+
+    private void close() {
+        if (socket != null) {
+            FileDescriptor fd = socket.getFileDescriptor();
+            if (fd != null) {
+                java.util.LogUtil.unmarkTracerFd(fd);
+            }
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            socket = null;
+        }
+        if (address != 0) {
+            try {
+                Os.munmap(address, HEADER_SIZE + capacity);
+            } catch (ErrnoException ignored) {
+            }
+            address = 0;
+        }
+        if (memory != null) {
+            memory.close();
+            memory = null;
+        }
+        encoder = null;
+    }
+}
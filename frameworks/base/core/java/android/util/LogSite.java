@@ -0,0 +1,19 @@
+package android.util;
+
+/**
+ * 框架层hook点的静态描述：记录类型、参数类型和名称、返回类型。hook所在的类在静态常量中创建一次，
+ * 每次调用 LogUtil.MyLogB(site, argValues, returnValue) 时传入，不再为每次调用分配Class[]
+ */
+public final class LogSite extends java.util.LogSite {
+
+    final LogData.LOG_DATA_TYPE dataType;
+
+    /**
+     * @param argNames 参数名，与argClasses一一对应；为null时按 arg0、arg1… 命名
+     * @param returnClass 返回类型，不记录返回值时为null
+     */
+    public LogSite(LogData.LOG_DATA_TYPE dataType, Class<?>[] argClasses, String[] argNames, Class<?> returnClass) {
+        super(-1, argClasses, argNames, returnClass);
+        this.dataType = dataType;
+    }
+}
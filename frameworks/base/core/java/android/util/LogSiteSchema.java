@@ -0,0 +1,42 @@
+package android.util;
+
+/**
+ * 由hook点描述（java.util.LogSite）预先计算的输出信息：类名字符串和每个参数值的输出方式，
+ * 每个站点只计算一次，之后输出事件时不再按Class逐个比较。只在写入线程使用。
+ */
+final class LogSiteSchema {
+
+    private static LogSiteSchema[] sSchemas = new LogSiteSchema[64];
+
+    final String[] argClassNames;
+    // LogData.VALUE_KIND_*
+    final int[] argKinds;
+    final String returnClassName;
+    final int returnKind;
+
+    private LogSiteSchema(java.util.LogSite site) {
+        int argCount = site.argClasses.length;
+        argClassNames = new String[argCount];
+        argKinds = new int[argCount];
+        for (int i = 0; i < argCount; ++i) {
+            argClassNames[i] = LogData.parseClassName(site.argClasses[i]);
+            argKinds[i] = LogData.valueKind(site.argClasses[i]);
+        }
+        returnClassName = LogData.parseClassName(site.returnClass);
+        returnKind = LogData.valueKind(site.returnClass);
+    }
+
+    static LogSiteSchema of(java.util.LogSite site) {
+        if (site.id >= sSchemas.length) {
+            LogSiteSchema[] grown = new LogSiteSchema[Math.max(site.id + 1, sSchemas.length * 2)];
+            System.arraycopy(sSchemas, 0, grown, 0, sSchemas.length);
+            sSchemas = grown;
+        }
+        LogSiteSchema schema = sSchemas[site.id];
+        if (schema == null) {
+            schema = new LogSiteSchema(site);
+            sSchemas[site.id] = schema;
+        }
+        return schema;
+    }
+}
@@ -0,0 +1,66 @@
+package android.util;
+
+import java.util.HashMap;
+
+/**
+ * 按数据类型裁剪调用栈，只在写入线程使用
+ */
+final class LogStackFilter {
+
+    /** 保留全部栈帧 */
+    final static int MODE_FULL = 0;
+    /** 从hook点开始，保留到第一个非framework栈帧为止 */
+    final static int MODE_FIRST_APP = 1;
+    /** 只保留非framework栈帧，即应用classloader（以及其加载的dex）中的类 */
+    final static int MODE_APP = 2;
+
+    // 类名 -> 是否为BootClassLoader中的framework类
+    private final HashMap<String, Boolean> frameworkClasses = new HashMap<>();
+
+    void apply(LogData logData, LogConfig config) {
+        int ordinal = logData.getDataType().ordinal();
+        int mode = config.stackModes[ordinal];
+        int depth = config.stackDepths[ordinal];
+        if (mode == MODE_FULL && depth <= 0) {
+            return;
+        }
+        StackTraceElement[] elements = logData.getElements();
+        int limit = depth > 0 ? Math.min(depth, elements.length) : elements.length;
+        StackTraceElement[] kept = new StackTraceElement[limit];
+        int count = 0;
+        for (int i = 0; i < elements.length && count < limit; ++i) {
+            StackTraceElement element = elements[i];
+            if (mode == MODE_FULL) {
+                kept[count++] = element;
+            } else if (mode == MODE_FIRST_APP) {
+                kept[count++] = element;
+                if (!isFrameworkClass(element.getClassName())) {
+                    break;
+                }
+            } else if (!isFrameworkClass(element.getClassName())) {
+                kept[count++] = element;
+            }
+        }
+        if (count != kept.length) {
+            StackTraceElement[] trimmed = new StackTraceElement[count];
+            System.arraycopy(kept, 0, trimmed, 0, count);
+            kept = trimmed;
+        }
+        logData.setElements(kept);
+    }
+
+    private boolean isFrameworkClass(String className) {
+        Boolean result = frameworkClasses.get(className);
+        if (result == null) {
+            try {
+                // loader为null时由BootClassLoader查找，能找到即为framework/libcore中的类
+                Class.forName(className, false, null);
+                result = Boolean.TRUE;
+            } catch (ClassNotFoundException | LinkageError e) {
+                result = Boolean.FALSE;
+            }
+            frameworkClasses.put(className, result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,105 @@
+package android.util;
+
+import android.os.SystemClock;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * 流式输出（saveType=3）：写入线程把二进制编码的事件直接发送给采集端，不再写入sdcard。
+ * streamAddress=<主机>:<端口> 连接TCP，默认 127.0.0.1:7420，配合 adb reverse tcp:7420 tcp:7420
+ * 和主机端 lian-trace collect 使用，这是唯一的传输方式（设备上没有监听UNIX socket的采集端）。
+ * 每个进程使用自己的连接，连接开头为流头和分段头，格式与 analysis.<pid>.bin 相同。
+ */
+final class LogStream {
+
+    final static String DEFAULT_ADDRESS = "127.0.0.1:7420";
+
+    private final static String TAG = "LianLog...";
+    private final static int BUFFER_SIZE = 64 * 1024;
+    private final static int CONNECT_TIMEOUT_MS = 1000;
+    // 连接失败后的重试间隔，期间的事件直接丢弃，trace中表现为seq不连续
+    private final static long RECONNECT_INTERVAL_MS = 1000;
+
+    private Socket socket;
+    private FileDescriptor socketFd;
+    private OutputStream out;
+    private LogBinaryEncoder encoder;
+    private String address;
+    private long nextConnectTime;
+
+    /**
+     * 返回已连接的编码器，新连接先写入分段头
+     * @return 未连接且还未到重试时间，或者连接失败时返回null
+     */
+    LogBinaryEncoder open(String address, LogSegment segment) {
+        if (encoder != null && address.equals(this.address)) {
+            return encoder;
+        }
+        close();
+        long now = SystemClock.uptimeMillis();
+        if (now < nextConnectTime) {
+            return null;
+        }
+        nextConnectTime = now + RECONNECT_INTERVAL_MS;
+        try {
+            OutputStream stream = connect(address);
+            // 连接的fd对所有hook点不可见
+            java.util.LogUtil.markTracerFd(socketFd);
+            out = new BufferedOutputStream(stream, BUFFER_SIZE);
+            encoder = new LogBinaryEncoder(out);
+            encoder.writeSegment(segment);
+            this.address = address;
+            return encoder;
+        } catch (IOException e) {
+            Log.w(TAG, "trace stream " + address + " unavailable: " + e);
+            close();
+            return null;
+        }
+    }
+
+    private OutputStream connect(String address) throws IOException {
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IOException("invalid streamAddress " + address);
+        }
+        Socket tcp = new Socket();
+        socket = tcp;
+        tcp.setTcpNoDelay(true);
+        tcp.connect(new InetSocketAddress(address.substring(0, colon),
+                Integer.parseInt(address.substring(colon + 1))), CONNECT_TIMEOUT_MS);
+        socketFd = tcp.getFileDescriptor$();
+        return tcp.getOutputStream();
+    }
+
+    /**
+     * 发送缓冲区中的数据，失败时调用方应close()，下一批事件到来时重连
+     */
+    void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    void close() {
+        if (socketFd != null) {
+            // fd关闭后可能被复用，先取消标记
+            java.util.LogUtil.unmarkTracerFd(socketFd);
+            socketFd = null;
+        }
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            socket = null;
+        }
+        out = null;
+        encoder = null;
+        address = null;
+    }
+}
@@ -0,0 +1,136 @@
+package android.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 尾部日志：hook线程入队时把事件摘要（类型、tid、seq、时间和第一个字符串参数的前缀）写入mmap的
+ * analysis.<pid>.tail。写入的是共享页，不需要系统调用，进程被SIGKILL时内核仍会把已写入的内容落盘，
+ * 主机端 lian-trace tail 用它补出trace中缺少的最后一批事件。
+ *
+ * <p>文件布局（小端），槽位按 seq % slotCount 循环使用：
+ * <pre>
+ *    0 magic "LTAL"  4 version  8 slotCount  12 slotSize  16 pid
+ *   24 elapsedRealtimeNanos  32 currentTimeMillis（时间锚点，同分段头）
+ *   40 进程名长度  42 进程名（最多80字节）
+ *  124 类型表长度  128 类型表（LOG_DATA_TYPE名称，按序号以'\n'分隔）
+ * 4096 槽位：0 seq  8 elapsedRealtimeNanos  16 tid  20 类型序号  22 前缀长度  24 前缀  120 seq
+ * </pre>
+ * 槽位首尾的seq不一致时说明写入被打断或被并发覆盖，主机端忽略该槽位。
+ */
+final class LogTailJournal {
+
+    final static String EXTENSION = ".tail";
+
+    private final static String TAG = "LianLog...";
+    private final static int MAGIC = 0x4c41544c;
+    private final static int VERSION = 1;
+    private final static int HEADER_SIZE = 4096;
+    private final static int SLOT_SIZE = 128;
+    private final static int PROCESS_OFFSET = 40;
+    private final static int MAX_PROCESS_BYTES = 80;
+    private final static int TYPES_OFFSET = 124;
+    private final static int PREVIEW_OFFSET = 24;
+    private final static int MAX_PREVIEW = 96;
+    private final static int SEQ_END_OFFSET = 120;
+
+    private final static LogData.LOG_DATA_TYPE[] TYPES = LogData.LOG_DATA_TYPE.values();
+
+    private final MappedByteBuffer buffer;
+    private final int slotCount;
+
+    private LogTailJournal(MappedByteBuffer buffer, int slotCount) {
+        this.buffer = buffer;
+        this.slotCount = slotCount;
+    }
+
+    /**
+     * 创建并映射尾部日志文件，已存在的同名文件（pid复用）被覆盖
+     * @return 失败时返回null
+     */
+    static LogTailJournal open(String path, LogSegment segment, int slotCount) {
+        File file = new File(path);
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists()) {
+            dir.mkdirs();
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long size = HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+            // 先清空旧内容，未写过的槽位保持为0
+            raf.setLength(0);
+            raf.setLength(size);
+            // 映射在文件关闭后仍然有效
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            writeHeader(buffer, segment, slotCount);
+            return new LogTailJournal(buffer, slotCount);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "tail journal unavailable: " + e);
+            return null;
+        }
+    }
+
+    private static void writeHeader(ByteBuffer buffer, LogSegment segment, int slotCount) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, slotCount);
+        buffer.putInt(12, SLOT_SIZE);
+        buffer.putInt(16, segment.pid);
+        buffer.putLong(24, segment.elapsedRealtimeNanos);
+        buffer.putLong(32, segment.currentTimeMillis);
+        byte[] name = segment.processName != null ? segment.processName.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int nameLength = Math.min(name.length, MAX_PROCESS_BYTES);
+        buffer.putShort(PROCESS_OFFSET, (short) nameLength);
+        for (int i = 0; i < nameLength; ++i) {
+            buffer.put(PROCESS_OFFSET + 2 + i, name[i]);
+        }
+        StringBuilder types = new StringBuilder();
+        for (LogData.LOG_DATA_TYPE type : TYPES) {
+            types.append(type.name()).append('\n');
+        }
+        byte[] table = types.toString().getBytes(StandardCharsets.UTF_8);
+        int tableLength = Math.min(table.length, HEADER_SIZE - TYPES_OFFSET - 4);
+        buffer.putInt(TYPES_OFFSET, tableLength);
+        for (int i = 0; i < tableLength; ++i) {
+            buffer.put(TYPES_OFFSET + 4 + i, table[i]);
+        }
+    }
+
+    /**
+     * 记录一条事件摘要，在hook线程调用，只做内存写入、不分配对象
+     */
+    void record(LogData logData) {
+        long seq = logData.getSeq();
+        int slot = HEADER_SIZE + (int) (seq % slotCount) * SLOT_SIZE;
+        // 先使槽位失效，写完其余字段后再写入首尾的seq
+        buffer.putLong(slot + SEQ_END_OFFSET, 0);
+        buffer.putLong(slot + 8, logData.getElapsedRealtimeNanos());
+        buffer.putInt(slot + 16, logData.getTid());
+        buffer.putShort(slot + 20, (short) logData.getDataType().ordinal());
+        buffer.putShort(slot + 22, (short) writePreview(slot + PREVIEW_OFFSET, logData.previewArgument()));
+        buffer.putLong(slot, seq);
+        buffer.putLong(slot + SEQ_END_OFFSET, seq);
+    }
+
+    /**
+     * 写入参数前缀，非ASCII字符写为'?'
+     * @return 写入的字节数
+     */
+    private int writePreview(int offset, String value) {
+        if (value == null) {
+            return 0;
+        }
+        int length = Math.min(value.length(), MAX_PREVIEW);
+        for (int i = 0; i < length; ++i) {
+            char c = value.charAt(i);
+            buffer.put(offset + i, c < 0x80 ? (byte) c : (byte) '?');
+        }
+        return length;
+    }
+}
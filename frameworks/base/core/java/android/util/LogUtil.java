@@ -1,165 +1,187 @@
 package android.util;
 
-import android.app.Application;
-import org.json.JSONArray;
-
-import java.io.*;
-import java.nio.charset.StandardCharsets;
-
 public class LogUtil {
 
+    // 进程退出或进入可被杀死的状态前，等待写入线程输出已采集事件的最长时间
+    private final static long FLUSH_TIMEOUT_MS = 200;
+    // 关闭记录的进程中每跳过这么多次检查重新检查一次配置，配置改为记录本进程时才能发现。
+    // 计数不加同步，丢失的自增只会推迟检查；初始值使第一次检查就读取配置
+    private final static int RECHECK_MASK = 4096 - 1;
+    private static int sSkippedChecks = RECHECK_MASK;
+
 //    private static boolean SAVE_TO_FILE = true;
-    private final static String SAVE_PATH = "/sdcard/analysis/";
-    private final static String CONFIG_PATH = "/sdcard/analysis/config.txt";
-    private final static String CONFIG_PACKAGE_NAME_LABEL = "packageName=";
-    private final static String CONFIG_SAVE_TYPE_LABEL = "saveType=";
+
+    static {
+        // libcore中的hook点通过java.util.LogUtil转发到这里，类初始化时注册一次
+        LogHookSink.register();
+    }
 
     //todo: #define LOGGER_ENTRY_MAX_PAYLOAD	(60 * 1024)
-    public synchronized static void MyLogA(LogData.LOG_DATA_TYPE dataType) {
+    public static void MyLogA(LogData.LOG_DATA_TYPE dataType) {
+        // 已在沙箱内部时（写入线程、读取配置等）不再记录，避免递归
+        if (!java.util.LogUtil.enterTracer()) {
+            return;
+        }
         try {
             int type = saveType();
-            if (type == -1) {
+            LogConfig config = LogConfig.current();
+            if (type == -1 || !LogSampler.accept(config, dataType) || !LogBudget.accept(config, dataType)) {
                 return;
             }
-            StackTraceElement[] elements = Thread.currentThread().getStackTrace();
-            int save_index = -1;
-            for (int i = 0; i < elements.length; ++i) {
-                if (elements[i].getMethodName().equals("MyLogA")) {
-                    save_index = i + 1;
-                }
-                if (elements[i].getMethodName().equals("MyReflectLog")) {
-                    save_index = i + 1;
-                }
-            }
-            int length = elements.length - save_index;
-            StackTraceElement[] saveElements = new StackTraceElement[length];
-            System.arraycopy(elements, save_index, saveElements, 0, length);
-
-            LogData logData = new LogData(saveElements, dataType);
-            String logString = logData.toJsonData();
-            if (type == 1) {
-                Log.d("LianLog...", logString);
-            } else if (type == 0) {
-                mkdirs(SAVE_PATH);
-                writeFile(SAVE_PATH + Application.packageName + "/analysis.txt", logString, true);
-            }
+            long start = LogBudget.start(config, dataType);
+            LogData logData = new LogData(null, dataType);
+            captureStack(logData, "MyLogA");
+            LogWriter.get().enqueue(logData);
+            LogBudget.charge(dataType, start);
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            java.util.LogUtil.exitTracer();
         }
     }
 
     /**
-     * 输出函数
+     * 输出函数，在当前线程采集调用栈和参数后交给写入线程异步输出
      * @param dataType 输出数据类型
      * @param argClasses 参数class list
      * @param argValues 参数值list
      * @param returnClass 返回的class类型
      * @param returnValue 返回的值
      */
-    public synchronized static void MyLogB(LogData.LOG_DATA_TYPE dataType, Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue) {
+    public static void MyLogB(LogData.LOG_DATA_TYPE dataType, Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue) {
+        log(dataType, null, argClasses, argValues, returnClass, returnValue);
+    }
+
+    /**
+     * 输出函数，参数类型、名称和返回类型来自hook点的静态描述，调用时不再分配Class[]
+     * @param site hook点描述，在hook所在类的静态常量中创建
+     * @param argValues 参数值list，与site.argClasses一一对应
+     * @param returnValue 返回的值
+     */
+    public static void MyLogB(LogSite site, Object[] argValues, Object returnValue) {
+        log(site.dataType, site, site.argClasses, argValues, site.returnClass, returnValue);
+    }
+
+    /**
+     * libcore中由java.util.LogSite描述的hook点，类型由LogHookSink按事件ID确定
+     */
+    static void MyLogB(LogData.LOG_DATA_TYPE dataType, java.util.LogSite site, Object[] argValues, Object returnValue) {
+        log(dataType, site, site.argClasses, argValues, site.returnClass, returnValue);
+    }
+
+    private static void log(LogData.LOG_DATA_TYPE dataType, java.util.LogSite site, Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue) {
+        // 已在沙箱内部时（写入线程、读取配置等）不再记录，避免递归
+        if (!java.util.LogUtil.enterTracer()) {
+            return;
+        }
         try {
             int type = saveType();
-            if (type == -1) {
+            LogConfig config = LogConfig.current();
+            if (type == -1 || !LogSampler.accept(config, dataType) || !LogBudget.accept(config, dataType)) {
                 return;
             }
-            StackTraceElement[] elements = Thread.currentThread().getStackTrace();
-            int save_index = -1;
-            for (int i = 0; i < elements.length; ++i) {
-                if (elements[i].getMethodName().equals("MyLogB")) {
-                    save_index = i + 1;
-                }
-                if (elements[i].getMethodName().equals("MyReflectLog")) {
-                    save_index = i + 1;
-                }
-            }
-            int length = elements.length - save_index;
-            StackTraceElement[] saveElements = new StackTraceElement[length];
-            System.arraycopy(elements, save_index, saveElements, 0, length);
-
-            LogData logData = new LogData(saveElements, dataType, argClasses, argValues, returnClass, returnValue);
-            //LogData logData = new LogData(saveElements, dataType);
-            String logString = logData.toJsonData();
-            if (type == 1) {
-                Log.d("LianLog...", logString);
-            } else if (type == 0) {
-                mkdirs(SAVE_PATH);
-                writeFile(SAVE_PATH + Application.packageName + "/analysis.txt", logString, true);
-            }
+            // 从采集参数到入队的线程CPU时间计入该类型的开销
+            long start = LogBudget.start(config, dataType);
+            LogData logData = site != null
+                    ? new LogData(dataType, site, captureValues(argValues), LogData.captureValue(returnValue))
+                    : new LogData(null, dataType, argClasses, captureValues(argValues), returnClass, LogData.captureValue(returnValue));
+            captureStack(logData, "MyLogB");
+            LogWriter.get().enqueue(logData);
+            LogBudget.charge(dataType, start);
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            java.util.LogUtil.exitTracer();
         }
+    }
 
+    /**
+     * 采集hook点的调用栈。默认只在当前线程做一次ART栈回溯（记录ArtMethod和dex pc），
+     * 转换为StackTraceElement和截取hook点以上的部分都推迟到写入线程
+     * @param logMethodName 输出函数名，栈中该函数（或MyReflectLog）之后的帧才会保留
+     */
+    private static void captureStack(LogData logData, String logMethodName) {
+        if (LogConfig.current().deferStackSymbolization) {
+            logData.setDeferredStack(new Throwable(), logMethodName);
+        } else {
+            logData.setElements(LogData.cutStack(Thread.currentThread().getStackTrace(), logMethodName));
+        }
+    }
+
+    private static Object[] captureValues(Object[] argValues) {
+        if (argValues == null) {
+            return null;
+        }
+        Object[] values = new Object[argValues.length];
+        for (int i = 0; i < argValues.length; ++i) {
+            values[i] = LogData.captureValue(argValues[i]);
+        }
+        return values;
     }
 
     /**
-     * @return 0.save to file, 1.print log, -1.no save
+     * 当前进程是否记录该类型：包名匹配、saveType不为-1且配置中开启（enabled）。所有hook点在构造参数数组之前调用，
+     * 不记录的进程中只有一次volatile读取，不分配对象。超出CPU预算只计数的类型在这里计数后返回false
      */
-    public static int saveType() {
-        FileInputStream fis = null;
-        BufferedReader br = null;
-        int result = -1;
-        try {
-            if (Application.packageName == null || Application.packageName.length() == 0) {
-                return result;
-            }
-            File file = new File(CONFIG_PATH);
-            if (!file.exists()) {
-                return result;
-            }
-            fis = new FileInputStream(CONFIG_PATH);
-            br = new BufferedReader(new InputStreamReader(fis));
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.startsWith(CONFIG_PACKAGE_NAME_LABEL)) {
-                    if (!line.substring(CONFIG_PACKAGE_NAME_LABEL.length()).trim().equals(Application.packageName)) {
-                        result = -1;
-                        break;
-                    }
-                } else if (line.startsWith(CONFIG_SAVE_TYPE_LABEL)) {
-                    result = Integer.parseInt(line.substring(CONFIG_SAVE_TYPE_LABEL.length()).trim());
-                }
-            }
-        } catch (Exception e) {
-//            e.printStackTrace();
-        } finally {
-            if (fis != null) {
-                try {
-                    fis.close();
-                } catch (IOException ignored) {
-                }
-            }
-            if (br != null) {
-                try {
-                    br.close();
-                } catch (IOException ignored) {
-                }
-            }
+    public static boolean isEnabled(LogData.LOG_DATA_TYPE dataType) {
+        int ordinal = dataType.ordinal();
+        if (LogConfig.isEnabled(ordinal)) {
+            return !LogBudget.countOnly(ordinal);
         }
-        return result;
+        if ((++sSkippedChecks & RECHECK_MASK) == 0) {
+            checkConfig();
+        }
+        return false;
     }
 
-    private static void mkdirs(String dir) {
-        File dirFile = new File(dir);
-        if (!dirFile.exists()) {
-            dirFile.mkdirs();
+    private static void checkConfig() {
+        if (!java.util.LogUtil.enterTracer()) {
+            return;
+        }
+        try {
+            LogConfig.current();
+        } finally {
+            java.util.LogUtil.exitTracer();
         }
     }
 
-    private static void writeFile(String filePath, String data, boolean append) {
-        FileOutputStream fos = null;
+    /**
+     * Application.attach设置包名后调用，按新的包名重新计算当前进程记录的类型
+     */
+    public static void onPackageNameChanged() {
+        if (!java.util.LogUtil.enterTracer()) {
+            return;
+        }
         try {
-            fos = new FileOutputStream(filePath, append);
-            fos.write((data + "\n").getBytes(StandardCharsets.UTF_8));
+            LogConfig.current();
+            LogConfig.updateActiveTypes();
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
-            if (fos != null) {
-                try {
-                    fos.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
+            java.util.LogUtil.exitTracer();
         }
     }
+
+    /**
+     * 等待写入线程输出调用前已采集的事件，最多等待FLUSH_TIMEOUT_MS。只在崩溃处理、进程退出等
+     * 之后进程一定结束的位置调用，会阻塞调用线程
+     */
+    public static void flushTrace() {
+        LogWriter.flush(FLUSH_TIMEOUT_MS);
+    }
+
+    /**
+     * 唤醒写入线程尽快输出已采集的事件，不等待。在Activity停止、内存回收等主线程上进程仍可能继续运行的位置调用，
+     * 来不及输出的事件由尾部日志补出
+     */
+    public static void requestFlushTrace() {
+        LogWriter.requestFlush();
+    }
+
+    /**
+     * @return 0.save to file, 1.print log, 2.save binary file, 3.stream to collector, 4.framed logcat, 5.trace service, 6.shared memory daemon, -1.no save
+     */
+    public static int saveType() {
+        return LogConfig.saveType();
+    }
 }
@@ -0,0 +1,547 @@
+package android.util;
+
+import android.app.Application;
+import android.os.Debug;
+import android.os.Process;
+import android.os.SystemClock;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 后台写入线程：hook线程只负责写入本线程的环形缓冲区，由单独的线程批量收集、序列化并写入本进程的分段文件
+ * analysis.<pid>.txt / analysis.<pid>.bin，或者通过socket发送给采集端（LogStream）、分帧写入logcat（LogFrameWriter）、
+ * 交给system_server中的trace服务（LogServiceClient）或者写入与守护进程共享的内存（LogSharedRing）。
+ * 入队时同时把事件摘要写入mmap的尾部日志（LogTailJournal），进程被直接杀死时仍可补出未输出的事件
+ */
+final class LogWriter implements Runnable {
+
+    private final static String THREAD_NAME = "LianLogWriter";
+    private final static String LOG_TAG = "LianLog...";
+    private final static String SAVE_PATH = "/sdcard/analysis/";
+    private final static String SAVE_FILE_NAME = "analysis";
+    private final static String JSON_EXTENSION = ".txt";
+    private final static String BINARY_EXTENSION = ".bin";
+    // saveType=6 时共享缓冲区溢出记录中的缓冲区名称
+    private final static String SHARED_RING_NAME = "lian_traced";
+
+    private final static int MAX_BATCH_SIZE = 256;
+    private final static int BUFFER_SIZE = 64 * 1024;
+    private final static long IDLE_PARK_NANOS = 10 * 1000 * 1000;
+    private final static long FLUSH_POLL_NANOS = 1000 * 1000;
+    // 超出包的配额后重新检查目录大小的间隔
+    private final static long QUOTA_RECHECK_INTERVAL_MS = 1000;
+    private final static LogData.LOG_DATA_TYPE[] TYPES = LogData.LOG_DATA_TYPE.values();
+
+    private static volatile LogWriter sInstance;
+
+    private final ThreadLocal<LogRingBuffer> localRing = new ThreadLocal<>();
+    private final CopyOnWriteArrayList<LogRingBuffer> rings = new CopyOnWriteArrayList<>();
+    // 进程内事件序号，入队时分配；被丢弃的事件同样占用序号，trace中的序号间隔即为丢失的位置
+    private final AtomicLong sequence = new AtomicLong();
+    private final ArrayList<LogData> batch = new ArrayList<>(MAX_BATCH_SIZE);
+    // 采样和限速跳过的计数，按类型序号索引
+    private final long[] skipped = new long[TYPES.length];
+    // CPU预算调整后的模式和估算占比，按类型序号索引，见LogBudget.update
+    private final int[] budgetModes = new int[TYPES.length];
+    private final int[] budgetPercents = new int[TYPES.length];
+    private final LogStackFilter stackFilter = new LogStackFilter();
+    private final LogJsonWriter jsonWriter = new LogJsonWriter();
+    private final LogStream traceStream = new LogStream();
+    private final LogServiceClient serviceClient = new LogServiceClient();
+    private final LogSharedRing sharedRing = new LogSharedRing();
+    private final Thread thread;
+    private volatile boolean idle;
+    // flush请求计数，写入线程输出了请求之前入队的所有事件后更新flushCompleted
+    private final AtomicLong flushRequested = new AtomicLong();
+    private volatile long flushCompleted;
+    // 写入线程启动时打开，之后hook线程入队时写入事件摘要
+    private volatile LogTailJournal tailJournal;
+
+    private OutputStream out;
+    private FileDescriptor outFd;
+    private LogMappedFile mappedFile;
+    private String outPath;
+    // 映射分段写满后递增，见LogSegment.fileName
+    private int segmentIndex;
+    // 文件系统不支持fallocate时改用普通文件输出
+    private boolean mapUnsupported;
+    private boolean quotaExceeded;
+    private long nextQuotaCheckTime;
+    // 新打开的输出文件需要先写入分段头
+    private boolean outNew;
+    private LogSegment segment;
+    private LogBinaryEncoder binaryEncoder;
+    private LogFrameWriter frameWriter;
+    private LogBlobStore blobStore;
+
+    private LogWriter() {
+        thread = new Thread(this, THREAD_NAME);
+        thread.setDaemon(true);
+    }
+
+    static LogWriter get() {
+        LogWriter writer = sInstance;
+        if (writer == null) {
+            synchronized (LogWriter.class) {
+                writer = sInstance;
+                if (writer == null) {
+                    writer = new LogWriter();
+                    writer.thread.start();
+                    sInstance = writer;
+                }
+            }
+        }
+        return writer;
+    }
+
+    /**
+     * 写入当前线程的环形缓冲区，缓冲区满时按配置的溢出策略处理
+     */
+    void enqueue(LogData logData) {
+        LogRingBuffer ring = localRing.get();
+        if (ring == null) {
+            LogConfig config = LogConfig.current();
+            ring = new LogRingBuffer(Thread.currentThread(), Process.myTid(), config.bufferCapacity, config.overflowPolicy);
+            localRing.set(ring);
+            rings.add(ring);
+        }
+        logData.setThread(ring.tid, sequence.incrementAndGet());
+        LogTailJournal journal = tailJournal;
+        if (journal != null) {
+            journal.record(logData);
+        }
+        if (ring.offer(logData, thread) && idle) {
+            // 写入线程空闲时才唤醒；错过的唤醒最多延迟一个IDLE_PARK_NANOS周期
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void run() {
+        // 写入线程始终处于沙箱内部，自身的IO不再记录，避免自我递归
+        java.util.LogUtil.enterTracer();
+        openTailJournal(LogConfig.current());
+        while (true) {
+            try {
+                long requested = flushRequested.get();
+                if (collect() == 0) {
+                    // 所有缓冲区已取空，requested之前入队的事件都已输出
+                    flushCompleted = requested;
+                    idle = true;
+                    if (collect() == 0) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    idle = false;
+                }
+                if (!batch.isEmpty()) {
+                    // 未达到批次上限说明本次收集取空了所有缓冲区
+                    boolean drained = batch.size() < MAX_BATCH_SIZE;
+                    long start = Debug.threadCpuTimeNanos();
+                    filterStacks(LogConfig.current());
+                    writeBatch(LogUtil.saveType());
+                    LogBudget.chargeBatch(batch, Debug.threadCpuTimeNanos() - start);
+                    if (drained) {
+                        flushCompleted = requested;
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                // 下一批重新打开输出文件，映射分段方式下换到新的分段
+                closeOutput();
+            } catch (Throwable e) {
+                // 包括编码大参数时的OutOfMemoryError：写入线程退出后阻塞策略下的hook线程会一直等待
+                e.printStackTrace();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 等待写入线程输出调用前已入队的事件，事件持续大量到达时可能超时。
+     * 在写入线程上调用或写入线程未启动时直接返回
+     * @return 是否在超时前完成
+     */
+    static boolean flush(long timeoutMillis) {
+        LogWriter writer = sInstance;
+        if (writer == null || Thread.currentThread() == writer.thread) {
+            return true;
+        }
+        long target = writer.flushRequested.incrementAndGet();
+        LockSupport.unpark(writer.thread);
+        long deadline = System.nanoTime() + timeoutMillis * 1000 * 1000;
+        while (writer.flushCompleted < target) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(writer, Math.min(remaining, FLUSH_POLL_NANOS));
+        }
+        return true;
+    }
+
+    /**
+     * 唤醒写入线程输出已入队的事件，不等待完成，可以在主线程调用
+     */
+    static void requestFlush() {
+        LogWriter writer = sInstance;
+        if (writer == null || Thread.currentThread() == writer.thread) {
+            return;
+        }
+        writer.flushRequested.incrementAndGet();
+        LockSupport.unpark(writer.thread);
+    }
+
+    /**
+     * 尾部日志与文件输出位于同一目录，默认只在文件输出时使用，见LogConfig.tailSlots()
+     */
+    private void openTailJournal(LogConfig config) {
+        int slots = config.tailSlots();
+        if (slots <= 0) {
+            return;
+        }
+        if (segment == null) {
+            segment = LogSegment.open();
+        }
+        tailJournal = LogTailJournal.open(SAVE_PATH + Application.packageName + "/"
+                + segment.fileName(SAVE_FILE_NAME, LogTailJournal.EXTENSION), segment, slots);
+    }
+
+    /**
+     * 从所有线程的缓冲区收集事件，并把新增的丢弃计数、采样和限速跳过的计数以及CPU预算引起的模式变化作为记录写入trace
+     */
+    private int collect() {
+        int count = 0;
+        if (LogBudget.update(LogConfig.current(), budgetModes, budgetPercents)) {
+            LogConfig config = LogConfig.current();
+            for (int i = 0; i < budgetModes.length; ++i) {
+                if (budgetModes[i] != -1) {
+                    batch.add(throttledData(TYPES[i], budgetModes[i], budgetPercents[i], config.cpuBudgets[i]));
+                    ++count;
+                }
+            }
+        }
+        if (LogSampler.drainSkipped(skipped)) {
+            for (int i = 0; i < skipped.length; ++i) {
+                if (skipped[i] != 0) {
+                    batch.add(skippedData(TYPES[i], skipped[i]));
+                    ++count;
+                }
+            }
+        }
+        for (int i = 0; i < rings.size() && batch.size() < MAX_BATCH_SIZE; ++i) {
+            LogRingBuffer ring = rings.get(i);
+            count += ring.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+
+            long dropped = ring.dropped();
+            if (dropped != ring.reportedDropped) {
+                batch.add(droppedData(ring.tid, ring.ownerName, dropped - ring.reportedDropped));
+                ring.reportedDropped = dropped;
+                ++count;
+            }
+            if (!ring.owner.isAlive() && ring.isEmpty()) {
+                rings.remove(ring);
+                --i;
+            }
+        }
+        return count;
+    }
+
+    private LogData droppedData(int tid, String owner, long count) {
+        LogData droppedData = new LogData(new StackTraceElement[0], LogData.LOG_DATA_TYPE.TRACE_DROPPED,
+                new Class[]{ String.class, long.class },
+                new Object[]{ owner, count },
+                null, null);
+        droppedData.setThread(tid, sequence.incrementAndGet());
+        return droppedData;
+    }
+
+    private LogData skippedData(LogData.LOG_DATA_TYPE type, long count) {
+        LogData skippedData = new LogData(new StackTraceElement[0], LogData.LOG_DATA_TYPE.TRACE_SKIPPED,
+                new Class[]{ String.class, long.class },
+                new Object[]{ type.name(), count },
+                null, null);
+        skippedData.setThread(Process.myTid(), sequence.incrementAndGet());
+        return skippedData;
+    }
+
+    private LogData throttledData(LogData.LOG_DATA_TYPE type, int mode, int percent, int budget) {
+        LogData throttledData = new LogData(new StackTraceElement[0], LogData.LOG_DATA_TYPE.TRACE_THROTTLED,
+                new Class[]{ String.class, String.class, int.class, int.class },
+                new Object[]{ type.name(), LogBudget.modeName(mode), percent, budget },
+                null, null);
+        throttledData.setThread(Process.myTid(), sequence.incrementAndGet());
+        return throttledData;
+    }
+
+    private void filterStacks(LogConfig config) {
+        for (int i = 0; i < batch.size(); ++i) {
+            try {
+                stackFilter.apply(batch.get(i), config);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void writeBatch(int type) throws IOException {
+        LogConfig config = LogConfig.current();
+        if (type == 1) {
+            for (int i = 0; i < batch.size(); ++i) {
+                try {
+                    Log.d(LOG_TAG, batch.get(i).toJsonData());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        } else if (type == 0) {
+            OutputStream stream = openOutput(JSON_EXTENSION, config);
+            if (stream == null) {
+                // 超出包的配额，丢弃本批事件
+                return;
+            }
+            if (outNew) {
+                LogJsonWriter writer = segment.writeJson(jsonWriter.reset());
+                writer.newLine();
+                writer.writeTo(stream);
+                outNew = false;
+            }
+            for (int i = 0; i < batch.size(); ++i) {
+                try {
+                    LogJsonWriter writer = batch.get(i).writeJson(jsonWriter.reset()
+                            .setBytesFormat(config.bytesEncoding, config.bytesLimit)
+                            .setBlobStore(blobStore(config)));
+                    writer.newLine();
+                    writer.writeTo(stream);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+            stream.flush();
+        } else if (type == 2) {
+            OutputStream stream = openOutput(BINARY_EXTENSION, config);
+            if (stream == null) {
+                // 超出包的配额，丢弃本批事件
+                return;
+            }
+            if (binaryEncoder == null) {
+                binaryEncoder = new LogBinaryEncoder(stream);
+            }
+            if (outNew) {
+                binaryEncoder.writeSegment(segment);
+                outNew = false;
+            }
+            binaryEncoder.setBlobStore(blobStore(config));
+            writeBinaryBatch(binaryEncoder, config);
+            stream.flush();
+        } else if (type == 3) {
+            if (segment == null) {
+                segment = LogSegment.open();
+            }
+            LogBinaryEncoder encoder = traceStream.open(config.streamAddress, segment);
+            if (encoder == null) {
+                // 采集端不可用，丢弃本批事件
+                return;
+            }
+            // blob需要写入sdcard，流式输出时大的byte[]按bytesLimit内联
+            encoder.setBlobStore(null);
+            try {
+                writeBinaryBatch(encoder, config);
+                traceStream.flush();
+            } catch (IOException e) {
+                Log.w(LOG_TAG, "trace stream closed: " + e);
+                traceStream.close();
+            }
+        } else if (type == 4) {
+            if (segment == null) {
+                segment = LogSegment.open();
+            }
+            if (frameWriter == null) {
+                frameWriter = new LogFrameWriter(LOG_TAG, segment.pid);
+                frameWriter.write(segment.writeJson(jsonWriter.reset()));
+            }
+            for (int i = 0; i < batch.size(); ++i) {
+                try {
+                    frameWriter.write(batch.get(i).writeJson(jsonWriter.reset()
+                            .setBytesFormat(config.bytesEncoding, config.bytesLimit)
+                            .setBlobStore(blobStore(config))));
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        } else if (type == 5) {
+            if (segment == null) {
+                segment = LogSegment.open();
+            }
+            LogBinaryEncoder encoder = serviceClient.begin(segment);
+            if (encoder == null) {
+                // 服务不可用，丢弃本批事件
+                return;
+            }
+            // blob需要写入sdcard，服务输出时大的byte[]按bytesLimit内联
+            encoder.setBlobStore(null);
+            writeBinaryBatch(encoder, config);
+            serviceClient.send(segment);
+        } else if (type == 6) {
+            if (segment == null) {
+                segment = LogSegment.open();
+            }
+            LogBinaryEncoder encoder = sharedRing.begin(segment);
+            if (encoder == null) {
+                // 守护进程不可用，丢弃本批事件
+                return;
+            }
+            long dropped = sharedRing.takeUnreportedDrops();
+            if (dropped > 0) {
+                // 共享缓冲区满时丢弃的事件，写在新的流开头
+                droppedData(Process.myTid(), SHARED_RING_NAME, dropped).toBinaryData(encoder);
+            }
+            encoder.setBlobStore(null);
+            writeBinaryBatch(encoder, config);
+            sharedRing.commit(batch.size());
+        }
+    }
+
+    private void writeBinaryBatch(LogBinaryEncoder encoder, LogConfig config) throws IOException {
+        encoder.setBytesFormat(config.bytesEncoding, config.bytesLimit);
+        for (int i = 0; i < batch.size(); ++i) {
+            try {
+                batch.get(i).toBinaryData(encoder);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private String segmentPath(String extension) {
+        if (segment == null) {
+            segment = LogSegment.open();
+        }
+        return SAVE_PATH + Application.packageName + "/" + segment.fileName(SAVE_FILE_NAME, segmentIndex, extension);
+    }
+
+    /**
+     * 文件输出方式下的blob存储，位于输出文件所在目录，未设置blobThreshold时返回null
+     */
+    private LogBlobStore blobStore(LogConfig config) {
+        if (config.blobThreshold <= 0) {
+            return null;
+        }
+        if (blobStore == null) {
+            blobStore = new LogBlobStore(SAVE_PATH + Application.packageName + "/" + LogBlobStore.BLOB_DIR_NAME);
+        }
+        blobStore.setThreshold(config.blobThreshold);
+        return blobStore;
+    }
+
+    /**
+     * 输出流在进程生命周期内保持打开，仅在路径或文件方式变化、映射的分段写满时重新打开
+     * @return 映射分段方式下超出包的配额时返回null
+     */
+    private OutputStream openOutput(String extension, LogConfig config) throws IOException {
+        if (config.compressFiles) {
+            extension += LogDeflateOutput.EXTENSION;
+        }
+        boolean mapped = config.mapFiles && !mapUnsupported;
+        if (out != null && mapped == (mappedFile != null)) {
+            if (mappedFile != null && mappedFile.isFull()) {
+                // 分段写满，换到下一个分段文件
+                ++segmentIndex;
+            } else if (segmentPath(extension).equals(outPath)) {
+                return out;
+            }
+        }
+        closeOutput();
+        String path = segmentPath(extension);
+        File dir = new File(path).getParentFile();
+        if (dir != null && !dir.exists()) {
+            dir.mkdirs();
+        }
+        if (mapped) {
+            // 预分配的文件不能追加，跳过已存在的分段（pid复用或切换过文件方式）
+            while (new File(path).exists()) {
+                ++segmentIndex;
+                path = segmentPath(extension);
+            }
+            if (!checkQuota(dir, config)) {
+                return null;
+            }
+            mappedFile = LogMappedFile.create(path, config.segmentSizeMb * 1024L * 1024);
+            if (mappedFile != null) {
+                outFd = mappedFile.getFD();
+                out = mappedFile;
+            } else {
+                Log.w(LOG_TAG, "fallocate not supported for " + path + ", using buffered file output");
+                mapUnsupported = true;
+            }
+        }
+        if (out == null) {
+            FileOutputStream outFile = new FileOutputStream(path, true);
+            outFd = outFile.getFD();
+            out = new BufferedOutputStream(outFile, BUFFER_SIZE);
+        }
+        if (config.compressFiles) {
+            out = new LogDeflateOutput(out);
+        }
+        // 输出文件的fd对所有hook点不可见
+        java.util.LogUtil.markTracerFd(outFd);
+        outPath = path;
+        outNew = true;
+        return out;
+    }
+
+    /**
+     * 新建映射分段前检查包目录（含blobs）的总大小，超出后每QUOTA_RECHECK_INTERVAL_MS重新检查一次
+     */
+    private boolean checkQuota(File dir, LogConfig config) {
+        long now = SystemClock.uptimeMillis();
+        if (quotaExceeded && now < nextQuotaCheckTime) {
+            return false;
+        }
+        long quota = config.packageQuotaMb * 1024L * 1024;
+        boolean exceeded = directorySize(dir) + config.segmentSizeMb * 1024L * 1024 > quota;
+        if (exceeded && !quotaExceeded) {
+            Log.w(LOG_TAG, "trace quota of " + config.packageQuotaMb + "MB reached in " + dir + ", dropping events");
+        }
+        quotaExceeded = exceeded;
+        nextQuotaCheckTime = now + QUOTA_RECHECK_INTERVAL_MS;
+        return !exceeded;
+    }
+
+    private static long directorySize(File dir) {
+        long size = 0;
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                size += file.isDirectory() ? directorySize(file) : file.length();
+            }
+        }
+        return size;
+    }
+
+    private void closeOutput() {
+        if (out != null) {
+            try {
+                // fd关闭后可能被复用，先取消标记
+                java.util.LogUtil.unmarkTracerFd(outFd);
+                out.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            out = null;
+            outFd = null;
+            mappedFile = null;
+            outPath = null;
+            binaryEncoder = null;
+        }
+    }
+}
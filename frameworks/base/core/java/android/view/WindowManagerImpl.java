@@ -23,6 +23,7 @@ import android.os.IBinder;
 import android.os.RemoteException;
 
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import com.android.internal.os.IResultReceiver;
 import com.android.internal.R;
@@ -56,6 +57,11 @@ import java.util.List;
  * @hide
  */
 public final class WindowManagerImpl implements WindowManager {
+    private static final LogSite LOG_SITE_WMI_ADD_VIEW = new LogSite(LogData.LOG_DATA_TYPE.WMI_ADD_VIEW,
+            new Class[]{ View.class, ViewGroup.LayoutParams.class },
+            new String[]{ "view", "params" },
+            null);
+
     private final WindowManagerGlobal mGlobal = WindowManagerGlobal.getInstance();
     private final Context mContext;
     private final Window mParentWindow;
@@ -91,10 +97,11 @@ public final class WindowManagerImpl implements WindowManager {
 
     @Override
     public void addView(@NonNull View view, @NonNull ViewGroup.LayoutParams params) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.WMI_ADD_VIEW,
-                new Class[]{ View.class, ViewGroup.LayoutParams.class },
-                new Object[]{ view, params },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.WMI_ADD_VIEW)) {
+            LogUtil.MyLogB(LOG_SITE_WMI_ADD_VIEW,
+                    new Object[]{ view, params },
+                    null);
+        }
 
         applyDefaultToken(params);
         mGlobal.addView(view, params, mContext.getDisplay(), mParentWindow);
@@ -41,6 +41,7 @@ import android.security.KeyChain;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import android.view.DragEvent;
 import android.view.KeyEvent;
@@ -322,6 +323,31 @@ import java.util.Map;
 public class WebView extends AbsoluteLayout
         implements ViewTreeObserver.OnGlobalFocusChangeListener,
         ViewGroup.OnHierarchyChangeListener, ViewDebug.HierarchyHandler {
+    private static final LogSite LOG_SITE_WV_LOAD_URL = new LogSite(LogData.LOG_DATA_TYPE.WV_LOAD_URL,
+            new Class[]{ String.class, Map.class },
+            new String[]{ "url", "additionalHttpHeaders" },
+            null);
+    private static final LogSite LOG_SITE_WV_LOAD_URL_2 = new LogSite(LogData.LOG_DATA_TYPE.WV_LOAD_URL,
+            new Class[]{ String.class },
+            new String[]{ "url" },
+            null);
+    private static final LogSite LOG_SITE_WV_SET_WEB_VIEW_CLIENT = new LogSite(LogData.LOG_DATA_TYPE.WV_SET_WEB_VIEW_CLIENT,
+            new Class[]{ WebViewClient.class },
+            new String[]{ "client" },
+            null);
+    private static final LogSite LOG_SITE_WV_SET_WEB_CHROME_CLIENT = new LogSite(LogData.LOG_DATA_TYPE.WV_SET_WEB_CHROME_CLIENT,
+            new Class[]{ WebChromeClient.class },
+            new String[]{ "client" },
+            null);
+    private static final LogSite LOG_SITE_WV_ADD_JAVASCRIPT_INTERFACE = new LogSite(LogData.LOG_DATA_TYPE.WV_ADD_JAVASCRIPT_INTERFACE,
+            new Class[]{ Object.class, String.class },
+            new String[]{ "object", "name" },
+            null);
+    private static final LogSite LOG_SITE_WV_SET_WEB_CONTENTS_DEBUGGING_ENABLED = new LogSite(LogData.LOG_DATA_TYPE.WV_SET_WEB_CONTENTS_DEBUGGING_ENABLED,
+            new Class[]{ boolean.class },
+            new String[]{ "enabled" },
+            null);
+
 
     /**
      * Broadcast Action: Indicates the data reduction proxy setting changed.
@@ -930,10 +956,11 @@ public class WebView extends AbsoluteLayout
      *            values may be overriden by this WebView's defaults.
      */
     public void loadUrl(String url, Map<String, String> additionalHttpHeaders) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.WV_LOAD_URL,
-                new Class[]{ String.class, Map.class },
-                new Object[]{ url, additionalHttpHeaders },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.WV_LOAD_URL)) {
+            LogUtil.MyLogB(LOG_SITE_WV_LOAD_URL,
+                    new Object[]{ url, additionalHttpHeaders },
+                    null);
+        }
 
         checkThread();
         mProvider.loadUrl(url, additionalHttpHeaders);
@@ -947,7 +974,9 @@ public class WebView extends AbsoluteLayout
      * @param url the URL of the resource to load
      */
     public void loadUrl(String url) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.WV_LOAD_URL, new Class[]{ String.class }, new Object[]{ url }, null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.WV_LOAD_URL)) {
+            LogUtil.MyLogB(LOG_SITE_WV_LOAD_URL_2, new Object[]{ url }, null);
+        }
 
         checkThread();
         mProvider.loadUrl(url);
@@ -1799,10 +1828,11 @@ public class WebView extends AbsoluteLayout
      * @param client an implementation of WebViewClient
      */
     public void setWebViewClient(WebViewClient client) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.WV_SET_WEB_VIEW_CLIENT,
-                new Class[]{ WebViewClient.class },
-                new Object[]{ client },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.WV_SET_WEB_VIEW_CLIENT)) {
+            LogUtil.MyLogB(LOG_SITE_WV_SET_WEB_VIEW_CLIENT,
+                    new Object[]{ client },
+                    null);
+        }
 
         checkThread();
         mProvider.setWebViewClient(client);
@@ -1828,10 +1858,11 @@ public class WebView extends AbsoluteLayout
      * @param client an implementation of WebChromeClient
      */
     public void setWebChromeClient(WebChromeClient client) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.WV_SET_WEB_CHROME_CLIENT,
-                new Class[]{ WebChromeClient.class },
-                new Object[]{ client },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.WV_SET_WEB_CHROME_CLIENT)) {
+            LogUtil.MyLogB(LOG_SITE_WV_SET_WEB_CHROME_CLIENT,
+                    new Object[]{ client },
+                    null);
+        }
 
         checkThread();
         mProvider.setWebChromeClient(client);
@@ -1902,10 +1933,11 @@ public class WebView extends AbsoluteLayout
      * @param name the name used to expose the object in JavaScript
      */
     public void addJavascriptInterface(Object object, String name) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.WV_ADD_JAVASCRIPT_INTERFACE,
-                new Class[]{ Object.class, String.class },
-                new Object[]{ object, name },
-                null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.WV_ADD_JAVASCRIPT_INTERFACE)) {
+            LogUtil.MyLogB(LOG_SITE_WV_ADD_JAVASCRIPT_INTERFACE,
+                    new Object[]{ object, name },
+                    null);
+        }
 
         checkThread();
         mProvider.addJavascriptInterface(object, name);
@@ -1980,7 +2012,9 @@ public class WebView extends AbsoluteLayout
      * @param enabled whether to enable web contents debugging
      */
     public static void setWebContentsDebuggingEnabled(boolean enabled) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.WV_SET_WEB_CONTENTS_DEBUGGING_ENABLED, new Class[]{ boolean.class }, new Object[]{ enabled }, null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.WV_SET_WEB_CONTENTS_DEBUGGING_ENABLED)) {
+            LogUtil.MyLogB(LOG_SITE_WV_SET_WEB_CONTENTS_DEBUGGING_ENABLED, new Object[]{ enabled }, null);
+        }
         getFactory().getStatics().setWebContentsDebuggingEnabled(enabled);
     }
 
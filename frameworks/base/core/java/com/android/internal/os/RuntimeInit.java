@@ -27,6 +27,7 @@ import android.os.Process;
 import android.os.SystemProperties;
 import android.os.Trace;
 import android.util.Log;
+import android.util.LogUtil;
 import android.util.Slog;
 import com.android.internal.logging.AndroidConfig;
 import com.android.server.NetworkManagementSocketTagger;
@@ -86,6 +87,10 @@ public class RuntimeInit {
                     Clog_e(TAG, message.toString(), e);
                 }
 
+                // The activity manager kills the process while handling the crash, so write
+                // out buffered trace events first.
+                LogUtil.flushTrace();
+
                 // Try to end profiling. If a profiler is running at this point, and we kill the
                 // process (below), the in-memory buffer will be lost. So try to stop, which will
                 // flush the buffer. (This makes method trace profiling useful to debug crashes.)
@@ -22,6 +22,7 @@ import android.os.Parcel;
 import android.os.Parcelable;
 import android.os.SystemClock;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import android.util.Printer;
 import android.util.TimeUtils;
@@ -41,6 +42,15 @@ import java.util.StringTokenizer;
  * parameters are optional.
  */
 public class Location implements Parcelable {
+    private static final LogSite LOG_SITE_L_GET_LATITUDE = new LogSite(LogData.LOG_DATA_TYPE.L_GET_LATITUDE,
+            new Class[0],
+            new String[0],
+            double.class);
+    private static final LogSite LOG_SITE_L_GET_LONGITUDE = new LogSite(LogData.LOG_DATA_TYPE.L_GET_LONGITUDE,
+            new Class[0],
+            new String[0],
+            double.class);
+
     /**
      * Constant used to specify formatting of a latitude or longitude
      * in the form "[+-]DDD.DDDDD where D indicates degrees.
@@ -567,11 +577,11 @@ public class Location implements Parcelable {
      * will have a valid latitude.
      */
     public double getLatitude() {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.L_GET_LATITUDE,
-                null,
-                null,
-                double.class,
-                mLatitude);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.L_GET_LATITUDE)) {
+            LogUtil.MyLogB(LOG_SITE_L_GET_LATITUDE,
+                    null,
+                    mLatitude);
+        }
         return mLatitude;
     }
 
@@ -589,11 +599,11 @@ public class Location implements Parcelable {
      * will have a valid longitude.
      */
     public double getLongitude() {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.L_GET_LONGITUDE,
-                null,
-                null,
-                double.class,
-                mLongitude);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.L_GET_LONGITUDE)) {
+            LogUtil.MyLogB(LOG_SITE_L_GET_LONGITUDE,
+                    null,
+                    mLongitude);
+        }
         return mLongitude;
     }
 
@@ -32,6 +32,7 @@ import android.os.Message;
 import android.os.RemoteException;
 import android.util.Log;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 
 import java.util.ArrayList;
@@ -62,6 +63,15 @@ import static android.Manifest.permission.ACCESS_FINE_LOCATION;
  * location will be obfuscated to a coarse level of accuracy.
  */
 public class LocationManager {
+    private static final LogSite LOG_SITE_LM_GET_LAST_LOCATION = new LogSite(LogData.LOG_DATA_TYPE.LM_GET_LAST_LOCATION,
+            new Class[0],
+            new String[0],
+            Location.class);
+    private static final LogSite LOG_SITE_LM_GET_LAST_KNOWN_LOCATION = new LogSite(LogData.LOG_DATA_TYPE.LM_GET_LAST_KNOWN_LOCATION,
+            new Class[]{ String.class },
+            new String[]{ "provider" },
+            Location.class);
+
     private static final String TAG = "LocationManager";
 
     private final Context mContext;
@@ -1174,7 +1184,9 @@ public class LocationManager {
 
         try {
             Location result = mService.getLastLocation(null, packageName);
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.LM_GET_LAST_LOCATION, null, null, Location.class, result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.LM_GET_LAST_LOCATION)) {
+                LogUtil.MyLogB(LOG_SITE_LM_GET_LAST_LOCATION, null, result);
+            }
             return result;
         } catch (RemoteException e) {
             throw e.rethrowFromSystemServer();
@@ -1207,7 +1219,9 @@ public class LocationManager {
 
         try {
             Location result = mService.getLastLocation(request, packageName);
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.LM_GET_LAST_KNOWN_LOCATION, new Class[]{ String.class }, new Object[]{ provider }, Location.class, result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.LM_GET_LAST_KNOWN_LOCATION)) {
+                LogUtil.MyLogB(LOG_SITE_LM_GET_LAST_KNOWN_LOCATION, new Object[]{ provider }, result);
+            }
             return result;
         } catch (RemoteException e) {
             throw e.rethrowFromSystemServer();
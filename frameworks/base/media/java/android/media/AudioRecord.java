@@ -33,6 +33,7 @@ import android.util.ArrayMap;
 import android.util.Log;
 
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 import com.android.internal.annotations.GuardedBy;
 
@@ -52,6 +53,15 @@ import com.android.internal.annotations.GuardedBy;
  */
 public class AudioRecord implements AudioRouting
 {
+    private static final LogSite LOG_SITE_AR_START_RECORDING = new LogSite(LogData.LOG_DATA_TYPE.AR_START_RECORDING,
+            new Class[0],
+            new String[0],
+            null);
+    private static final LogSite LOG_SITE_AR_START_RECORDING_2 = new LogSite(LogData.LOG_DATA_TYPE.AR_START_RECORDING,
+            new Class[]{ MediaSyncEvent.class },
+            new String[]{ "syncEvent" },
+            null);
+
     //---------------------------------------------------------
     // Constants
     //--------------------
@@ -969,11 +979,11 @@ public class AudioRecord implements AudioRouting
      */
     public void startRecording()
     throws IllegalStateException {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.AR_START_RECORDING,
-                null,
-                null,
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.AR_START_RECORDING)) {
+            LogUtil.MyLogB(LOG_SITE_AR_START_RECORDING,
+                    null,
+                    null);
+        }
         if (mState != STATE_INITIALIZED) {
             throw new IllegalStateException("startRecording() called on an "
                     + "uninitialized AudioRecord.");
@@ -997,11 +1007,11 @@ public class AudioRecord implements AudioRouting
      */
     public void startRecording(MediaSyncEvent syncEvent)
     throws IllegalStateException {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.AR_START_RECORDING,
-                new Class[] { MediaSyncEvent.class },
-                new Object[] { syncEvent },
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.AR_START_RECORDING)) {
+            LogUtil.MyLogB(LOG_SITE_AR_START_RECORDING_2,
+                    new Object[] { syncEvent },
+                    null);
+        }
         if (mState != STATE_INITIALIZED) {
             throw new IllegalStateException("startRecording() called on an "
                     + "uninitialized AudioRecord.");
@@ -254,6 +254,7 @@ import com.android.server.pm.PermissionsState.PermissionState;
 import com.android.server.pm.Settings.DatabaseVersion;
 import com.android.server.pm.Settings.VersionInfo;
 import com.android.server.storage.DeviceStorageMonitorInternal;
+import com.android.server.trace.LianTraceInit;
 
 import dalvik.system.CloseGuard;
 import dalvik.system.DexFile;
@@ -1982,6 +1983,8 @@ public class PackageManagerService extends IPackageManager.Stub {
                 factoryTest, onlyCore);
         m.enableSystemUserPackages();
         ServiceManager.addService("package", m);
+        // Lian trace init hook: SystemServer is not in this tree, see LianTraceInit.
+        LianTraceInit.onSystemServerStart(context);
         return m;
     }
 
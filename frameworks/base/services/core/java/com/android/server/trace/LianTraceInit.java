@@ -0,0 +1,39 @@
+package com.android.server.trace;
+
+import android.content.Context;
+import android.util.Slog;
+
+/**
+ * Init hook that starts the trace services in system_server.
+ *
+ * <p>In a full platform tree this would be called from
+ * SystemServer.startOtherServices(). SystemServer.java is not part of this
+ * tree, so {@code PackageManagerService.main} calls it instead. That is the
+ * earliest system_server code this tree carries. Move the call to
+ * SystemServer when it is added.
+ */
+public final class LianTraceInit {
+
+    private static final String TAG = "LianTraceInit";
+
+    private static boolean sStarted;
+
+    private LianTraceInit() {
+    }
+
+    /**
+     * Publishes {@link LianTraceService}. Runs once, and a failure here is
+     * logged instead of being allowed to abort system_server startup.
+     */
+    public static synchronized void onSystemServerStart(Context context) {
+        if (sStarted) {
+            return;
+        }
+        sStarted = true;
+        try {
+            LianTraceService.publish(context);
+        } catch (RuntimeException e) {
+            Slog.e(TAG, "cannot start trace service", e);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.android.server.trace;
+
+import android.content.Context;
+import android.os.Binder;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.IBinder;
+import android.os.Parcel;
+import android.os.Process;
+import android.os.RemoteException;
+import android.os.ServiceManager;
+import android.os.SystemProperties;
+import android.util.ArrayMap;
+import android.util.LogServiceProtocol;
+import android.util.Slog;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects trace batches from app processes running with saveType=5.
+ *
+ * <p>Apps send complete binary trace records (android.util.LogBinaryEncoder)
+ * with oneway binder calls. This service appends them to one segment file per
+ * process under {@link #OUTPUT_DIR}&lt;package&gt;/, in the same format as
+ * analysis.&lt;pid&gt;.bin. Data that reached the service is flushed and
+ * closed when the app process dies, so a crash only loses events the app had
+ * not sent yet.
+ *
+ * <p>The service decides when a segment is full ({@link #SEGMENT_SIZE_PROPERTY})
+ * and enforces the per-package quota. To rotate, it asks the client to start
+ * a new binary stream and keeps appending the current one until the first
+ * batch of the new stream arrives, so no batch is lost at a rotation.
+ *
+ * <p>If the service has to drop a batch, the rest of that binary stream cannot
+ * be decoded. The service then asks the client to start a new stream and
+ * ignores its batches until that happens.
+ *
+ * <p>Segments are keyed by the client's token, which only the sending process
+ * holds, so a caller can neither continue nor replace another process's
+ * stream. The pid in a batch must belong to the calling uid; it only names
+ * the segment file.
+ *
+ * <p>Not centralized here, on purpose:
+ * <ul>
+ * <li>config.txt: apps read it to choose saveType and the hooked types before
+ * anything is sent, and it lives on the app's external storage, which is per
+ * user and not reliably mounted for system_server.</li>
+ * <li>Encoding and compression: they cost CPU per event, and in this shared
+ * process that cost would land on every traced app and on system_server
+ * itself. Records arrive already encoded and are stored uncompressed; apps
+ * that need compression use the file modes (compress=deflate).</li>
+ * </ul>
+ */
+public final class LianTraceService extends Binder {
+
+    private static final String TAG = "LianTraceService";
+
+    static final String OUTPUT_DIR = "/data/misc/lian_trace/";
+    private static final String SEGMENT_PREFIX = "analysis.";
+    private static final String SEGMENT_SUFFIX = ".bin";
+
+    // Bytes written per package before further batches are rejected.
+    private static final String QUOTA_PROPERTY = "persist.lian_trace.quota_mb";
+    private static final long DEFAULT_QUOTA_MB = 1024;
+    // Segment size after which the service rotates a process's stream.
+    private static final String SEGMENT_SIZE_PROPERTY = "persist.lian_trace.segment_mb";
+    private static final long DEFAULT_SEGMENT_SIZE_MB = 64;
+    // Bytes received but not yet written; beyond this, batches are dropped.
+    private static final long MAX_PENDING_BYTES = 32L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Context mContext;
+    private final Handler mHandler;
+    private final AtomicLong mPendingBytes = new AtomicLong();
+
+    // Only accessed on the handler thread.
+    private final ArrayMap<IBinder, Segment> mSegments = new ArrayMap<>();
+    private final ArrayMap<String, Long> mWrittenBytes = new ArrayMap<>();
+
+    private LianTraceService(Context context) {
+        mContext = context;
+        HandlerThread thread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        mHandler = new Handler(thread.getLooper());
+    }
+
+    public static void publish(Context context) {
+        ServiceManager.addService(LogServiceProtocol.SERVICE_NAME, new LianTraceService(context));
+    }
+
+    @Override
+    protected boolean onTransact(int code, Parcel data, Parcel reply, int flags) throws RemoteException {
+        if (code != LogServiceProtocol.TRANSACTION_WRITE) {
+            return super.onTransact(code, data, reply, flags);
+        }
+        data.enforceInterface(LogServiceProtocol.DESCRIPTOR);
+        final int uid = Binder.getCallingUid();
+        final int pid = data.readInt();
+        final String packageName = data.readString();
+        final int writeFlags = data.readInt();
+        final IBinder token = data.readStrongBinder();
+        final byte[] records = data.createByteArray();
+        if (records == null || packageName == null || token == null) {
+            return true;
+        }
+        if (mPendingBytes.addAndGet(records.length) > MAX_PENDING_BYTES) {
+            mPendingBytes.addAndGet(-records.length);
+            mHandler.post(() -> dropStream(pid, token));
+            return true;
+        }
+        mHandler.post(() -> {
+            mPendingBytes.addAndGet(-records.length);
+            write(uid, pid, packageName, writeFlags, token, records);
+        });
+        return true;
+    }
+
+    private void write(int uid, int pid, String packageName, int writeFlags, IBinder token, byte[] records) {
+        Segment segment = mSegments.get(token);
+        if ((writeFlags & LogServiceProtocol.FLAG_NEW_STREAM) != 0) {
+            // Only the caller's own previous stream is replaced.
+            if (segment != null) {
+                closeSegment(segment);
+            }
+            segment = openSegment(uid, pid, packageName, token);
+            if (segment == null) {
+                return;
+            }
+        } else if (segment == null || segment.uid != uid || segment.broken) {
+            // Continuation of a stream that was never opened here or was cut short.
+            return;
+        }
+        final Long total = mWrittenBytes.get(segment.packageName);
+        final long written = total != null ? total : 0;
+        if (written + records.length > quotaBytes()) {
+            Slog.w(TAG, "quota exceeded for " + segment.packageName + ", dropping trace of pid " + segment.pid);
+            segment.broken = true;
+            return;
+        }
+        try {
+            segment.out.write(records);
+            if (mHandler.getLooper().getQueue().isIdle()) {
+                segment.out.flush();
+            }
+            mWrittenBytes.put(segment.packageName, written + records.length);
+            segment.bytes += records.length;
+            if (!segment.rotating && segment.bytes >= segmentSizeBytes()) {
+                // The segment is closed when the new stream's first batch arrives.
+                segment.rotating = true;
+                requestReset(token);
+            }
+        } catch (IOException e) {
+            Slog.w(TAG, "write failed for pid " + segment.pid, e);
+            closeSegment(segment);
+            requestReset(token);
+        }
+    }
+
+    private Segment openSegment(int uid, int pid, String packageName, IBinder token) {
+        if (!isPackageOfUid(uid, packageName)) {
+            Slog.w(TAG, "uid " + uid + " does not own " + packageName);
+            return null;
+        }
+        if (Process.getUidForPid(pid) != uid) {
+            Slog.w(TAG, "pid " + pid + " does not belong to uid " + uid);
+            return null;
+        }
+        File dir = new File(OUTPUT_DIR, packageName);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Slog.w(TAG, "cannot create " + dir);
+            return null;
+        }
+        // A rotated or restarted stream of the same pid goes to analysis.<pid>-<n>.bin.
+        File file = new File(dir, SEGMENT_PREFIX + pid + SEGMENT_SUFFIX);
+        for (int n = 1; file.exists(); n++) {
+            file = new File(dir, SEGMENT_PREFIX + pid + "-" + n + SEGMENT_SUFFIX);
+        }
+        final Segment segment;
+        try {
+            segment = new Segment(uid, pid, packageName, token,
+                    new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+        } catch (IOException e) {
+            Slog.w(TAG, "cannot open " + file, e);
+            return null;
+        }
+        try {
+            token.linkToDeath(segment, 0);
+            segment.linked = true;
+        } catch (RemoteException e) {
+            // The process is already gone; still keep what it sent.
+        }
+        mSegments.put(token, segment);
+        return segment;
+    }
+
+    private void closeSegment(Segment segment) {
+        if (mSegments.get(segment.token) == segment) {
+            mSegments.remove(segment.token);
+        }
+        if (segment.linked) {
+            segment.linked = false;
+            segment.token.unlinkToDeath(segment, 0);
+        }
+        try {
+            segment.out.close();
+        } catch (IOException e) {
+            Slog.w(TAG, "close failed for pid " + segment.pid, e);
+        }
+    }
+
+    private void dropStream(int pid, IBinder token) {
+        Slog.w(TAG, "dropping trace batch of pid " + pid + ", restarting its stream");
+        Segment segment = mSegments.get(token);
+        if (segment != null) {
+            segment.broken = true;
+        }
+        // Also when no segment is open: the dropped batch may have been the
+        // first of a stream, and the client must start over to be traced.
+        requestReset(token);
+    }
+
+    private static void requestReset(IBinder token) {
+        Parcel data = Parcel.obtain();
+        try {
+            token.transact(LogServiceProtocol.TRANSACTION_RESET_STREAM, data, null, IBinder.FLAG_ONEWAY);
+        } catch (RemoteException e) {
+            // The client died; its segment is closed by the death recipient.
+        } finally {
+            data.recycle();
+        }
+    }
+
+    private boolean isPackageOfUid(int uid, String packageName) {
+        final String[] packages = mContext.getPackageManager().getPackagesForUid(uid);
+        if (packages != null) {
+            for (String name : packages) {
+                if (name.equals(packageName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long quotaBytes() {
+        return SystemProperties.getLong(QUOTA_PROPERTY, DEFAULT_QUOTA_MB) * 1024 * 1024;
+    }
+
+    private static long segmentSizeBytes() {
+        return SystemProperties.getLong(SEGMENT_SIZE_PROPERTY, DEFAULT_SEGMENT_SIZE_MB) * 1024 * 1024;
+    }
+
+    /** One open segment file, closed when its process dies. */
+    private final class Segment implements IBinder.DeathRecipient {
+        final int uid;
+        final int pid;
+        final String packageName;
+        final IBinder token;
+        final OutputStream out;
+        boolean linked;
+        boolean broken;
+        // Bytes written to this segment; at the size limit a new stream is requested.
+        long bytes;
+        boolean rotating;
+
+        Segment(int uid, int pid, String packageName, IBinder token, OutputStream out) {
+            this.uid = uid;
+            this.pid = pid;
+            this.packageName = packageName;
+            this.token = token;
+            this.out = out;
+        }
+
+        @Override
+        public void binderDied() {
+            // Batches the process sent before dying are queued ahead of this.
+            mHandler.post(() -> {
+                linked = false;
+                closeSegment(this);
+            });
+        }
+    }
+}
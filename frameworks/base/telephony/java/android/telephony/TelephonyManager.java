@@ -39,6 +39,7 @@ import android.telecom.PhoneAccountHandle;
 import android.telephony.TelephonyHistogram;
 import android.util.Log;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 
 import com.android.internal.telecom.ITelecomService;
@@ -84,6 +85,111 @@ import java.util.regex.Pattern;
  * the methods through which you access the protected information.
  */
 public class TelephonyManager {
+    private static final LogSite LOG_SITE_TM_GET_DEVICE_SOFTWARE_VERSION = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_SOFTWARE_VERSION,
+            new Class[]{ int.class },
+            new String[]{ "slotId" },
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_DEVICE_ID = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID,
+            new Class[0],
+            new String[0],
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_DEVICE_ID_2 = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID,
+            new Class[]{ int.class },
+            new String[]{ "slotId" },
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_CELL_LOCATION = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_CELL_LOCATION,
+            new Class[0],
+            new String[0],
+            CellLocation.class);
+    private static final LogSite LOG_SITE_TM_GET_NEIGHBORING_CELL_INFO = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_NEIGHBORING_CELL_INFO,
+            new Class[0],
+            new String[0],
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_PHONE_TYPE = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_PHONE_TYPE,
+            new Class[0],
+            new String[0],
+            int.class);
+    private static final LogSite LOG_SITE_TM_GET_NETWORK_OPERATOR_NAME = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_OPERATOR_NAME,
+            new Class[]{ int.class },
+            new String[]{ "subId" },
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_NETWORK_OPERATOR = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_OPERATOR,
+            new Class[0],
+            new String[0],
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_NETWORK_OPERATOR_2 = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_OPERATOR,
+            new Class[]{ int.class },
+            new String[]{ "subId" },
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_NETWORK_COUNTRY_ISO = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_COUNTRY_ISO,
+            new Class[0],
+            new String[0],
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_NETWORK_COUNTRY_ISO_2 = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_COUNTRY_ISO,
+            new Class[]{ int.class },
+            new String[]{ "subId" },
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_NETWORK_TYPE = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_TYPE,
+            new Class[0],
+            new String[0],
+            int.class);
+    private static final LogSite LOG_SITE_TM_GET_NETWORK_TYPE_2 = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_TYPE,
+            new Class[]{ int.class },
+            new String[]{ "subId" },
+            int.class);
+    private static final LogSite LOG_SITE_TM_GET_SIM_OPERATOR_NUMERIC = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_SIM_OPERATOR_NUMERIC,
+            new Class[0],
+            new String[0],
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_SIM_OPERATOR_NAME = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_SIM_OPERATOR_NAME,
+            new Class[0],
+            new String[0],
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_SIM_OPERATOR_NAME_2 = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_SIM_OPERATOR_NAME,
+            new Class[]{ int.class },
+            new String[]{ "subId" },
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_SIM_COUNTRY_ISO = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_SIM_COUNTRY_ISO,
+            new Class[0],
+            new String[0],
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_SIM_COUNTRY_ISO_2 = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_SIM_COUNTRY_ISO,
+            new Class[]{ int.class },
+            new String[]{ "subId" },
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_SUBSCRIBER_ID = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_SUBSCRIBER_ID,
+            new Class[]{ int.class },
+            new String[]{ "subId" },
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_LINE1_NUMBER = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_LINE1_NUMBER,
+            new Class[]{ int.class },
+            new String[]{ "subId" },
+            String.class);
+    private static final LogSite LOG_SITE_TM_GET_CALL_STATE = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_CALL_STATE,
+            new Class[0],
+            new String[0],
+            int.class);
+    private static final LogSite LOG_SITE_TM_GET_CALL_STATE_2 = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_CALL_STATE,
+            new Class[]{ int.class },
+            new String[]{ "subId" },
+            int.class);
+    private static final LogSite LOG_SITE_TM_GET_DATA_ACTIVITY = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_DATA_ACTIVITY,
+            new Class[0],
+            new String[0],
+            int.class);
+    private static final LogSite LOG_SITE_TM_GET_DATA_STATE = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_DATA_STATE,
+            new Class[0],
+            new String[0],
+            int.class);
+    private static final LogSite LOG_SITE_TM_LISTEN = new LogSite(LogData.LOG_DATA_TYPE.TM_LISTEN,
+            new Class[]{ PhoneStateListener.class, int.class },
+            new String[]{ "listener", "events" },
+            null);
+    private static final LogSite LOG_SITE_TM_GET_TELEPHONY_PROPERTY = new LogSite(LogData.LOG_DATA_TYPE.TM_GET_TELEPHONY_PROPERTY,
+            new Class[]{ int.class, String.class, String.class },
+            new String[]{ "phoneId", "property", "defaultVal" },
+            String.class);
+
     private static final String TAG = "TelephonyManager";
 
     /**
@@ -824,19 +930,27 @@ public class TelephonyManager {
     public String getDeviceSoftwareVersion(int slotId) {
         ITelephony telephony = getITelephony();
         if (telephony == null) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_SOFTWARE_VERSION, new Class[]{ int.class }, new Object[]{ slotId }, String.class, null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_SOFTWARE_VERSION)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_DEVICE_SOFTWARE_VERSION, new Object[]{ slotId }, null);
+            }
             return null;
         }
 
         try {
             String result = telephony.getDeviceSoftwareVersionForSlot(slotId, getOpPackageName());
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_SOFTWARE_VERSION, new Class[]{ int.class }, new Object[]{ slotId }, String.class, result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_SOFTWARE_VERSION)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_DEVICE_SOFTWARE_VERSION, new Object[]{ slotId }, result);
+            }
             return result;
         } catch (RemoteException ex) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_SOFTWARE_VERSION, new Class[]{ int.class }, new Object[]{ slotId }, String.class, null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_SOFTWARE_VERSION)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_DEVICE_SOFTWARE_VERSION, new Object[]{ slotId }, null);
+            }
             return null;
         } catch (NullPointerException ex) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_SOFTWARE_VERSION, new Class[]{ int.class }, new Object[]{ slotId }, String.class, null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_SOFTWARE_VERSION)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_DEVICE_SOFTWARE_VERSION, new Object[]{ slotId }, null);
+            }
             return null;
         }
     }
@@ -852,17 +966,25 @@ public class TelephonyManager {
         try {
             ITelephony telephony = getITelephony();
             if (telephony == null) {
-                LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID, null, null, String.class, null);
+                if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID)) {
+                    LogUtil.MyLogB(LOG_SITE_TM_GET_DEVICE_ID, null, null);
+                }
                 return null;
             }
             String result = telephony.getDeviceId(mContext.getOpPackageName());
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID, null, null, String.class, result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_DEVICE_ID, null, result);
+            }
             return result;
         } catch (RemoteException ex) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID, null, null, String.class, null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_DEVICE_ID, null, null);
+            }
             return null;
         } catch (NullPointerException ex) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID, null, null, String.class, null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_DEVICE_ID, null, null);
+            }
             return null;
         }
     }
@@ -881,17 +1003,25 @@ public class TelephonyManager {
         try {
             IPhoneSubInfo info = getSubscriberInfo();
             if (info == null) {
-                LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID, new Class[]{ int.class }, new Object[]{ slotId }, String.class, null);
+                if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID)) {
+                    LogUtil.MyLogB(LOG_SITE_TM_GET_DEVICE_ID_2, new Object[]{ slotId }, null);
+                }
                 return null;
             }
             String result = info.getDeviceIdForPhone(slotId, mContext.getOpPackageName());
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID, new Class[]{ int.class }, new Object[]{ slotId }, String.class, result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_DEVICE_ID_2, new Object[]{ slotId }, result);
+            }
             return result;
         } catch (RemoteException ex) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID, new Class[]{ int.class }, new Object[]{ slotId }, String.class, null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_DEVICE_ID_2, new Object[]{ slotId }, null);
+            }
             return null;
         } catch (NullPointerException ex) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID, new Class[]{ int.class }, new Object[]{ slotId }, String.class, null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_DEVICE_ID)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_DEVICE_ID_2, new Object[]{ slotId }, null);
+            }
             return null;
         }
     }
@@ -982,30 +1112,42 @@ public class TelephonyManager {
             ITelephony telephony = getITelephony();
             if (telephony == null) {
                 Rlog.d(TAG, "getCellLocation returning null because telephony is null");
-                LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_CELL_LOCATION, null, null, CellLocation.class, null);
+                if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_CELL_LOCATION)) {
+                    LogUtil.MyLogB(LOG_SITE_TM_GET_CELL_LOCATION, null, null);
+                }
                 return null;
             }
             Bundle bundle = telephony.getCellLocation(mContext.getOpPackageName());
             if (bundle.isEmpty()) {
                 Rlog.d(TAG, "getCellLocation returning null because bundle is empty");
-                LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_CELL_LOCATION, null, null, CellLocation.class, null);
+                if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_CELL_LOCATION)) {
+                    LogUtil.MyLogB(LOG_SITE_TM_GET_CELL_LOCATION, null, null);
+                }
                 return null;
             }
             CellLocation cl = CellLocation.newFromBundle(bundle);
             if (cl.isEmpty()) {
                 Rlog.d(TAG, "getCellLocation returning null because CellLocation is empty");
-                LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_CELL_LOCATION, null, null, CellLocation.class, null);
+                if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_CELL_LOCATION)) {
+                    LogUtil.MyLogB(LOG_SITE_TM_GET_CELL_LOCATION, null, null);
+                }
                 return null;
             }
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_CELL_LOCATION, null, null, CellLocation.class, cl);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_CELL_LOCATION)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_CELL_LOCATION, null, cl);
+            }
             return cl;
         } catch (RemoteException ex) {
             Rlog.d(TAG, "getCellLocation returning null due to RemoteException " + ex);
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_CELL_LOCATION, null, null, CellLocation.class, null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_CELL_LOCATION)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_CELL_LOCATION, null, null);
+            }
             return null;
         } catch (NullPointerException ex) {
             Rlog.d(TAG, "getCellLocation returning null due to NullPointerException " + ex);
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_CELL_LOCATION, null, null, CellLocation.class, null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_CELL_LOCATION)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_CELL_LOCATION, null, null);
+            }
             return null;
         }
     }
@@ -1084,17 +1226,25 @@ public class TelephonyManager {
         try {
             ITelephony telephony = getITelephony();
             if (telephony == null) {
-                LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_NEIGHBORING_CELL_INFO,null, null, String.class, null);
+                if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_NEIGHBORING_CELL_INFO)) {
+                    LogUtil.MyLogB(LOG_SITE_TM_GET_NEIGHBORING_CELL_INFO, null, null);
+                }
                 return null;
             }
             List<NeighboringCellInfo> result = telephony.getNeighboringCellInfo(mContext.getOpPackageName());
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_NEIGHBORING_CELL_INFO,null, null, String.class, result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_NEIGHBORING_CELL_INFO)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_NEIGHBORING_CELL_INFO, null, result);
+            }
             return result;
         } catch (RemoteException ex) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_NEIGHBORING_CELL_INFO,null, null, String.class, null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_NEIGHBORING_CELL_INFO)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_NEIGHBORING_CELL_INFO, null, null);
+            }
             return null;
         } catch (NullPointerException ex) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_NEIGHBORING_CELL_INFO,null, null, String.class, null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_NEIGHBORING_CELL_INFO)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_NEIGHBORING_CELL_INFO, null, null);
+            }
             return null;
         }
     }
@@ -1184,11 +1334,15 @@ public class TelephonyManager {
      */
     public int getPhoneType() {
         if (!isVoiceCapable()) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_PHONE_TYPE,null, null, int.class, PHONE_TYPE_NONE);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_PHONE_TYPE)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_PHONE_TYPE, null, PHONE_TYPE_NONE);
+            }
             return PHONE_TYPE_NONE;
         }
         int result = getCurrentPhoneType();
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_PHONE_TYPE,null, null, int.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_PHONE_TYPE)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_PHONE_TYPE, null, result);
+        }
         return result;
     }
 
@@ -1380,7 +1534,9 @@ public class TelephonyManager {
     public String getNetworkOperatorName(int subId) {
         int phoneId = SubscriptionManager.getPhoneId(subId);
         String result = getTelephonyProperty(phoneId, TelephonyProperties.PROPERTY_OPERATOR_ALPHA, "");
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_OPERATOR_NAME, new Class[]{ int.class }, new Object[]{ subId }, String.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_OPERATOR_NAME)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_NETWORK_OPERATOR_NAME, new Object[]{ subId }, result);
+        }
         return result;
     }
 
@@ -1393,7 +1549,9 @@ public class TelephonyManager {
      */
     public String getNetworkOperator() {
         String result = getNetworkOperatorForPhone(getDefaultPhone());
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_OPERATOR, null, null, String.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_OPERATOR)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_NETWORK_OPERATOR, null, result);
+        }
         return result;
     }
 
@@ -1411,7 +1569,9 @@ public class TelephonyManager {
     public String getNetworkOperator(int subId) {
         int phoneId = SubscriptionManager.getPhoneId(subId);
         String result = getNetworkOperatorForPhone(phoneId);
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_OPERATOR, new Class[]{ int.class }, new Object[]{ subId }, String.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_OPERATOR)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_NETWORK_OPERATOR_2, new Object[]{ subId }, result);
+        }
         return result;
      }
 
@@ -1465,7 +1625,9 @@ public class TelephonyManager {
      */
     public String getNetworkCountryIso() {
         String result = getNetworkCountryIsoForPhone(getDefaultPhone());
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_COUNTRY_ISO, null, null, String.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_COUNTRY_ISO)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_NETWORK_COUNTRY_ISO, null, result);
+        }
         return result;
     }
 
@@ -1483,7 +1645,9 @@ public class TelephonyManager {
     public String getNetworkCountryIso(int subId) {
         int phoneId = SubscriptionManager.getPhoneId(subId);
         String result = getNetworkCountryIsoForPhone(phoneId);
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_COUNTRY_ISO, new Class[]{ int.class }, new Object[]{ subId }, String.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_COUNTRY_ISO)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_NETWORK_COUNTRY_ISO_2, new Object[]{ subId }, result);
+        }
         return result;
     }
 
@@ -1550,7 +1714,9 @@ public class TelephonyManager {
            ITelephony telephony = getITelephony();
            if (telephony != null) {
                int result = telephony.getNetworkType();
-               LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_TYPE, null, null, int.class, result);
+               if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_TYPE)) {
+                   LogUtil.MyLogB(LOG_SITE_TM_GET_NETWORK_TYPE, null, result);
+               }
                return result;
             } else {
                 // This can happen when the ITelephony interface is not up yet.
@@ -1563,7 +1729,9 @@ public class TelephonyManager {
             // This could happen before phone restarts due to crashing
 //            return NETWORK_TYPE_UNKNOWN;
         }
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_TYPE, null, null, int.class, NETWORK_TYPE_UNKNOWN);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_TYPE)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_NETWORK_TYPE, null, NETWORK_TYPE_UNKNOWN);
+        }
         return NETWORK_TYPE_UNKNOWN;
     }
 
@@ -1601,11 +1769,11 @@ public class TelephonyManager {
            ITelephony telephony = getITelephony();
            if (telephony != null) {
                int result = telephony.getNetworkTypeForSubscriber(subId, getOpPackageName());
-               LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_TYPE,
-                       new Class[] { int.class },
-                       new Object[] { subId },
-                       int.class,
-                       result);
+               if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_TYPE)) {
+                   LogUtil.MyLogB(LOG_SITE_TM_GET_NETWORK_TYPE_2,
+                           new Object[] { subId },
+                           result);
+               }
                return result;
            } else {
                // This can happen when the ITelephony interface is not up yet.
@@ -1619,11 +1787,11 @@ public class TelephonyManager {
 //           return NETWORK_TYPE_UNKNOWN;
        }
 
-       LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_TYPE,
-               new Class[] { int.class },
-               new Object[] { subId },
-               int.class,
-               NETWORK_TYPE_UNKNOWN);
+       if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_NETWORK_TYPE)) {
+           LogUtil.MyLogB(LOG_SITE_TM_GET_NETWORK_TYPE_2,
+                   new Object[] { subId },
+                   NETWORK_TYPE_UNKNOWN);
+       }
        return NETWORK_TYPE_UNKNOWN;
    }
 
@@ -2016,7 +2184,9 @@ public class TelephonyManager {
             }
         }
         String result = getSimOperatorNumeric(subId);
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_SIM_OPERATOR_NUMERIC, null, null, String.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_SIM_OPERATOR_NUMERIC)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_SIM_OPERATOR_NUMERIC, null, result);
+        }
         return result;
     }
 
@@ -2058,7 +2228,9 @@ public class TelephonyManager {
      */
     public String getSimOperatorName() {
         String result = getSimOperatorNameForPhone(getDefaultPhone());
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_SIM_OPERATOR_NAME, null, null, String.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_SIM_OPERATOR_NAME)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_SIM_OPERATOR_NAME, null, result);
+        }
         return result;
     }
 
@@ -2075,7 +2247,9 @@ public class TelephonyManager {
     public String getSimOperatorName(int subId) {
         int phoneId = SubscriptionManager.getPhoneId(subId);
         String result = getSimOperatorNameForPhone(phoneId);
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_SIM_OPERATOR_NAME, new Class[]{ int.class }, new Object[]{ subId }, String.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_SIM_OPERATOR_NAME)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_SIM_OPERATOR_NAME_2, new Object[]{ subId }, result);
+        }
         return result;
     }
 
@@ -2094,7 +2268,9 @@ public class TelephonyManager {
      */
     public String getSimCountryIso() {
         String result = getSimCountryIsoForPhone(getDefaultPhone());
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_SIM_COUNTRY_ISO, null, null, String.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_SIM_COUNTRY_ISO)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_SIM_COUNTRY_ISO, null, result);
+        }
         return result;
     }
 
@@ -2107,7 +2283,9 @@ public class TelephonyManager {
     public String getSimCountryIso(int subId) {
         int phoneId = SubscriptionManager.getPhoneId(subId);
         String result = getSimCountryIsoForPhone(phoneId);
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_SIM_COUNTRY_ISO, new Class[]{ int.class }, new Object[]{ subId }, String.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_SIM_COUNTRY_ISO)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_SIM_COUNTRY_ISO_2, new Object[]{ subId }, result);
+        }
         return result;
     }
 
@@ -2234,34 +2412,34 @@ public class TelephonyManager {
         try {
             IPhoneSubInfo info = getSubscriberInfo();
             if (info == null) {
-                LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_SUBSCRIBER_ID,
-                        new Class[] {int.class},
-                        new Object[]{subId},
-                        String.class,
-                        null);
+                if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_SUBSCRIBER_ID)) {
+                    LogUtil.MyLogB(LOG_SITE_TM_GET_SUBSCRIBER_ID,
+                            new Object[]{subId},
+                            null);
+                }
                 return null;
             }
             String result = info.getSubscriberIdForSubscriber(subId, mContext.getOpPackageName());
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_SUBSCRIBER_ID,
-                    new Class[] {int.class},
-                    new Object[]{subId},
-                    String.class,
-                    result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_SUBSCRIBER_ID)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_SUBSCRIBER_ID,
+                        new Object[]{subId},
+                        result);
+            }
             return result;
         } catch (RemoteException ex) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_SUBSCRIBER_ID,
-                    new Class[] {int.class},
-                    new Object[]{subId},
-                    String.class,
-                    null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_SUBSCRIBER_ID)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_SUBSCRIBER_ID,
+                        new Object[]{subId},
+                        null);
+            }
             return null;
         } catch (NullPointerException ex) {
             // This could happen before phone restarts due to crashing
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_SUBSCRIBER_ID,
-                    new Class[] {int.class},
-                    new Object[]{subId},
-                    String.class,
-                    null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_SUBSCRIBER_ID)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_SUBSCRIBER_ID,
+                        new Object[]{subId},
+                        null);
+            }
             return null;
         }
     }
@@ -2350,44 +2528,44 @@ public class TelephonyManager {
         } catch (NullPointerException ex) {
         }
         if (number != null) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_LINE1_NUMBER,
-                    new Class[] {int.class},
-                    new Object[]{subId},
-                    String.class,
-                    number);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_LINE1_NUMBER)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_LINE1_NUMBER,
+                        new Object[]{subId},
+                        number);
+            }
             return number;
         }
         try {
             IPhoneSubInfo info = getSubscriberInfo();
             if (info == null) {
-                LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_LINE1_NUMBER,
-                        new Class[] {int.class},
-                        new Object[]{subId},
-                        String.class,
-                        null);
+                if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_LINE1_NUMBER)) {
+                    LogUtil.MyLogB(LOG_SITE_TM_GET_LINE1_NUMBER,
+                            new Object[]{subId},
+                            null);
+                }
                 return null;
             }
 
             String result = info.getLine1NumberForSubscriber(subId, mContext.getOpPackageName());
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_LINE1_NUMBER,
-                    new Class[] {int.class},
-                    new Object[]{subId},
-                    String.class,
-                    result);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_LINE1_NUMBER)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_LINE1_NUMBER,
+                        new Object[]{subId},
+                        result);
+            }
             return result;
         } catch (RemoteException ex) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_LINE1_NUMBER,
-                    new Class[] {int.class},
-                    new Object[]{subId},
-                    String.class,
-                    null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_LINE1_NUMBER)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_LINE1_NUMBER,
+                        new Object[]{subId},
+                        null);
+            }
             return null;
         } catch (NullPointerException ex) {
-            LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_LINE1_NUMBER,
-                    new Class[] {int.class},
-                    new Object[]{subId},
-                    String.class,
-                    null);
+            if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_LINE1_NUMBER)) {
+                LogUtil.MyLogB(LOG_SITE_TM_GET_LINE1_NUMBER,
+                        new Object[]{subId},
+                        null);
+            }
             // This could happen before phone restarts due to crashing
             return null;
         }
@@ -2950,13 +3128,17 @@ public class TelephonyManager {
             ITelecomService telecom = getTelecomService();
             if (telecom != null) {
                 int result = telecom.getCallState();
-                LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_CALL_STATE, null, null, int.class, result);
+                if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_CALL_STATE)) {
+                    LogUtil.MyLogB(LOG_SITE_TM_GET_CALL_STATE, null, result);
+                }
                 return result;
             }
         } catch (RemoteException e) {
             Log.e(TAG, "Error calling ITelecomService#getCallState", e);
         }
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_CALL_STATE, null, null, int.class, CALL_STATE_IDLE);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_CALL_STATE)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_CALL_STATE, null, CALL_STATE_IDLE);
+        }
         return CALL_STATE_IDLE;
     }
 
@@ -2970,7 +3152,9 @@ public class TelephonyManager {
     public int getCallState(int subId) {
         int phoneId = SubscriptionManager.getPhoneId(subId);
         int result = getCallStateForSlot(phoneId);
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_CALL_STATE, new Class[]{ int.class }, new Object[]{ subId }, int.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_CALL_STATE)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_CALL_STATE_2, new Object[]{ subId }, result);
+        }
         return result;
     }
 
@@ -3035,7 +3219,9 @@ public class TelephonyManager {
           // the phone process is restarting.
 //          return DATA_ACTIVITY_NONE;
       }
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_DATA_ACTIVITY, null, null, int.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_DATA_ACTIVITY)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_DATA_ACTIVITY, null, result);
+        }
         return result;
     }
 
@@ -3078,7 +3264,9 @@ public class TelephonyManager {
         } catch (NullPointerException ex) {
 //            return DATA_DISCONNECTED;
         }
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_DATA_STATE, null, null, int.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_DATA_STATE)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_DATA_STATE, null, result);
+        }
         return result;
     }
 
@@ -3126,7 +3314,9 @@ public class TelephonyManager {
      *               LISTEN_ flags.
      */
     public void listen(PhoneStateListener listener, int events) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_LISTEN, new Class[]{ PhoneStateListener.class, int.class }, new Object[]{ listener, events }, null, null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_LISTEN)) {
+            LogUtil.MyLogB(LOG_SITE_TM_LISTEN, new Object[]{ listener, events }, null);
+        }
         if (mContext == null) return;
         try {
             Boolean notifyNow = (getITelephony() != null);
@@ -3961,10 +4151,11 @@ public class TelephonyManager {
             }
         }
         String result = propVal == null ? defaultVal : propVal;
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.TM_GET_TELEPHONY_PROPERTY,
-                new Class[]{ int.class, String.class, String.class },
-                new Object[]{phoneId, property, defaultVal},
-                String.class, result);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.TM_GET_TELEPHONY_PROPERTY)) {
+            LogUtil.MyLogB(LOG_SITE_TM_GET_TELEPHONY_PROPERTY,
+                    new Object[]{phoneId, property, defaultVal},
+                    result);
+        }
         return result;
     }
 
@@ -0,0 +1,10 @@
+LOCAL_PATH := $(call my-dir)
+
+# Host-side tools for trace files produced by android.util.LogUtil
+include $(CLEAR_VARS)
+
+LOCAL_SRC_FILES := $(call all-java-files-under, src)
+LOCAL_JAR_MANIFEST := manifest.txt
+LOCAL_MODULE := lian-trace
+
+include $(BUILD_HOST_JAVA_LIBRARY)
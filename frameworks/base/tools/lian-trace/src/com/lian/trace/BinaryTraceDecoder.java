@@ -0,0 +1,522 @@
+package com.lian.trace;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes the binary trace format written by android.util.LogBinaryEncoder
+ * (saveType=2 files, saveType=3 streams) back into one org.json compatible
+ * line per event.
+ */
+final class BinaryTraceDecoder {
+
+    static final byte[] MAGIC = { 'L', 'T', 'R', 'C' };
+    // Must equal LogBinaryEncoder.VERSION; only the current format is read.
+    static final int VERSION = 7;
+
+    static final int RECORD_HEADER = 0;
+    static final int RECORD_STRING = 1;
+    static final int RECORD_TYPE = 2;
+    static final int RECORD_EVENT = 3;
+    static final int RECORD_FRAME = 4;
+    static final int RECORD_STACK = 5;
+    static final int RECORD_SEGMENT = 6;
+    static final int RECORD_SITE = 7;
+
+    static final int VALUE_NULL = 0;
+    static final int VALUE_FALSE = 1;
+    static final int VALUE_TRUE = 2;
+    static final int VALUE_INT = 3;
+    static final int VALUE_LONG = 4;
+    static final int VALUE_FLOAT = 5;
+    static final int VALUE_DOUBLE = 6;
+    static final int VALUE_STRING = 7;
+    static final int VALUE_BYTES = 8;
+    static final int VALUE_ARRAY = 9;
+    static final int VALUE_BYTES_DIGEST = 10;
+    static final int VALUE_BLOB = 11;
+
+    static final int ENCODING_ARRAY = 0;
+    static final int ENCODING_HEX = 1;
+    static final int ENCODING_BASE64 = 2;
+    private static final String[] ENCODING_NAMES = { "array", "hex", "base64" };
+
+    private final InputStream in;
+    private final List<String> strings = new ArrayList<>();
+    private final Map<Integer, String> types = new HashMap<>();
+    // Rendered JSON of each frame / stack definition, keyed by id.
+    private final List<String> frames = new ArrayList<>();
+    private final List<String> stacks = new ArrayList<>();
+    private final Map<Integer, Site> sites = new HashMap<>();
+    private final JsonLineWriter json = new JsonLineWriter();
+
+    private byte[] body = new byte[4096];
+    private int bodyLength;
+    private int pos;
+
+    private long events;
+    private boolean truncated;
+    private long lastEventTime;
+    private long lastEventSeq;
+
+    BinaryTraceDecoder(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Decodes every record and writes one JSON line per event and per segment header.
+     *
+     * @return the number of events written
+     */
+    long decode(Writer out) throws IOException {
+        String line;
+        while ((line = nextLine()) != null) {
+            out.write(line);
+            out.write('\n');
+        }
+        return events;
+    }
+
+    /**
+     * Reads records up to the next event or segment header and returns its JSON
+     * line, or null at the end of the input.
+     */
+    String nextLine() throws IOException {
+        while (nextRecord()) {
+            int recordType = readByte();
+            switch (recordType) {
+                case RECORD_HEADER:
+                    readHeader();
+                    break;
+                case RECORD_STRING:
+                    readStringDefinition();
+                    break;
+                case RECORD_TYPE:
+                    types.put((int) readVarint(), readUtf8((int) readVarint()));
+                    break;
+                case RECORD_FRAME:
+                    define(frames, (int) readVarint(), readFrame());
+                    break;
+                case RECORD_STACK:
+                    readStackDefinition();
+                    break;
+                case RECORD_SITE:
+                    readSiteDefinition();
+                    break;
+                case RECORD_SEGMENT:
+                    return readSegment();
+                case RECORD_EVENT:
+                    events++;
+                    return readEvent();
+                default:
+                    throw new IOException("unknown record type " + recordType);
+            }
+        }
+        return null;
+    }
+
+    /** True when the input ended in the middle of a record, e.g. a crash tail. */
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    private boolean nextRecord() throws IOException {
+        long length;
+        try {
+            length = readStreamVarint();
+        } catch (EOFException e) {
+            return false;
+        }
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IOException("bad record length " + length);
+        }
+        if (length == 0) {
+            // Records are never empty: this is the zero-filled, preallocated
+            // end of a fileMode=mmap segment whose process was killed.
+            return false;
+        }
+        bodyLength = (int) length;
+        if (body.length < bodyLength) {
+            body = new byte[Math.max(bodyLength, body.length * 2)];
+        }
+        int read = 0;
+        while (read < bodyLength) {
+            int n = in.read(body, read, bodyLength - read);
+            if (n < 0) {
+                truncated = true;
+                return false;
+            }
+            read += n;
+        }
+        pos = 0;
+        return true;
+    }
+
+    private void readHeader() throws IOException {
+        for (byte b : MAGIC) {
+            if (readByte() != (b & 0xFF)) {
+                throw new IOException("bad trace magic");
+            }
+        }
+        int version = (int) readVarint();
+        if (version != VERSION) {
+            throw new IOException("unsupported trace version " + version);
+        }
+        strings.clear();
+        types.clear();
+        frames.clear();
+        stacks.clear();
+        sites.clear();
+        lastEventTime = 0;
+        lastEventSeq = 0;
+    }
+
+    /** Renders a segment record exactly like LogSegment.writeJson on the device. */
+    private String readSegment() throws IOException {
+        long pid = readVarint();
+        String processName = readUtf8((int) readVarint());
+        String packageName = readUtf8((int) readVarint());
+        long elapsedRealtimeNanos = readVarint();
+        long currentTimeMillis = readVarint();
+        JsonLineWriter segment = new JsonLineWriter().beginObject();
+        segment.key("segment").beginObject();
+        segment.key("pid").value(pid);
+        if (!processName.isEmpty()) {
+            segment.key("processName").value(processName);
+        }
+        if (!packageName.isEmpty()) {
+            segment.key("packageName").value(packageName);
+        }
+        segment.key("elapsedRealtimeNanos").value(elapsedRealtimeNanos);
+        segment.key("currentTimeMillis").value(currentTimeMillis);
+        return segment.endObject().endObject().toString();
+    }
+
+    private void readStringDefinition() throws IOException {
+        int id = (int) readVarint();
+        define(strings, id, readUtf8((int) readVarint()));
+    }
+
+    private void readStackDefinition() throws IOException {
+        int id = (int) readVarint();
+        long count = readVarint();
+        JsonLineWriter stack = new JsonLineWriter().beginArray();
+        for (long i = 0; i < count; i++) {
+            stack.raw(lookup(frames, (int) readVarint(), "frame"));
+        }
+        define(stacks, id, stack.endArray().toString());
+    }
+
+    /** A hook site: event type and argument schema shared by its events. */
+    private void readSiteDefinition() throws IOException {
+        int id = (int) readVarint();
+        Site site = new Site();
+        site.dataType = types.get((int) readVarint());
+        int argCount = (int) readVarint();
+        site.argClassNames = new String[argCount];
+        site.argNames = new String[argCount];
+        for (int i = 0; i < argCount; i++) {
+            site.argClassNames[i] = readStringRef();
+            site.argNames[i] = readStringRef();
+        }
+        site.returnClassName = readStringRef();
+        sites.put(id, site);
+    }
+
+    private static void define(List<String> table, int id, String value) {
+        while (table.size() < id) {
+            table.add(null);
+        }
+        table.set(id - 1, value);
+    }
+
+    private static String lookup(List<String> table, int id, String what) throws IOException {
+        if (id <= 0 || id > table.size() || table.get(id - 1) == null) {
+            throw new IOException("undefined " + what + " id " + id);
+        }
+        return table.get(id - 1);
+    }
+
+    /** Reads one frame definition. */
+    private String readFrame() throws IOException {
+        String methodName = readStringRef();
+        String className = readStringRef();
+        String fileName = readStringRef();
+        long lineNumber = readSignedVarint();
+        JsonLineWriter frame = new JsonLineWriter().beginObject();
+        if (methodName != null) {
+            frame.key("methodName").value(methodName);
+        }
+        if (className != null) {
+            frame.key("className").value(className);
+        }
+        if (fileName != null) {
+            frame.key("fileName").value(fileName);
+        }
+        frame.key("lineNumber").value(lineNumber);
+        return frame.endObject().toString();
+    }
+
+    private String readEvent() throws IOException {
+        String packageName = readStringRef();
+        Site site = null;
+        int siteId = (int) readVarint();
+        if (siteId != 0) {
+            site = sites.get(siteId);
+            if (site == null) {
+                throw new IOException("undefined site id " + siteId);
+            }
+        }
+        String dataType = site != null ? site.dataType : types.get((int) readVarint());
+
+        json.reset().beginObject();
+        if (packageName != null) {
+            json.key("packageName").value(packageName);
+        }
+        if (dataType != null) {
+            json.key("dataType").value(dataType);
+        }
+
+        json.key("elements").raw(lookup(stacks, (int) readVarint(), "stack"));
+
+        String[] argClassNames;
+        JsonLineWriter values = new JsonLineWriter().beginArray();
+        if (site != null) {
+            argClassNames = site.argClassNames;
+            for (int i = 0; i < argClassNames.length; i++) {
+                readValue(values);
+            }
+        } else {
+            long argCount = readVarint();
+            argClassNames = new String[(int) argCount];
+            for (int i = 0; i < argCount; i++) {
+                argClassNames[i] = readStringRef();
+                readValue(values);
+            }
+        }
+        values.endArray();
+        json.key("argClassNames").beginArray();
+        for (String name : argClassNames) {
+            json.value(name);
+        }
+        json.endArray();
+        json.key("argValues").raw(values.toString());
+
+        String returnClassName = site != null ? site.returnClassName : readStringRef();
+        if (returnClassName != null) {
+            json.key("returnClassName").value(returnClassName);
+        }
+        if (peekByte() != VALUE_NULL) {
+            json.key("returnValue");
+            readValue(json);
+        } else {
+            pos++;
+        }
+        if (peekByte() != VALUE_NULL) {
+            json.key("other");
+            readValue(json);
+        } else {
+            pos++;
+        }
+        lastEventTime += readSignedVarint();
+        json.key("elapsedRealtimeNanos").value(lastEventTime);
+        json.key("tid").value(readVarint());
+        lastEventSeq += readSignedVarint();
+        json.key("seq").value(lastEventSeq);
+        return json.endObject().toString();
+    }
+
+    private void readValue(JsonLineWriter out) throws IOException {
+        int tag = readByte();
+        switch (tag) {
+            case VALUE_NULL:
+                out.nullValue();
+                break;
+            case VALUE_FALSE:
+                out.value(false);
+                break;
+            case VALUE_TRUE:
+                out.value(true);
+                break;
+            case VALUE_INT:
+            case VALUE_LONG:
+                out.value(readSignedVarint());
+                break;
+            case VALUE_FLOAT:
+                out.value(Float.intBitsToFloat((int) readFixed(4)));
+                break;
+            case VALUE_DOUBLE:
+                out.value(Double.longBitsToDouble(readFixed(8)));
+                break;
+            case VALUE_STRING:
+                out.value(readUtf8((int) readVarint()));
+                break;
+            case VALUE_BYTES:
+                writeBytes(out, ENCODING_ARRAY, (int) readVarint());
+                break;
+            case VALUE_BYTES_DIGEST:
+                readBytesDigest(out);
+                break;
+            case VALUE_BLOB: {
+                long length = readVarint();
+                String hash = String.format("%016x", readFixed(8));
+                out.beginObject();
+                out.key("length").value(length);
+                out.key("hash").value(hash);
+                out.key("blob").value("blobs/" + hash + ".bin");
+                out.endObject();
+                break;
+            }
+            case VALUE_ARRAY: {
+                long count = readVarint();
+                out.beginArray();
+                for (long i = 0; i < count; i++) {
+                    readValue(out);
+                }
+                out.endArray();
+                break;
+            }
+            default:
+                throw new IOException("unknown value tag " + tag);
+        }
+    }
+
+    /**
+     * Renders a byte[] digest exactly like LogJsonWriter.value(byte[]) does on
+     * the device: the full data when it was not truncated, head and tail otherwise.
+     */
+    private void readBytesDigest(JsonLineWriter out) throws IOException {
+        int encoding = (int) readVarint();
+        if (encoding < 0 || encoding >= ENCODING_NAMES.length) {
+            throw new IOException("unknown bytes encoding " + encoding);
+        }
+        long length = readVarint();
+        long hash = readFixed(8);
+        out.beginObject();
+        out.key("encoding").value(ENCODING_NAMES[encoding]);
+        out.key("length").value(length);
+        out.key("hash").value(String.format("%016x", hash));
+        int headLength = (int) readVarint();
+        if (headLength == length) {
+            out.key("data");
+            writeBytes(out, encoding, headLength);
+            readVarint(); // empty tail
+        } else {
+            out.key("head");
+            writeBytes(out, encoding, headLength);
+            out.key("tail");
+            writeBytes(out, encoding, (int) readVarint());
+        }
+        out.endObject();
+    }
+
+    private void writeBytes(JsonLineWriter out, int encoding, int length) throws IOException {
+        check(length);
+        if (encoding == ENCODING_HEX) {
+            StringBuilder hex = new StringBuilder(length * 2);
+            for (int i = 0; i < length; i++) {
+                hex.append(Character.forDigit((body[pos + i] >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(body[pos + i] & 0xF, 16));
+            }
+            out.value(hex.toString());
+        } else if (encoding == ENCODING_BASE64) {
+            out.value(Base64.getEncoder().encodeToString(Arrays.copyOfRange(body, pos, pos + length)));
+        } else {
+            out.beginArray();
+            for (int i = 0; i < length; i++) {
+                out.value((int) body[pos + i]);
+            }
+            out.endArray();
+        }
+        pos += length;
+    }
+
+    private String readStringRef() throws IOException {
+        int id = (int) readVarint();
+        return id == 0 ? null : lookup(strings, id, "string");
+    }
+
+    private String readUtf8(int length) throws IOException {
+        check(length);
+        String value = new String(body, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+
+    private long readFixed(int bytes) throws IOException {
+        check(bytes);
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | (body[pos++] & 0xFF);
+        }
+        return value;
+    }
+
+    private int peekByte() throws IOException {
+        check(1);
+        return body[pos] & 0xFF;
+    }
+
+    private int readByte() throws IOException {
+        check(1);
+        return body[pos++] & 0xFF;
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    private long readSignedVarint() throws IOException {
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readStreamVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift != 0) {
+                    truncated = true;
+                }
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    private void check(int bytes) throws IOException {
+        if (pos + bytes > bodyLength) {
+            throw new IOException("record overrun");
+        }
+    }
+
+    private static final class Site {
+        String dataType;
+        String[] argClassNames;
+        // Kept with the site definition only; JSON records have the same shape as saveType=0.
+        String[] argNames;
+        String returnClassName;
+    }
+}
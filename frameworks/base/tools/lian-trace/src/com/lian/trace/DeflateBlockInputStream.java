@@ -0,0 +1,152 @@
+package com.lian.trace;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a compressed segment (compress=deflate, android.util.LogDeflateOutput).
+ *
+ * <p>The file is a sequence of blocks, each "LTZ1", compressed length, raw
+ * length and CRC32 of the raw data (big-endian ints), followed by raw deflate
+ * data that ends at a full flush. Every block inflates on its own, so the
+ * stream simply ends at the first incomplete or damaged block, e.g. the tail
+ * of a partial pull or of a killed process.
+ */
+final class DeflateBlockInputStream extends InputStream {
+
+    static final String EXTENSION = ".dz";
+
+    private static final int MAGIC = 0x4c545a31;
+
+    private final DataInputStream in;
+    private final Inflater inflater = new Inflater(true);
+    private final CRC32 crc = new CRC32();
+    private byte[] compressed = new byte[64 * 1024];
+    private byte[] raw = new byte[64 * 1024];
+    private int rawLength;
+    private int pos;
+    private boolean eof;
+    private boolean truncated;
+
+    DeflateBlockInputStream(InputStream in) {
+        this.in = new DataInputStream(in);
+    }
+
+    /** Opens a segment file, inflating it if its name ends with {@link #EXTENSION}. */
+    static InputStream open(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16);
+        return file.getName().endsWith(EXTENSION) ? new DeflateBlockInputStream(in) : in;
+    }
+
+    /** The file name without {@link #EXTENSION}, which tells the segment format. */
+    static String formatName(File file) {
+        String name = file.getName();
+        return name.endsWith(EXTENSION) ? name.substring(0, name.length() - EXTENSION.length()) : name;
+    }
+
+    /** True when the input ended with an incomplete or damaged block. */
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (pos == rawLength && !nextBlock()) {
+            return -1;
+        }
+        return raw[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (pos == rawLength && !nextBlock()) {
+            return -1;
+        }
+        int count = Math.min(len, rawLength - pos);
+        System.arraycopy(raw, pos, b, off, count);
+        pos += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return rawLength - pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    private boolean nextBlock() throws IOException {
+        while (!eof) {
+            pos = 0;
+            rawLength = 0;
+            int magic;
+            try {
+                magic = in.readInt();
+            } catch (EOFException e) {
+                eof = true;
+                return false;
+            }
+            try {
+                // A zero-filled, preallocated tail (fileMode=mmap) ends the data cleanly.
+                if (magic != MAGIC) {
+                    truncated = magic != 0;
+                    eof = true;
+                    return false;
+                }
+                int compressedLength = in.readInt();
+                int blockLength = in.readInt();
+                int checksum = in.readInt();
+                if (compressedLength < 0 || blockLength < 0) {
+                    throw new IOException("bad block length");
+                }
+                if (compressed.length < compressedLength) {
+                    compressed = new byte[compressedLength];
+                }
+                in.readFully(compressed, 0, compressedLength);
+                if (raw.length < blockLength) {
+                    raw = new byte[blockLength];
+                }
+                inflater.reset();
+                inflater.setInput(compressed, 0, compressedLength);
+                int inflated = 0;
+                while (inflated < blockLength) {
+                    int n = inflater.inflate(raw, inflated, blockLength - inflated);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IOException("short block");
+                    }
+                    inflated += n;
+                }
+                crc.reset();
+                crc.update(raw, 0, blockLength);
+                if ((int) crc.getValue() != checksum) {
+                    throw new IOException("block checksum mismatch");
+                }
+                rawLength = blockLength;
+            } catch (IOException | DataFormatException e) {
+                rawLength = 0;
+                truncated = true;
+                eof = true;
+                return false;
+            }
+            if (rawLength > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,162 @@
+package com.lian.trace;
+
+/**
+ * Minimal JSON builder that reproduces the exact output of Android's
+ * org.json (JSONObject/JSONStringer) for the value types found in traces,
+ * so decoded lines are byte-for-byte identical to saveType=0 output.
+ */
+final class JsonLineWriter {
+
+    // JSONObject.numberToString() writes -0 only for a Double -0.0; a Float -0.0f becomes 0.
+    private static final Double NEGATIVE_ZERO = -0d;
+
+    private final StringBuilder sb = new StringBuilder(1024);
+    private boolean needComma;
+
+    JsonLineWriter reset() {
+        sb.setLength(0);
+        needComma = false;
+        return this;
+    }
+
+    JsonLineWriter beginObject() {
+        separator();
+        sb.append('{');
+        needComma = false;
+        return this;
+    }
+
+    JsonLineWriter endObject() {
+        sb.append('}');
+        needComma = true;
+        return this;
+    }
+
+    JsonLineWriter beginArray() {
+        separator();
+        sb.append('[');
+        needComma = false;
+        return this;
+    }
+
+    JsonLineWriter endArray() {
+        sb.append(']');
+        needComma = true;
+        return this;
+    }
+
+    /**
+     * Writes a key. Like JSONObject.put(name, null), callers must skip keys
+     * whose value is null instead of writing them.
+     */
+    JsonLineWriter key(String name) {
+        separator();
+        string(name);
+        sb.append(':');
+        needComma = false;
+        return this;
+    }
+
+    JsonLineWriter nullValue() {
+        separator();
+        sb.append("null");
+        needComma = true;
+        return this;
+    }
+
+    JsonLineWriter value(boolean value) {
+        separator();
+        sb.append(value);
+        needComma = true;
+        return this;
+    }
+
+    /**
+     * Matches JSONObject.numberToString(), and LogJsonWriter on the device for
+     * what org.json rejects: a Double -0.0 is written as -0, integral values
+     * without a fraction, and NaN / Infinity as quoted strings.
+     */
+    JsonLineWriter value(Number number) {
+        double doubleValue = number.doubleValue();
+        if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+            return value(number.toString());
+        }
+        separator();
+        long longValue = number.longValue();
+        if (number.equals(NEGATIVE_ZERO)) {
+            sb.append("-0");
+        } else if (doubleValue == (double) longValue) {
+            sb.append(longValue);
+        } else {
+            sb.append(number.toString());
+        }
+        needComma = true;
+        return this;
+    }
+
+    JsonLineWriter value(String value) {
+        if (value == null) {
+            return nullValue();
+        }
+        separator();
+        string(value);
+        needComma = true;
+        return this;
+    }
+
+    JsonLineWriter raw(String json) {
+        separator();
+        sb.append(json);
+        needComma = true;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+
+    private void separator() {
+        if (needComma) {
+            sb.append(',');
+        }
+    }
+
+    /** Matches JSONStringer.string(). */
+    private void string(String value) {
+        sb.append('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    sb.append('\\').append(c);
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\b':
+                    sb.append("\\b");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\f':
+                    sb.append("\\f");
+                    break;
+                default:
+                    if (c <= 0x1F) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                    break;
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,189 @@
+package com.lian.trace;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rebuilds trace records from framed logcat output (saveType=4, android.util.LogFrameWriter).
+ *
+ * <p>Each record is split into frames "LTF &lt;pid&gt; &lt;frame&gt; &lt;part&gt;/&lt;parts&gt; &lt;payload&gt;".
+ * Frame numbers are consecutive per process, so a gap means logcat lost
+ * frames (ring eviction, chatty throttling). Records with a missing part are
+ * dropped and counted, never emitted half-joined. The frame text can be
+ * found in any logcat output format, e.g. {@code adb logcat -v raw -s LianLog...:D}.
+ *
+ * <p>Records go either to &lt;dir&gt;/analysis.&lt;pid&gt;.txt, which "merge"
+ * accepts, or to a shared output with pid and processName appended.
+ */
+final class LogcatReassembler {
+
+    private static final Pattern FRAME = Pattern.compile("LTF (\\d+) (\\d+) (\\d+)/(\\d+) ");
+
+    private final File dir;
+    private final Writer shared;
+    private final Map<Integer, Stream> streams = new HashMap<>();
+    private long events;
+    private long lostFrames;
+    private long droppedRecords;
+    private long restarts;
+
+    /**
+     * @param dir    directory for per-process segments, or null to write every record to {@code shared}
+     * @param shared output for all records when {@code dir} is null
+     */
+    LogcatReassembler(File dir, Writer shared) {
+        this.dir = dir;
+        this.shared = shared;
+    }
+
+    long events() {
+        return events;
+    }
+
+    /** Frames known to be missing from gaps in the frame numbers. */
+    long lostFrames() {
+        return lostFrames;
+    }
+
+    /** Records seen only partially because some of their frames were lost. */
+    long droppedRecords() {
+        return droppedRecords;
+    }
+
+    /** Frame numbers that went backwards: a new process reusing the pid, or repeated input. */
+    long restarts() {
+        return restarts;
+    }
+
+    void read(BufferedReader in) throws IOException {
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("cannot create " + dir);
+        }
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                Matcher matcher = FRAME.matcher(line);
+                if (!matcher.find()) {
+                    continue;
+                }
+                int end = line.length();
+                while (end > matcher.end() && line.charAt(end - 1) == '\r') {
+                    end--;
+                }
+                accept(Integer.parseInt(matcher.group(1)), Long.parseLong(matcher.group(2)),
+                        Integer.parseInt(matcher.group(3)), Integer.parseInt(matcher.group(4)),
+                        line.substring(matcher.end(), end));
+            }
+            for (Stream stream : streams.values()) {
+                if (stream.record != null) {
+                    // The tail of the input ended inside a record.
+                    droppedRecords++;
+                }
+            }
+        } finally {
+            for (Stream stream : streams.values()) {
+                if (stream.file != null) {
+                    stream.file.close();
+                }
+            }
+            if (shared != null) {
+                shared.flush();
+            }
+        }
+    }
+
+    private void accept(int pid, long frame, int part, int parts, String payload) throws IOException {
+        Stream stream = streams.get(pid);
+        if (stream == null) {
+            stream = new Stream(pid);
+            streams.put(pid, stream);
+        } else if (frame != stream.nextFrame) {
+            if (frame > stream.nextFrame) {
+                lostFrames += frame - stream.nextFrame;
+            } else {
+                restarts++;
+                stream.suffix = ",\"pid\":" + pid + "}";
+            }
+            if (stream.record != null) {
+                droppedRecords++;
+                stream.record = null;
+            }
+            stream.orphan = false;
+        }
+        stream.nextFrame = frame + 1;
+
+        if (part == 1) {
+            stream.record = new StringBuilder(payload);
+            stream.parts = parts;
+            stream.orphan = false;
+        } else if (stream.record != null && parts == stream.parts && part == stream.nextPart) {
+            stream.record.append(payload);
+        } else {
+            // Continuation of a record whose first frames were lost; count the record once.
+            if (!stream.orphan) {
+                stream.orphan = true;
+                droppedRecords++;
+            }
+            stream.record = null;
+            return;
+        }
+        stream.nextPart = part + 1;
+        if (part == parts) {
+            String record = stream.record.toString();
+            stream.record = null;
+            emit(stream, record);
+        }
+    }
+
+    private void emit(Stream stream, String record) throws IOException {
+        boolean segment = record.startsWith("{\"segment\":");
+        if (segment) {
+            String fields = TraceMerger.segmentFields(record);
+            if (fields != null) {
+                stream.suffix = fields + "}";
+            }
+        } else {
+            events++;
+        }
+        if (dir != null) {
+            if (stream.file == null) {
+                stream.file = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(new File(dir, "analysis." + stream.pid + ".txt"), true),
+                        StandardCharsets.UTF_8), 1 << 16);
+            }
+            stream.file.write(record);
+            stream.file.write('\n');
+        } else if (!segment && record.endsWith("}")) {
+            shared.write(record, 0, record.length() - 1);
+            shared.write(stream.suffix);
+            shared.write('\n');
+        }
+    }
+
+    /** Reassembly state of one process. */
+    private static final class Stream {
+        final int pid;
+        long nextFrame;
+        String suffix;
+        StringBuilder record;
+        int parts;
+        int nextPart;
+        boolean orphan;
+        Writer file;
+
+        Stream(int pid) {
+            this.pid = pid;
+            this.suffix = ",\"pid\":" + pid + "}";
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.lian.trace;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Annotates merged events with the packet capture that ran alongside them.
+ *
+ * <p>Each event's wall time is derived from its segment's clock anchor plus an
+ * optional offset for the device/capture host clock skew. The event then gets
+ * "wallTimeMicros", and, when a packet follows it, "pcapFrame" (1-based frame
+ * number as shown by Wireshark) and "pcapDeltaMicros" (packet time minus event
+ * time) of the first packet at or after the event.
+ *
+ * <p>Only the classic pcap format is read, in either byte order and with
+ * microsecond or nanosecond timestamps. Convert pcapng captures first, e.g.
+ * {@code editcap -F pcap in.pcapng out.pcap}.
+ */
+final class PcapAligner implements TraceMerger.EventDecorator {
+
+    private static final int MAGIC_MICROS = 0xa1b2c3d4;
+    private static final int MAGIC_NANOS = 0xa1b23c4d;
+    private static final int GLOBAL_HEADER_REST = 20;
+
+    // Packet timestamps in microseconds, sorted, and the frame number of each.
+    private final long[] times;
+    private final int[] frames;
+    private final long offsetMicros;
+
+    private PcapAligner(long[] times, int[] frames, long offsetMicros) {
+        this.times = times;
+        this.frames = frames;
+        this.offsetMicros = offsetMicros;
+    }
+
+    int packets() {
+        return times.length;
+    }
+
+    static PcapAligner read(File file, long offsetMicros) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            int magic = in.readInt();
+            boolean swapped;
+            boolean nanos;
+            if (magic == MAGIC_MICROS || magic == MAGIC_NANOS) {
+                swapped = false;
+                nanos = magic == MAGIC_NANOS;
+            } else if (Integer.reverseBytes(magic) == MAGIC_MICROS || Integer.reverseBytes(magic) == MAGIC_NANOS) {
+                swapped = true;
+                nanos = Integer.reverseBytes(magic) == MAGIC_NANOS;
+            } else {
+                throw new IOException(file + ": not a classic pcap file (pcapng is not supported)");
+            }
+            in.skipBytes(GLOBAL_HEADER_REST);
+
+            long[] times = new long[1024];
+            int count = 0;
+            while (true) {
+                long seconds;
+                long fraction;
+                int capturedLength;
+                try {
+                    seconds = readInt(in, swapped) & 0xffffffffL;
+                    fraction = readInt(in, swapped) & 0xffffffffL;
+                    capturedLength = readInt(in, swapped);
+                    readInt(in, swapped); // original length
+                } catch (EOFException e) {
+                    break;
+                }
+                if (capturedLength < 0 || in.skipBytes(capturedLength) < capturedLength) {
+                    // Truncated last packet: keep its timestamp, the capture was cut while writing it.
+                    capturedLength = -1;
+                }
+                if (count == times.length) {
+                    times = Arrays.copyOf(times, count * 2);
+                }
+                times[count++] = seconds * 1000000 + (nanos ? fraction / 1000 : fraction);
+                if (capturedLength < 0) {
+                    break;
+                }
+            }
+            return sortByTime(Arrays.copyOf(times, count), offsetMicros);
+        }
+    }
+
+    /** Captures are nearly always in time order, but merged captures need not be. */
+    private static PcapAligner sortByTime(long[] times, long offsetMicros) {
+        Integer[] order = new Integer[times.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> times[a] != times[b] ? Long.compare(times[a], times[b]) : Integer.compare(a, b));
+        long[] sortedTimes = new long[times.length];
+        int[] frames = new int[times.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedTimes[i] = times[order[i]];
+            frames[i] = order[i] + 1;
+        }
+        return new PcapAligner(sortedTimes, frames, offsetMicros);
+    }
+
+    private static int readInt(DataInputStream in, boolean swapped) throws IOException {
+        int value = in.readInt();
+        return swapped ? Integer.reverseBytes(value) : value;
+    }
+
+    @Override
+    public void decorate(StringBuilder fields, long elapsedRealtimeNanos, long wallTimeMicros) {
+        if (wallTimeMicros < 0) {
+            return;
+        }
+        long time = wallTimeMicros + offsetMicros;
+        fields.append(",\"wallTimeMicros\":").append(time);
+        int index = firstAtOrAfter(time);
+        if (index < times.length) {
+            fields.append(",\"pcapFrame\":").append(frames[index]);
+            fields.append(",\"pcapDeltaMicros\":").append(times[index] - time);
+        }
+    }
+
+    private int firstAtOrAfter(long time) {
+        int low = 0;
+        int high = times.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,199 @@
+package com.lian.trace;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+
+/**
+ * Recovers the last events of a process from its tail journal
+ * (analysis.&lt;pid&gt;.tail, android.util.LogTailJournal).
+ *
+ * <p>The journal keeps a short summary of the most recent events and is
+ * written through a shared mapping, so it survives SIGKILL. Events in the
+ * journal whose seq is not in the process's segments were never written out.
+ * They are emitted as a text segment of their own, with "recovered":true, so
+ * "merge" can place them next to the rest of the trace.
+ */
+final class TailRecovery {
+
+    private static final int MAGIC = 0x4c41544c;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4096;
+    private static final int PROCESS_OFFSET = 40;
+    private static final int TYPES_OFFSET = 124;
+    private static final int PREVIEW_OFFSET = 24;
+    private static final int SEQ_END_OFFSET = 120;
+    private static final String SEQ_KEY = "\"seq\":";
+
+    private final ByteBuffer journal;
+    private final int slotCount;
+    private final int slotSize;
+    private final int pid;
+    private final long anchorElapsedNanos;
+    private final long anchorWallMillis;
+    private final String processName;
+    private final String[] types;
+    private long slots;
+    private long recovered;
+
+    private TailRecovery(ByteBuffer journal) throws IOException {
+        this.journal = journal;
+        if (journal.capacity() < HEADER_SIZE || journal.getInt(0) != MAGIC) {
+            throw new IOException("not a tail journal");
+        }
+        if (journal.getInt(4) != VERSION) {
+            throw new IOException("unsupported tail journal version " + journal.getInt(4));
+        }
+        slotCount = journal.getInt(8);
+        slotSize = journal.getInt(12);
+        if (slotCount <= 0 || slotSize < SEQ_END_OFFSET + 8
+                || HEADER_SIZE + (long) slotCount * slotSize > journal.capacity()) {
+            throw new IOException("truncated tail journal");
+        }
+        pid = journal.getInt(16);
+        anchorElapsedNanos = journal.getLong(24);
+        anchorWallMillis = journal.getLong(32);
+        processName = string(PROCESS_OFFSET + 2, journal.getShort(PROCESS_OFFSET));
+        types = string(TYPES_OFFSET + 4, journal.getInt(TYPES_OFFSET)).split("\n");
+    }
+
+    static TailRecovery read(File file) throws IOException {
+        ByteBuffer journal = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        journal.order(ByteOrder.LITTLE_ENDIAN);
+        return new TailRecovery(journal);
+    }
+
+    /** Valid slots found in the journal. */
+    long slots() {
+        return slots;
+    }
+
+    /** Journal events that were missing from the segments. */
+    long recovered() {
+        return recovered;
+    }
+
+    /**
+     * Writes the journal events whose seq does not occur in {@code segments}.
+     * Only segments of the same process run count, i.e. with the journal's pid
+     * and clock anchor; other files may be passed and are ignored.
+     */
+    void recover(List<File> segments, Writer out) throws IOException {
+        Set<Long> written = new HashSet<>();
+        for (File segment : segments) {
+            readSeqs(segment, written);
+        }
+        List<long[]> events = new ArrayList<>();
+        for (int i = 0; i < slotCount; i++) {
+            int slot = HEADER_SIZE + i * slotSize;
+            long seq = journal.getLong(slot);
+            // A slot is complete only if both copies of seq match its position.
+            if (seq <= 0 || journal.getLong(slot + SEQ_END_OFFSET) != seq || seq % slotCount != i) {
+                continue;
+            }
+            slots++;
+            if (!written.contains(seq)) {
+                events.add(new long[] { seq, slot });
+            }
+        }
+        events.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        JsonLineWriter writer = new JsonLineWriter();
+        writer.beginObject().key("segment").beginObject().key("pid").value(pid);
+        if (!processName.isEmpty()) {
+            writer.key("processName").value(processName);
+        }
+        writer.key("elapsedRealtimeNanos").value(anchorElapsedNanos)
+                .key("currentTimeMillis").value(anchorWallMillis)
+                .endObject().endObject();
+        out.write(writer.toString());
+        out.write('\n');
+        for (long[] event : events) {
+            out.write(event(writer.reset(), (int) event[1], event[0]).toString());
+            out.write('\n');
+            recovered++;
+        }
+    }
+
+    private JsonLineWriter event(JsonLineWriter writer, int slot, long seq) {
+        int type = journal.getShort(slot + 20);
+        int previewLength = journal.getShort(slot + 22);
+        writer.beginObject();
+        writer.key("dataType").value(type >= 0 && type < types.length ? types[type] : "UNKNOWN_" + type);
+        writer.key("elements").beginArray().endArray();
+        writer.key("argClassNames").beginArray().endArray();
+        writer.key("argValues").beginArray().endArray();
+        if (previewLength > 0) {
+            writer.key("preview").value(string(slot + PREVIEW_OFFSET,
+                    Math.min(previewLength, SEQ_END_OFFSET - PREVIEW_OFFSET)));
+        }
+        writer.key("elapsedRealtimeNanos").value(journal.getLong(slot + 8));
+        writer.key("tid").value(journal.getInt(slot + 16));
+        writer.key("seq").value(seq);
+        writer.key("recovered").value(true);
+        return writer.endObject();
+    }
+
+    /** Adds the seq of every event in a segment of this journal's process run. */
+    private void readSeqs(File file, Set<Long> written) throws IOException {
+        InputStream in = DeflateBlockInputStream.open(file);
+        BinaryTraceDecoder binary = null;
+        BufferedReader text = null;
+        if (DeflateBlockInputStream.formatName(file).endsWith(".bin")) {
+            binary = new BinaryTraceDecoder(in);
+        } else {
+            text = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        try {
+            boolean ours = false;
+            String line;
+            while ((line = binary != null ? binary.nextLine() : text.readLine()) != null) {
+                if (line.startsWith("{\"segment\":")) {
+                    ours = isOwnSegment(line);
+                    continue;
+                }
+                int key = line.lastIndexOf(SEQ_KEY);
+                if (!ours || key < 0) {
+                    continue;
+                }
+                int start = key + SEQ_KEY.length();
+                int end = start;
+                while (end < line.length() && Character.isDigit(line.charAt(end))) {
+                    end++;
+                }
+                if (end > start) {
+                    written.add(Long.parseLong(line.substring(start, end)));
+                }
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private boolean isOwnSegment(String segmentLine) {
+        Matcher segmentPid = TraceMerger.SEGMENT_PID.matcher(segmentLine);
+        Matcher elapsed = TraceMerger.SEGMENT_ELAPSED.matcher(segmentLine);
+        return segmentPid.find() && Integer.parseInt(segmentPid.group(1)) == pid
+                && elapsed.find() && Long.parseLong(elapsed.group(1)) == anchorElapsedNanos;
+    }
+
+    private String string(int offset, int length) {
+        byte[] bytes = new byte[Math.max(0, Math.min(length, journal.capacity() - offset))];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = journal.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,135 @@
+package com.lian.trace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+
+/**
+ * Receives trace streams sent by devices with saveType=3 (android.util.LogStream).
+ *
+ * <p>Every traced process opens its own connection, which carries the same
+ * records as an analysis.&lt;pid&gt;.bin segment. Events are decoded as they
+ * arrive and either appended to &lt;dir&gt;/analysis.&lt;pid&gt;.txt, which
+ * "merge" accepts afterwards, or written to a shared output with the segment's
+ * pid and processName appended, like "merge" does.
+ *
+ * <p>The device connects to 127.0.0.1 on its side, so forward the port first:
+ * {@code adb reverse tcp:7420 tcp:7420}.
+ */
+final class TraceCollector {
+
+    static final int DEFAULT_PORT = 7420;
+
+    private final File dir;
+    private final Writer shared;
+    private final AtomicInteger connections = new AtomicInteger();
+
+    /**
+     * @param dir    directory for per-process segments, or null to write every event to {@code shared}
+     * @param shared output for all events when {@code dir} is null
+     */
+    TraceCollector(File dir, Writer shared) {
+        this.dir = dir;
+        this.shared = shared;
+    }
+
+    void serve(int port) throws IOException {
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("cannot create " + dir);
+        }
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.err.println("listening on " + server.getLocalSocketAddress());
+            while (true) {
+                Socket socket = server.accept();
+                int id = connections.incrementAndGet();
+                Thread thread = new Thread(() -> receive(socket, id), "collect-" + id);
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+    }
+
+    private void receive(Socket socket, int id) {
+        String name = "connection " + id;
+        long events = 0;
+        Writer file = null;
+        try (InputStream in = new BufferedInputStream(socket.getInputStream(), 1 << 16)) {
+            BinaryTraceDecoder decoder = new BinaryTraceDecoder(in);
+            String suffix = "}";
+            String line;
+            while ((line = decoder.nextLine()) != null) {
+                if (line.startsWith("{\"segment\":")) {
+                    String fields = TraceMerger.segmentFields(line);
+                    if (fields != null) {
+                        suffix = fields + "}";
+                    }
+                    Matcher matcher = TraceMerger.SEGMENT_PID.matcher(line);
+                    String pid = matcher.find() ? matcher.group(1) : null;
+                    if (pid != null) {
+                        name = "pid " + pid;
+                    }
+                    System.err.println(name + ": connected");
+                    if (dir != null && file == null) {
+                        file = openSegment(pid != null ? pid : "connection" + id);
+                    }
+                } else {
+                    events++;
+                }
+                if (file != null) {
+                    file.write(line);
+                    file.write('\n');
+                } else if (dir == null && !line.startsWith("{\"segment\":")) {
+                    synchronized (shared) {
+                        shared.write(line, 0, line.length() - 1);
+                        shared.write(suffix);
+                        shared.write('\n');
+                    }
+                }
+                // Flush whenever the device has nothing more buffered, so consumers see events promptly.
+                if (in.available() == 0) {
+                    flush(file);
+                }
+            }
+            System.err.println(name + ": closed after " + events + " events"
+                    + (decoder.isTruncated() ? " (truncated tail ignored)" : ""));
+        } catch (IOException e) {
+            System.err.println(name + ": " + e + " after " + events + " events");
+        } finally {
+            try {
+                flush(file);
+                if (file != null) {
+                    file.close();
+                }
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private Writer openSegment(String pid) throws IOException {
+        File file = new File(dir, "analysis." + pid + ".txt");
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8),
+                1 << 16);
+    }
+
+    private void flush(Writer file) throws IOException {
+        if (file != null) {
+            file.flush();
+        } else if (dir == null) {
+            synchronized (shared) {
+                shared.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.lian.trace;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Merges per-process trace segments (analysis.&lt;pid&gt;.txt / .bin, or .dz compressed) into one
+ * stream ordered by each event's elapsedRealtimeNanos. Every merged event gets
+ * "pid" and "processName" from its segment header appended as its last fields.
+ *
+ * <p>Within one segment, events are almost but not strictly ordered: the
+ * device writer drains per-thread buffers in batches. Each input therefore
+ * keeps a bounded reorder window. Events that arrive later than the window
+ * allows are still written, and are counted as late.
+ */
+final class TraceMerger {
+
+    /** Adds fields to each merged event, e.g. pcap alignment. */
+    interface EventDecorator {
+        /**
+         * Appends extra fields, each starting with ','. {@code wallTimeMicros} is
+         * derived from the segment's clock anchor, or -1 if the segment had none.
+         */
+        void decorate(StringBuilder fields, long elapsedRealtimeNanos, long wallTimeMicros);
+    }
+
+    static final int DEFAULT_WINDOW = 4096;
+
+    private static final String TIME_KEY = "\"elapsedRealtimeNanos\":";
+    static final Pattern SEGMENT_PID = Pattern.compile("\"pid\":(\\d+)");
+    private static final Pattern SEGMENT_PROCESS = Pattern.compile("\"processName\":(\"(?:[^\"\\\\]|\\\\.)*\")");
+    static final Pattern SEGMENT_ELAPSED = Pattern.compile("\"elapsedRealtimeNanos\":(\\d+)");
+    private static final Pattern SEGMENT_WALL = Pattern.compile("\"currentTimeMillis\":(\\d+)");
+
+    private final int window;
+    private final EventDecorator decorator;
+    private long events;
+    private long late;
+    private long corrupt;
+
+    TraceMerger(int window, EventDecorator decorator) {
+        this.window = window;
+        this.decorator = decorator;
+    }
+
+    long events() {
+        return events;
+    }
+
+    /** Events that could not be placed in order within the reorder window. */
+    long late() {
+        return late;
+    }
+
+    /** Lines that were not complete events, e.g. interleaved writes from an older build. */
+    long corrupt() {
+        return corrupt;
+    }
+
+    /**
+     * Returns the ",\"pid\":N,\"processName\":..." fields that identify events of
+     * a segment, from its header line, or null if the header has no pid.
+     */
+    static String segmentFields(String segmentLine) {
+        Matcher pid = SEGMENT_PID.matcher(segmentLine);
+        if (!pid.find()) {
+            return null;
+        }
+        Matcher process = SEGMENT_PROCESS.matcher(segmentLine);
+        return ",\"pid\":" + pid.group(1) + (process.find() ? ",\"processName\":" + process.group(1) : "");
+    }
+
+    void merge(List<File> inputs, Writer out) throws IOException {
+        List<Source> sources = new ArrayList<>();
+        try {
+            for (File input : inputs) {
+                sources.add(new Source(input));
+            }
+            PriorityQueue<Source> heads = new PriorityQueue<>((a, b) -> Long.compare(a.peek().time, b.peek().time));
+            for (Source source : sources) {
+                if (source.fill()) {
+                    heads.add(source);
+                }
+            }
+            StringBuilder fields = new StringBuilder();
+            long lastTime = Long.MIN_VALUE;
+            while (!heads.isEmpty()) {
+                Source source = heads.poll();
+                Event event = source.poll();
+                if (event.time < lastTime) {
+                    late++;
+                } else {
+                    lastTime = event.time;
+                }
+                out.write(event.body);
+                if (decorator != null) {
+                    fields.setLength(0);
+                    decorator.decorate(fields, event.time, event.wallTimeMicros);
+                    out.write(fields.toString());
+                }
+                out.write(event.suffix);
+                out.write('\n');
+                events++;
+                if (source.fill()) {
+                    heads.add(source);
+                }
+            }
+        } finally {
+            for (Source source : sources) {
+                source.close();
+            }
+        }
+    }
+
+    private static final class Event {
+        final long time;
+        final long order;
+        final long wallTimeMicros;
+        // The event line without its closing brace, and the segment fields that close it.
+        final String body;
+        final String suffix;
+
+        Event(long time, long order, long wallTimeMicros, String body, String suffix) {
+            this.time = time;
+            this.order = order;
+            this.wallTimeMicros = wallTimeMicros;
+            this.body = body;
+            this.suffix = suffix;
+        }
+    }
+
+    /** One segment file with its own reorder window. */
+    private final class Source implements Closeable {
+        private final Closeable stream;
+        private final BufferedReader text;
+        private final BinaryTraceDecoder binary;
+        private final PriorityQueue<Event> pending = new PriorityQueue<>((a, b) -> a.time != b.time
+                ? Long.compare(a.time, b.time) : Long.compare(a.order, b.order));
+        private String suffix = "}";
+        private long anchorElapsedNanos;
+        private long anchorWallMillis = -1;
+        private long order;
+        private boolean eof;
+
+        Source(File file) throws IOException {
+            InputStream in = DeflateBlockInputStream.open(file);
+            stream = in;
+            if (DeflateBlockInputStream.formatName(file).endsWith(".bin")) {
+                binary = new BinaryTraceDecoder(in);
+                text = null;
+            } else {
+                text = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+                binary = null;
+            }
+        }
+
+        /** Tops up the reorder window; returns false once the source is exhausted. */
+        boolean fill() throws IOException {
+            while (!eof && pending.size() < window) {
+                String line = binary != null ? binary.nextLine() : text.readLine();
+                if (line == null) {
+                    eof = true;
+                } else {
+                    accept(line);
+                }
+            }
+            return !pending.isEmpty();
+        }
+
+        Event peek() {
+            return pending.peek();
+        }
+
+        Event poll() {
+            return pending.poll();
+        }
+
+        private void accept(String line) {
+            if (line.startsWith("{\"segment\":")) {
+                String fields = segmentFields(line);
+                if (fields != null) {
+                    suffix = fields + "}";
+                }
+                Matcher elapsed = SEGMENT_ELAPSED.matcher(line);
+                Matcher wall = SEGMENT_WALL.matcher(line);
+                if (elapsed.find() && wall.find()) {
+                    anchorElapsedNanos = Long.parseLong(elapsed.group(1));
+                    anchorWallMillis = Long.parseLong(wall.group(1));
+                }
+                return;
+            }
+            if (line.startsWith("\0")) {
+                // Zero-filled, preallocated end of a fileMode=mmap segment whose process was killed.
+                eof = true;
+                return;
+            }
+            int key = line.lastIndexOf(TIME_KEY);
+            if (!line.startsWith("{") || !line.endsWith("}") || key < 0) {
+                corrupt++;
+                return;
+            }
+            int start = key + TIME_KEY.length();
+            int end = start;
+            while (end < line.length() && Character.isDigit(line.charAt(end))) {
+                end++;
+            }
+            long time;
+            try {
+                time = Long.parseLong(line.substring(start, end));
+            } catch (NumberFormatException e) {
+                corrupt++;
+                return;
+            }
+            long wallTimeMicros = anchorWallMillis < 0 ? -1
+                    : anchorWallMillis * 1000 + (time - anchorElapsedNanos) / 1000;
+            pending.add(new Event(time, order++, wallTimeMicros, line.substring(0, line.length() - 1), suffix));
+        }
+
+        @Override
+        public void close() throws IOException {
+            stream.close();
+        }
+    }
+}
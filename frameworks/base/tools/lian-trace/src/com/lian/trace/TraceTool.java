@@ -0,0 +1,236 @@
+package com.lian.trace;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Command line entry point for the host-side trace tools.
+ *
+ * <pre>
+ * java -jar lian-trace.jar decode analysis.1234.bin[.dz] [analysis.1234.txt]
+ * java -jar lian-trace.jar merge [--window N] merged.txt &lt;segment files or directories&gt;...
+ * java -jar lian-trace.jar collect [--port N] &lt;directory|-&gt;
+ * adb logcat -v raw -s LianLog...:D | java -jar lian-trace.jar logcat - &lt;directory|-&gt;
+ * java -jar lian-trace.jar pcap-align [--window N] [--offset-ms M] capture.pcap aligned.txt &lt;segments&gt;...
+ * java -jar lian-trace.jar tail analysis.1234.tail analysis.1234.tail.txt &lt;segment files or directories&gt;...
+ * </pre>
+ */
+public final class TraceTool {
+
+    private TraceTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            usage();
+            return;
+        }
+        switch (args[0]) {
+            case "decode":
+                if (args.length < 2) {
+                    usage();
+                    return;
+                }
+                decode(args[1], args.length > 2 ? args[2] : null);
+                break;
+            case "merge":
+                merge(Arrays.copyOfRange(args, 1, args.length), false);
+                break;
+            case "collect":
+                collect(Arrays.copyOfRange(args, 1, args.length));
+                break;
+            case "logcat":
+                if (args.length != 3) {
+                    usage();
+                    return;
+                }
+                logcat(args[1], args[2]);
+                break;
+            case "pcap-align":
+                merge(Arrays.copyOfRange(args, 1, args.length), true);
+                break;
+            case "tail":
+                if (args.length < 3) {
+                    usage();
+                    return;
+                }
+                tail(args[1], args[2], Arrays.copyOfRange(args, 3, args.length));
+                break;
+            default:
+                usage();
+                break;
+        }
+    }
+
+    private static void decode(String input, String output) throws IOException {
+        File file = new File(input);
+        try (InputStream in = DeflateBlockInputStream.open(file);
+             Writer out = openWriter(output)) {
+            long events;
+            boolean truncated;
+            if (DeflateBlockInputStream.formatName(file).endsWith(".txt")) {
+                // A compressed JSON segment only needs inflating.
+                events = copyLines(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16), out);
+                truncated = false;
+            } else {
+                BinaryTraceDecoder decoder = new BinaryTraceDecoder(in);
+                events = decoder.decode(out);
+                truncated = decoder.isTruncated();
+            }
+            out.flush();
+            truncated |= in instanceof DeflateBlockInputStream && ((DeflateBlockInputStream) in).isTruncated();
+            System.err.println(input + ": " + events + " events" + (truncated ? " (truncated tail ignored)" : ""));
+        }
+    }
+
+    private static long copyLines(BufferedReader in, Writer out) throws IOException {
+        long events = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith("\0")) {
+                // Zero-filled, preallocated end of a fileMode=mmap segment.
+                break;
+            }
+            out.write(line);
+            out.write('\n');
+            if (!line.startsWith("{\"segment\":")) {
+                events++;
+            }
+        }
+        return events;
+    }
+
+    private static void merge(String[] args, boolean withPcap) throws IOException {
+        int window = TraceMerger.DEFAULT_WINDOW;
+        long offsetMicros = 0;
+        int i = 0;
+        while (args.length - i > 1 && args[i].startsWith("--")) {
+            if (args[i].equals("--window")) {
+                window = Integer.parseInt(args[i + 1]);
+            } else if (withPcap && args[i].equals("--offset-ms")) {
+                offsetMicros = (long) (Double.parseDouble(args[i + 1]) * 1000);
+            } else {
+                usage();
+                return;
+            }
+            i += 2;
+        }
+        if (args.length - i < (withPcap ? 3 : 2)) {
+            usage();
+            return;
+        }
+        PcapAligner aligner = null;
+        if (withPcap) {
+            aligner = PcapAligner.read(new File(args[i++]), offsetMicros);
+            System.err.println(aligner.packets() + " packets");
+        }
+        String output = args[i++];
+        List<File> inputs = new ArrayList<>();
+        for (; i < args.length; i++) {
+            addSegments(new File(args[i]), inputs);
+        }
+        TraceMerger merger = new TraceMerger(window, aligner);
+        try (Writer out = openWriter(output.equals("-") ? null : output)) {
+            merger.merge(inputs, out);
+            out.flush();
+        }
+        System.err.println(inputs.size() + " segments: " + merger.events() + " events"
+                + (merger.late() > 0 ? ", " + merger.late() + " out of order (raise --window)" : "")
+                + (merger.corrupt() > 0 ? ", " + merger.corrupt() + " corrupt lines skipped" : ""));
+    }
+
+    private static void collect(String[] args) throws IOException {
+        int port = TraceCollector.DEFAULT_PORT;
+        int i = 0;
+        if (args.length > 1 && args[0].equals("--port")) {
+            port = Integer.parseInt(args[1]);
+            i = 2;
+        }
+        if (args.length - i != 1) {
+            usage();
+            return;
+        }
+        String output = args[i];
+        if (output.equals("-")) {
+            new TraceCollector(null, openWriter(null)).serve(port);
+        } else {
+            new TraceCollector(new File(output), null).serve(port);
+        }
+    }
+
+    private static void logcat(String input, String output) throws IOException {
+        InputStream in = input.equals("-") ? System.in : new FileInputStream(input);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+            LogcatReassembler reassembler = output.equals("-")
+                    ? new LogcatReassembler(null, openWriter(null))
+                    : new LogcatReassembler(new File(output), null);
+            reassembler.read(reader);
+            System.err.println(reassembler.events() + " events"
+                    + (reassembler.lostFrames() > 0 ? ", " + reassembler.lostFrames() + " frames lost" : "")
+                    + (reassembler.droppedRecords() > 0 ? ", " + reassembler.droppedRecords() + " incomplete records dropped" : "")
+                    + (reassembler.restarts() > 0 ? ", " + reassembler.restarts() + " frame sequence restarts" : ""));
+        }
+    }
+
+    private static void tail(String journal, String output, String[] segments) throws IOException {
+        TailRecovery recovery = TailRecovery.read(new File(journal));
+        List<File> inputs = new ArrayList<>();
+        for (String segment : segments) {
+            addSegments(new File(segment), inputs);
+        }
+        try (Writer out = openWriter(output.equals("-") ? null : output)) {
+            recovery.recover(inputs, out);
+            out.flush();
+        }
+        System.err.println(journal + ": " + recovery.slots() + " journal events, "
+                + recovery.recovered() + " missing from " + inputs.size() + " segments");
+    }
+
+    /** Expands a directory to the segment files it contains. */
+    private static void addSegments(File file, List<File> inputs) {
+        if (!file.isDirectory()) {
+            inputs.add(file);
+            return;
+        }
+        File[] children = file.listFiles();
+        if (children == null) {
+            return;
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            String name = child.getName();
+            String format = DeflateBlockInputStream.formatName(child);
+            if (name.startsWith("analysis.") && (format.endsWith(".txt") || format.endsWith(".bin"))) {
+                inputs.add(child);
+            }
+        }
+    }
+
+    static Writer openWriter(String output) throws IOException {
+        if (output == null) {
+            return new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        }
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8));
+    }
+
+    private static void usage() {
+        System.err.println("usage: lian-trace decode <analysis.bin|analysis.bin.dz|analysis.txt.dz> [output.txt]");
+        System.err.println("       lian-trace merge [--window N] <output.txt|-> <segment|dir>...");
+        System.err.println("       lian-trace collect [--port N] <directory|->");
+        System.err.println("       lian-trace logcat <logcat.txt|-> <directory|->");
+        System.err.println("       lian-trace pcap-align [--window N] [--offset-ms M] <capture.pcap> <output.txt|-> <segment|dir>...");
+        System.err.println("       lian-trace tail <analysis.tail> <output.txt|-> [segment|dir]...");
+    }
+}
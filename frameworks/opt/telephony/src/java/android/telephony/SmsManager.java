@@ -31,6 +31,7 @@ import android.text.TextUtils;
 import android.util.ArrayMap;
 import android.util.Log;
 import android.util.LogData;
+import android.util.LogSite;
 import android.util.LogUtil;
 
 import com.android.internal.telephony.IMms;
@@ -58,6 +59,19 @@ import java.util.Map;
  * and higher, see {@link android.provider.Telephony}.
  */
 public final class SmsManager {
+    private static final LogSite LOG_SITE_SM_SEND_TEXT_MESSAGE = new LogSite(LogData.LOG_DATA_TYPE.SM_SEND_TEXT_MESSAGE,
+            new Class[]{ String.class, String.class, String.class, PendingIntent.class, PendingIntent.class },
+            new String[]{ "destinationAddress", "scAddress", "text", "sentIntent", "deliveryIntent" },
+            null);
+    private static final LogSite LOG_SITE_SM_SEND_MULTIPART_TEXT_MESSAGE = new LogSite(LogData.LOG_DATA_TYPE.SM_SEND_MULTIPART_TEXT_MESSAGE,
+            new Class[]{ String.class, String.class, ArrayList.class, ArrayList.class, ArrayList.class, boolean.class },
+            new String[]{ "destinationAddress", "scAddress", "parts", "sentIntents", "deliveryIntents", "persistMessageForCarrierApp" },
+            null);
+    private static final LogSite LOG_SITE_SM_SEND_DATA_MESSAGE = new LogSite(LogData.LOG_DATA_TYPE.SM_SEND_DATA_MESSAGE,
+            new Class[]{ String.class, String.class, short.class, byte[].class, PendingIntent.class, PendingIntent.class },
+            new String[]{ "destinationPort", "scAddress", "destinationPort", "data", "sentIntent", "deliveryIntent" },
+            null);
+
     private static final String TAG = "SmsManager";
     /**
      * A psuedo-subId that represents the default subId at any given time. The actual subId it
@@ -307,11 +321,11 @@ public final class SmsManager {
     private void sendTextMessageInternal(String destinationAddress, String scAddress,
             String text, PendingIntent sentIntent, PendingIntent deliveryIntent,
             boolean persistMessageForCarrierApp) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SM_SEND_TEXT_MESSAGE,
-                new Class[]{ String.class, String.class, String.class, PendingIntent.class, PendingIntent.class },
-                new Object[]{ destinationAddress, scAddress, text, sentIntent, deliveryIntent },
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SM_SEND_TEXT_MESSAGE)) {
+            LogUtil.MyLogB(LOG_SITE_SM_SEND_TEXT_MESSAGE,
+                    new Object[]{ destinationAddress, scAddress, text, sentIntent, deliveryIntent },
+                    null);
+        }
 
         if (TextUtils.isEmpty(destinationAddress)) {
             throw new IllegalArgumentException("Invalid destinationAddress");
@@ -482,11 +496,11 @@ public final class SmsManager {
             ArrayList<PendingIntent> sentIntents, ArrayList<PendingIntent> deliveryIntents,
             boolean persistMessageForCarrierApp) {
 
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SM_SEND_MULTIPART_TEXT_MESSAGE,
-                new Class[]{ String.class, String.class, ArrayList.class, ArrayList.class, ArrayList.class, boolean.class },
-                new Object[]{ destinationAddress, scAddress, parts, sentIntents, deliveryIntents, persistMessageForCarrierApp },
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SM_SEND_MULTIPART_TEXT_MESSAGE)) {
+            LogUtil.MyLogB(LOG_SITE_SM_SEND_MULTIPART_TEXT_MESSAGE,
+                    new Object[]{ destinationAddress, scAddress, parts, sentIntents, deliveryIntents, persistMessageForCarrierApp },
+                    null);
+        }
 
         if (TextUtils.isEmpty(destinationAddress)) {
             throw new IllegalArgumentException("Invalid destinationAddress");
@@ -567,11 +581,11 @@ public final class SmsManager {
     public void sendDataMessage(
             String destinationAddress, String scAddress, short destinationPort,
             byte[] data, PendingIntent sentIntent, PendingIntent deliveryIntent) {
-        LogUtil.MyLogB(LogData.LOG_DATA_TYPE.SM_SEND_DATA_MESSAGE,
-                new Class[]{ String.class, String.class, short.class, byte[].class, PendingIntent.class, PendingIntent.class },
-                new Object[]{ destinationPort, scAddress, destinationPort, data, sentIntent, deliveryIntent },
-                null,
-                null);
+        if (LogUtil.isEnabled(LogData.LOG_DATA_TYPE.SM_SEND_DATA_MESSAGE)) {
+            LogUtil.MyLogB(LOG_SITE_SM_SEND_DATA_MESSAGE,
+                    new Object[]{ destinationPort, scAddress, destinationPort, data, sentIntent, deliveryIntent },
+                    null);
+        }
 
         if (TextUtils.isEmpty(destinationAddress)) {
             throw new IllegalArgumentException("Invalid destinationAddress");
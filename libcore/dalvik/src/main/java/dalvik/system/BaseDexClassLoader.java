@@ -17,18 +17,23 @@
 package dalvik.system;
 
 import java.io.File;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.LogSite;
+import java.util.LogUtil;
 
 /**
  * Base class for common functionality between various dex-based
  * {@link ClassLoader} implementations.
  */
 public class BaseDexClassLoader extends ClassLoader {
+    private static final LogSite LOG_SITE_BDCL_FIND_LIBRARY = new LogSite(LogUtil.BDCL_FIND_LIBRARY,
+            new Class[]{ String.class },
+            new String[]{ "name" },
+            String.class);
+
     private final DexPathList pathList;
 
     /**
@@ -85,13 +90,11 @@ public class BaseDexClassLoader extends ClassLoader {
     public String findLibrary(String name) {
 
         String result = pathList.findLibrary(name);
-        MyReflectLog(
-                new Class[]{ String.class},
-                new Object[]{ name },
-                String.class,
-                result,
-                "BDCL_FIND_LIBRARY"
-        );
+        if (LogUtil.isEnabled(LogUtil.BDCL_FIND_LIBRARY)) {
+            LogUtil.MyReflectLog(LOG_SITE_BDCL_FIND_LIBRARY,
+                    new Object[]{ name },
+                    result);
+        }
         return result;
     }
 
@@ -156,18 +159,4 @@ public class BaseDexClassLoader extends ClassLoader {
         return getClass().getName() + "[" + pathList + "]";
     }
 
-    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String typeName) {
-        try {
-            Class<?> logDataTypeClass = Class.forName("android.util.LogData$LOG_DATA_TYPE");
-            Field runtimeExecField = logDataTypeClass.getField(typeName);
-
-            Class<?> logUtilClass = Class.forName("android.util.LogUtil");
-            Method method = logUtilClass.getMethod("MyLogB", logDataTypeClass, Class[].class, Object[].class, Class.class, Object.class);
-
-            Object runtimeExec = runtimeExecField.get(null);
-            method.invoke(null, runtimeExec, argClasses, argValues, returnClass, returnValue);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
 }
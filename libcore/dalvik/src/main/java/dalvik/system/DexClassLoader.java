@@ -17,8 +17,8 @@
 package dalvik.system;
 
 import java.io.File;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
+import java.util.LogSite;
+import java.util.LogUtil;
 
 /**
  * A class loader that loads classes from {@code .jar} and {@code .apk} files
@@ -36,6 +36,11 @@ import java.lang.reflect.Method;
  * application from code injection attacks.
  */
 public class DexClassLoader extends BaseDexClassLoader {
+    private static final LogSite LOG_SITE_DCL_INIT = new LogSite(LogUtil.DCL_INIT,
+            new Class[]{ String.class, String.class, String.class, ClassLoader.class },
+            new String[]{ "dexPath", "optimizedDirectory", "librarySearchPath", "parent" },
+            null);
+
     /**
      * Creates a {@code DexClassLoader} that finds interpreted and native
      * code.  Interpreted classes are found in a set of DEX files contained
@@ -58,27 +63,11 @@ public class DexClassLoader extends BaseDexClassLoader {
             String librarySearchPath, ClassLoader parent) {
         super(dexPath, new File(optimizedDirectory), librarySearchPath, parent);
 
-        MyReflectLog(
-                new Class[]{ String.class, String.class, String.class, ClassLoader.class},
-                new Object[]{ dexPath, optimizedDirectory, librarySearchPath, parent },
-                null,
-                null,
-                "DCL_INIT"
-        );
-    }
-
-    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String typeName) {
-        try {
-            Class<?> logDataTypeClass = Class.forName("android.util.LogData$LOG_DATA_TYPE");
-            Field runtimeExecField = logDataTypeClass.getField(typeName);
-
-            Class<?> logUtilClass = Class.forName("android.util.LogUtil");
-            Method method = logUtilClass.getMethod("MyLogB", logDataTypeClass, Class[].class, Object[].class, Class.class, Object.class);
-
-            Object runtimeExec = runtimeExecField.get(null);
-            method.invoke(null, runtimeExec, argClasses, argValues, returnClass, returnValue);
-        } catch (Exception e) {
-            e.printStackTrace();
+        if (LogUtil.isEnabled(LogUtil.DCL_INIT)) {
+            LogUtil.MyReflectLog(LOG_SITE_DCL_INIT,
+                    new Object[]{ dexPath, optimizedDirectory, librarySearchPath, parent },
+                    null);
         }
     }
+
 }
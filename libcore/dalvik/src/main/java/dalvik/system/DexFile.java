@@ -21,11 +21,11 @@ import android.system.StructStat;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.LogSite;
+import java.util.LogUtil;
 import libcore.io.Libcore;
 
 /**
@@ -36,6 +36,23 @@ import libcore.io.Libcore;
  * read-only by the VM.
  */
 public final class DexFile {
+    private static final LogSite LOG_SITE_DF_INIT = new LogSite(LogUtil.DF_INIT,
+            new Class[]{ String.class, ClassLoader.class, DexPathList.Element[].class },
+            new String[]{ "fileName", "loader", "elements" },
+            null);
+    private static final LogSite LOG_SITE_DF_LOAD_DEX = new LogSite(LogUtil.DF_LOAD_DEX,
+            new Class[]{ String.class, String.class, int.class, ClassLoader.class, DexPathList.Element[].class },
+            new String[]{ "sourcePathName", "outputPathName", "flags", "loader", "elements" },
+            DexFile.class);
+    private static final LogSite LOG_SITE_DF_LOAD_CLASS = new LogSite(LogUtil.DF_LOAD_CLASS,
+            new Class[]{ String.class, ClassLoader.class },
+            new String[]{ "name", "loader" },
+            Class.class);
+    private static final LogSite LOG_SITE_DF_OPEN_DEX_FILE = new LogSite(LogUtil.DF_OPEN_DEX_FILE,
+            new Class[]{ String.class, String.class, int.class, ClassLoader.class, DexPathList.Element[].class },
+            new String[]{ "sourceName", "outputName", "flags", "loader", "elements" },
+            Object.class);
+
   /**
    * If close is called, mCookie becomes null but the internal cookie is preserved if the close
    * failed so that we can free resources in the finalizer.
@@ -116,13 +133,11 @@ public final class DexFile {
         mFileName = fileName;
         //System.out.println("DEX FILE cookie is " + mCookie + " fileName=" + fileName);
 
-        MyReflectLog(
-                new Class[]{ String.class, ClassLoader.class, DexPathList.Element[].class},
-                new Object[]{ fileName, loader, elements },
-                null,
-                null,
-                "DF_INIT"
-        );
+        if (LogUtil.isEnabled(LogUtil.DF_INIT)) {
+            LogUtil.MyReflectLog(LOG_SITE_DF_INIT,
+                    new Object[]{ fileName, loader, elements },
+                    null);
+        }
     }
 
     /**
@@ -226,13 +241,11 @@ public final class DexFile {
          * decided to open it multiple times.  In practice this may not
          * be a real issue.
          */
-        MyReflectLog(
-                new Class[]{ String.class, String.class, int.class, ClassLoader.class, DexPathList.Element[].class},
-                new Object[]{ sourcePathName, outputPathName, flags, loader, elements },
-                DexFile.class,
-                "pass",
-                "DF_LOAD_DEX"
-        );
+        if (LogUtil.isEnabled(LogUtil.DF_LOAD_DEX)) {
+            LogUtil.MyReflectLog(LOG_SITE_DF_LOAD_DEX,
+                    new Object[]{ sourcePathName, outputPathName, flags, loader, elements },
+                    "pass");
+        }
         return new DexFile(sourcePathName, outputPathName, flags, loader, elements);
     }
 
@@ -291,13 +304,11 @@ public final class DexFile {
      *         if the class cannot be loaded
      */
     public Class loadClass(String name, ClassLoader loader) {
-        MyReflectLog(
-                new Class[]{ String.class, ClassLoader.class},
-                new Object[]{ name, loader },
-                Class.class,
-                "pass",
-                "DF_LOAD_CLASS"
-        );
+        if (LogUtil.isEnabled(LogUtil.DF_LOAD_CLASS)) {
+            LogUtil.MyReflectLog(LOG_SITE_DF_LOAD_CLASS,
+                    new Object[]{ name, loader },
+                    "pass");
+        }
         String slashName = name.replace('.', '/');
         return loadClassBinaryName(slashName, loader, null);
     }
@@ -388,13 +399,11 @@ public final class DexFile {
     private static Object openDexFile(String sourceName, String outputName, int flags,
             ClassLoader loader, DexPathList.Element[] elements) throws IOException {
         // Use absolute paths to enable the use of relative paths when testing on host.
-        MyReflectLog(
-                new Class[]{ String.class, String.class, int.class, ClassLoader.class, DexPathList.Element[].class},
-                new Object[]{ sourceName, outputName, flags, loader, elements },
-                Object.class,
-                "pass",
-                "DF_OPEN_DEX_FILE"
-        );
+        if (LogUtil.isEnabled(LogUtil.DF_OPEN_DEX_FILE)) {
+            LogUtil.MyReflectLog(LOG_SITE_DF_OPEN_DEX_FILE,
+                    new Object[]{ sourceName, outputName, flags, loader, elements },
+                    "pass");
+        }
         return openDexFileNative(new File(sourceName).getAbsolutePath(),
                                  (outputName == null)
                                      ? null
@@ -541,18 +550,4 @@ public final class DexFile {
     public static native String getDexFileOutputPath(String fileName, String instructionSet)
         throws FileNotFoundException;
 
-    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String typeName) {
-        try {
-            Class<?> logDataTypeClass = Class.forName("android.util.LogData$LOG_DATA_TYPE");
-            Field runtimeExecField = logDataTypeClass.getField(typeName);
-
-            Class<?> logUtilClass = Class.forName("android.util.LogUtil");
-            Method method = logUtilClass.getMethod("MyLogB", logDataTypeClass, Class[].class, Object[].class, Class.class, Object.class);
-
-            Object runtimeExec = runtimeExecField.get(null);
-            method.invoke(null, runtimeExec, argClasses, argValues, returnClass, returnValue);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
 }
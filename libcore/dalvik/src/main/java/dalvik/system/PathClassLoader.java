@@ -16,8 +16,8 @@
 
 package dalvik.system;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
+import java.util.LogSite;
+import java.util.LogUtil;
 
 /**
  * Provides a simple {@link ClassLoader} implementation that operates on a list
@@ -26,6 +26,15 @@ import java.lang.reflect.Method;
  * loader and for its application class loader(s).
  */
 public class PathClassLoader extends BaseDexClassLoader {
+    private static final LogSite LOG_SITE_PCL_INIT = new LogSite(LogUtil.PCL_INIT,
+            new Class[]{ String.class, ClassLoader.class },
+            new String[]{ "dexPath", "parent" },
+            null);
+    private static final LogSite LOG_SITE_PCL_INIT_2 = new LogSite(LogUtil.PCL_INIT,
+            new Class[]{ String.class, String.class, ClassLoader.class },
+            new String[]{ "dexPath", "librarySearchPath", "parent" },
+            null);
+
     /**
      * Creates a {@code PathClassLoader} that operates on a given list of files
      * and directories. This method is equivalent to calling
@@ -40,13 +49,11 @@ public class PathClassLoader extends BaseDexClassLoader {
     public PathClassLoader(String dexPath, ClassLoader parent) {
         super(dexPath, null, null, parent);
 
-        MyReflectLog(
-                new Class[]{ String.class, ClassLoader.class},
-                new Object[]{ dexPath, parent },
-                null,
-                null,
-                "PCL_INIT"
-        );
+        if (LogUtil.isEnabled(LogUtil.PCL_INIT)) {
+            LogUtil.MyReflectLog(LOG_SITE_PCL_INIT,
+                    new Object[]{ dexPath, parent },
+                    null);
+        }
     }
 
     /**
@@ -74,27 +81,11 @@ public class PathClassLoader extends BaseDexClassLoader {
     public PathClassLoader(String dexPath, String librarySearchPath, ClassLoader parent) {
         super(dexPath, null, librarySearchPath, parent);
 
-        MyReflectLog(
-                new Class[]{ String.class, String.class, ClassLoader.class},
-                new Object[]{ dexPath, librarySearchPath, parent },
-                null,
-                null,
-                "PCL_INIT"
-        );
-    }
-
-    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String typeName) {
-        try {
-            Class<?> logDataTypeClass = Class.forName("android.util.LogData$LOG_DATA_TYPE");
-            Field runtimeExecField = logDataTypeClass.getField(typeName);
-
-            Class<?> logUtilClass = Class.forName("android.util.LogUtil");
-            Method method = logUtilClass.getMethod("MyLogB", logDataTypeClass, Class[].class, Object[].class, Class.class, Object.class);
-
-            Object runtimeExec = runtimeExecField.get(null);
-            method.invoke(null, runtimeExec, argClasses, argValues, returnClass, returnValue);
-        } catch (Exception e) {
-            e.printStackTrace();
+        if (LogUtil.isEnabled(LogUtil.PCL_INIT)) {
+            LogUtil.MyReflectLog(LOG_SITE_PCL_INIT_2,
+                    new Object[]{ dexPath, librarySearchPath, parent },
+                    null);
         }
     }
+
 }
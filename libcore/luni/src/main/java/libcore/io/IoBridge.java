@@ -26,8 +26,6 @@ import android.util.MutableInt;
 import java.io.FileDescriptor;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.net.BindException;
 import java.net.ConnectException;
 import java.net.DatagramPacket;
@@ -44,6 +42,8 @@ import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.LogSite;
+import java.util.LogUtil;
 import java.util.concurrent.TimeUnit;
 
 import static android.system.OsConstants.*;
@@ -52,6 +52,11 @@ import static android.system.OsConstants.*;
  * Implements java.io/java.net/java.nio semantics in terms of the underlying POSIX system calls.
  */
 public final class IoBridge {
+    private static final LogSite LOG_SITE_IB_OPEN = new LogSite(LogUtil.IB_OPEN,
+            new Class[]{ String.class, int.class },
+            new String[]{ "path", "flags" },
+            FileDescriptor.class);
+
 
     private IoBridge() {
     }
@@ -436,13 +441,11 @@ public final class IoBridge {
      * have an Android-specific hack to alter the default permissions.
      */
     public static FileDescriptor open(String path, int flags) throws FileNotFoundException {
-        MyReflectLog(
-                new Class[]{ String.class, int.class },
-                new Object[]{ path, flags },
-                FileDescriptor.class,
-                "pass",
-                "IB_OPEN"
-        );
+        if (LogUtil.isEnabled(LogUtil.IB_OPEN)) {
+            LogUtil.MyReflectLog(LOG_SITE_IB_OPEN,
+                    new Object[]{ path, flags },
+                    "pass");
+        }
         FileDescriptor fd = null;
         try {
             // On Android, we don't want default permissions to allow global access.
@@ -652,18 +655,4 @@ public final class IoBridge {
         }
     }
 
-    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String typeName) {
-        try {
-            Class<?> logDataTypeClass = Class.forName("android.util.LogData$LOG_DATA_TYPE");
-            Field runtimeExecField = logDataTypeClass.getField(typeName);
-
-            Class<?> logUtilClass = Class.forName("android.util.LogUtil");
-            Method method = logUtilClass.getMethod("MyLogB", logDataTypeClass, Class[].class, Object[].class, Class.class, Object.class);
-
-            Object runtimeExec = runtimeExecField.get(null);
-            method.invoke(null, runtimeExec, argClasses, argValues, returnClass, returnValue);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
 }
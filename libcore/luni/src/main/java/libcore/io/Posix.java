@@ -34,16 +34,37 @@ import android.util.MutableInt;
 import android.util.MutableLong;
 import java.io.FileDescriptor;
 import java.io.InterruptedIOException;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.nio.ByteBuffer;
 import java.nio.NioUtils;
+import java.util.LogSite;
+import java.util.LogUtil;
 
 public final class Posix implements Os {
+    private static final LogSite LOG_SITE_P_RECVFROM = new LogSite(LogUtil.P_RECVFROM,
+            new Class[]{ FileDescriptor.class, ByteBuffer.class, int.class, InetSocketAddress.class },
+            new String[]{ "fd", "buffer", "flags", "srcAddress" },
+            int.class);
+    private static final LogSite LOG_SITE_P_RECVFROM_2 = new LogSite(LogUtil.P_RECVFROM,
+            new Class[]{ FileDescriptor.class, byte[].class, int.class, int.class, int.class, InetSocketAddress.class },
+            new String[]{ "fd", "bytes", "byteOffset", "byteCount", "flags", "srcAddress" },
+            int.class);
+    private static final LogSite LOG_SITE_P_SENDTO = new LogSite(LogUtil.P_SENDTO,
+            new Class[]{ FileDescriptor.class, ByteBuffer.class, int.class, InetAddress.class, int.class },
+            new String[]{ "fd", "buffer", "flags", "inetAddress", "port" },
+            int.class);
+    private static final LogSite LOG_SITE_P_SENDTO_2 = new LogSite(LogUtil.P_SENDTO,
+            new Class[]{ FileDescriptor.class, byte[].class, int.class, int.class, int.class, InetAddress.class, int.class },
+            new String[]{ "fd", "bytes", "byteOffset", "byteCount", "flags", "inetAddress", "port" },
+            int.class);
+    private static final LogSite LOG_SITE_P_SENDTO_3 = new LogSite(LogUtil.P_SENDTO,
+            new Class[]{ FileDescriptor.class, byte[].class, int.class, int.class, int.class, SocketAddress.class },
+            new String[]{ "fd", "bytes", "byteOffset", "byteCount", "flags", "address" },
+            int.class);
+
     Posix() { }
 
     public native FileDescriptor accept(FileDescriptor fd, SocketAddress peerAddress) throws ErrnoException, SocketException;
@@ -186,26 +207,22 @@ public final class Posix implements Os {
 
         maybeUpdateBufferPosition(buffer, position, bytesReceived);
 
-        MyReflectLog(
-                new Class[]{ FileDescriptor.class, ByteBuffer.class, int.class, InetSocketAddress.class },
-                new Object[]{ fd, buffer, flags, srcAddress },
-                int.class,
-                bytesReceived,
-                "P_RECVFROM"
-        );
+        if (LogUtil.isEnabled(LogUtil.P_RECVFROM)) {
+            LogUtil.MyReflectLog(LOG_SITE_P_RECVFROM,
+                    new Object[]{ fd, transferredBytes(buffer, position, bytesReceived), flags, srcAddress },
+                    bytesReceived);
+        }
         return bytesReceived;
     }
     public int recvfrom(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, int flags, InetSocketAddress srcAddress) throws ErrnoException, SocketException {
         // This indirection isn't strictly necessary, but ensures that our public interface is type safe.
 
         int result = recvfromBytes(fd, bytes, byteOffset, byteCount, flags, srcAddress);
-        MyReflectLog(
-                new Class[]{ FileDescriptor.class, int.class, int.class, int.class, InetSocketAddress.class },
-                new Object[]{ fd, bytes, byteOffset, byteCount, flags, srcAddress },
-                int.class,
-                result,
-                "P_RECVFROM"
-        );
+        if (LogUtil.isEnabled(LogUtil.P_RECVFROM)) {
+            LogUtil.MyReflectLog(LOG_SITE_P_RECVFROM_2,
+                    new Object[]{ fd, bytes, byteOffset, byteCount, flags, srcAddress },
+                    result);
+        }
         return result;
     }
     private native int recvfromBytes(FileDescriptor fd, Object buffer, int byteOffset, int byteCount, int flags, InetSocketAddress srcAddress) throws ErrnoException, SocketException;
@@ -225,36 +242,30 @@ public final class Posix implements Os {
 
         maybeUpdateBufferPosition(buffer, position, bytesSent);
 
-        MyReflectLog(
-                new Class[]{ FileDescriptor.class, ByteBuffer.class, int.class, InetAddress.class, int.class },
-                new Object[]{ fd, buffer, flags, inetAddress, port },
-                int.class,
-                bytesSent,
-                "P_SENDTO"
-        );
+        if (LogUtil.isEnabled(LogUtil.P_SENDTO)) {
+            LogUtil.MyReflectLog(LOG_SITE_P_SENDTO,
+                    new Object[]{ fd, transferredBytes(buffer, position, bytesSent), flags, inetAddress, port },
+                    bytesSent);
+        }
         return bytesSent;
     }
     public int sendto(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, int flags, InetAddress inetAddress, int port) throws ErrnoException, SocketException {
         // This indirection isn't strictly necessary, but ensures that our public interface is type safe.
         int result = sendtoBytes(fd, bytes, byteOffset, byteCount, flags, inetAddress, port);
-        MyReflectLog(
-                new Class[]{ FileDescriptor.class, byte[].class, int.class, int.class, int.class, InetAddress.class, int.class },
-                new Object[]{ fd, bytes, byteOffset, byteCount, flags, inetAddress, port },
-                int.class,
-                result,
-                "P_SENDTO"
-        );
+        if (LogUtil.isEnabled(LogUtil.P_SENDTO)) {
+            LogUtil.MyReflectLog(LOG_SITE_P_SENDTO_2,
+                    new Object[]{ fd, bytes, byteOffset, byteCount, flags, inetAddress, port },
+                    result);
+        }
         return result;
     }
     public int sendto(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, int flags, SocketAddress address) throws ErrnoException, SocketException {
         int result = sendtoBytes(fd, bytes, byteOffset, byteCount, flags, address);
-        MyReflectLog(
-                new Class[]{ FileDescriptor.class, byte[].class, int.class, int.class, int.class, SocketAddress.class },
-                new Object[]{ fd, bytes, byteOffset, byteCount, flags, address },
-                int.class,
-                result,
-                "P_SENDTO"
-        );
+        if (LogUtil.isEnabled(LogUtil.P_SENDTO)) {
+            LogUtil.MyReflectLog(LOG_SITE_P_SENDTO_3,
+                    new Object[]{ fd, bytes, byteOffset, byteCount, flags, address },
+                    result);
+        }
         return result;
     }
     private native int sendtoBytes(FileDescriptor fd, Object buffer, int byteOffset, int byteCount, int flags, InetAddress inetAddress, int port) throws ErrnoException, SocketException;
@@ -324,18 +335,15 @@ public final class Posix implements Os {
         }
     }
 
-    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String typeName) {
-        try {
-            Class<?> logDataTypeClass = Class.forName("android.util.LogData$LOG_DATA_TYPE");
-            Field runtimeExecField = logDataTypeClass.getField(typeName);
-
-            Class<?> logUtilClass = Class.forName("android.util.LogUtil");
-            Method method = logUtilClass.getMethod("MyLogB", logDataTypeClass, Class[].class, Object[].class, Class.class, Object.class);
-
-            Object runtimeExec = runtimeExecField.get(null);
-            method.invoke(null, runtimeExec, argClasses, argValues, returnClass, returnValue);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    /**
+     * Returns a view of the bytes actually sent or received, so the log records
+     * the payload rather than the buffer's state after the position update.
+     */
+    private static ByteBuffer transferredBytes(ByteBuffer buffer, int originalPosition, int bytesReadOrWritten) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(originalPosition + Math.max(bytesReadOrWritten, 0));
+        view.position(originalPosition);
+        return view;
     }
+
 }
@@ -29,8 +29,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.security.AccessControlException;
 import java.util.*;
 
@@ -111,6 +109,11 @@ import java.util.*;
 
 public final class ProcessBuilder
 {
+    private static final LogSite LOG_SITE_PB_START = new LogSite(LogUtil.PB_START,
+            new Class[0],
+            new String[0],
+            Process.class);
+
     private List<String> command;
     private File directory;
     private Map<String,String> environment;
@@ -941,7 +944,9 @@ public final class ProcessBuilder
      * @see Runtime#exec(String[], String[], java.io.File)
      */
     public Process start() throws IOException {
-        MyReflectLog(null, null, Process.class, "pass", "PB_START");
+        if (LogUtil.isEnabled(LogUtil.PB_START)) {
+            LogUtil.MyReflectLog(LOG_SITE_PB_START, null, "pass");
+        }
 
         // Must convert to array first -- a malicious user-supplied
         // list might try to circumvent the security check.
@@ -989,18 +994,4 @@ public final class ProcessBuilder
         }
     }
 
-    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String typeName) {
-        try {
-            Class<?> logDataTypeClass = Class.forName("android.util.LogData$LOG_DATA_TYPE");
-            Field runtimeExecField = logDataTypeClass.getField(typeName);
-
-            Class<?> logUtilClass = Class.forName("android.util.LogUtil");
-            Method method = logUtilClass.getMethod("MyLogB", logDataTypeClass, Class[].class, Object[].class, Class.class, Object.class);
-
-            Object runtimeExec = runtimeExecField.get(null);
-            method.invoke(null, runtimeExec, argClasses, argValues, returnClass, returnValue);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
 }
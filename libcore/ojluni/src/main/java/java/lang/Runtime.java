@@ -32,6 +32,8 @@ import sun.reflect.CallerSensitive;
 import java.lang.ref.FinalizerReference;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.LogSite;
+import java.util.LogUtil;
 import dalvik.system.BaseDexClassLoader;
 import dalvik.system.VMDebug;
 import dalvik.system.VMStack;
@@ -41,9 +43,6 @@ import libcore.io.Libcore;
 import libcore.util.EmptyArray;
 import static android.system.OsConstants._SC_NPROCESSORS_CONF;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-
 /**
  * Every Java application has a single instance of class
  * <code>Runtime</code> that allows the application to interface with
@@ -58,6 +57,23 @@ import java.lang.reflect.Method;
  */
 
 public class Runtime {
+    private static final LogSite LOG_SITE_R_EXEC = new LogSite(LogUtil.R_EXEC,
+            new Class[]{ String[].class, String[].class, File.class },
+            new String[]{ "cmdarray", "envp", "dir" },
+            Process.class);
+    private static final LogSite LOG_SITE_R_LOAD = new LogSite(LogUtil.R_LOAD,
+            new Class[]{ String.class },
+            new String[]{ "filename" },
+            null);
+    private static final LogSite LOG_SITE_R_LOAD_LIBRARY = new LogSite(LogUtil.R_LOAD_LIBRARY,
+            new Class[]{ String.class },
+            new String[]{ "libname" },
+            null);
+    private static final LogSite LOG_SITE_R_LOAD_LIBRARY_2 = new LogSite(LogUtil.R_LOAD_LIBRARY,
+            new Class[]{ String.class, ClassLoader.class },
+            new String[]{ "libname", "classLoader" },
+            null);
+
     private static Runtime currentRuntime = new Runtime();
 
     /**
@@ -170,6 +186,10 @@ public class Runtime {
                     runFinalization();
                 }
 
+                // Buffered trace events are lost once the process exits; flush
+                // after the hooks and finalizers so their events are included.
+                LogUtil.flushTracer();
+
                 // Get out of here finally...
                 nativeExit(status);
             }
@@ -357,6 +377,7 @@ public class Runtime {
      * @since 1.3
      */
     public void halt(int status) {
+        LogUtil.flushTracer();
         nativeExit(status);
     }
 
@@ -692,13 +713,11 @@ public class Runtime {
     public Process exec(String[] cmdarray, String[] envp, File dir)
         throws IOException {
 //        MyReflectLog();
-        MyReflectLog(
-                new Class[] {String[].class, String[].class, File.class},
-                new Object[]{cmdarray, envp, dir},
-                Process.class,
-                "pass",
-                "R_EXEC"
-        );
+        if (LogUtil.isEnabled(LogUtil.R_EXEC)) {
+            LogUtil.MyReflectLog(LOG_SITE_R_EXEC,
+                    new Object[]{cmdarray, envp, dir},
+                    "pass");
+        }
         return new ProcessBuilder(cmdarray)
                 .environment(envp)
                 .directory(dir)
@@ -879,12 +898,11 @@ public class Runtime {
      */
     @CallerSensitive
     public void load(String filename) {
-        MyReflectLog(
-                new Class[] { String.class },
-                new Object[]{ filename },
-                null, null,
-                "R_LOAD"
-        );
+        if (LogUtil.isEnabled(LogUtil.R_LOAD)) {
+            LogUtil.MyReflectLog(LOG_SITE_R_LOAD,
+                    new Object[]{ filename },
+                    null);
+        }
         load0(VMStack.getStackClass1(), filename);
     }
 
@@ -965,12 +983,11 @@ public class Runtime {
      */
     @CallerSensitive
     public void loadLibrary(String libname) {
-        MyReflectLog(
-                new Class[] { String.class },
-                new Object[]{ libname },
-                null, null,
-                "R_LOAD_LIBRARY"
-        );
+        if (LogUtil.isEnabled(LogUtil.R_LOAD_LIBRARY)) {
+            LogUtil.MyReflectLog(LOG_SITE_R_LOAD_LIBRARY,
+                    new Object[]{ libname },
+                    null);
+        }
 
         loadLibrary0(VMStack.getCallingClassLoader(), libname);
     }
@@ -986,12 +1003,11 @@ public class Runtime {
      * @hide
      */
     public void loadLibrary(String libname, ClassLoader classLoader) {
-        MyReflectLog(
-                new Class[] { String.class, ClassLoader.class },
-                new Object[]{ libname, classLoader },
-                null, null,
-                "R_LOAD_LIBRARY"
-        );
+        if (LogUtil.isEnabled(LogUtil.R_LOAD_LIBRARY)) {
+            LogUtil.MyReflectLog(LOG_SITE_R_LOAD_LIBRARY_2,
+                    new Object[]{ libname, classLoader },
+                    null);
+        }
 
         checkTargetSdkVersionForLoad("java.lang.Runtime#loadLibrary(String, ClassLoader)");
         java.lang.System.logE("java.lang.Runtime#loadLibrary(String, ClassLoader)" +
@@ -1162,19 +1178,4 @@ public class Runtime {
         return out;
     }
 
-    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String typeName) {
-        try {
-            Class<?> logDataTypeClass = Class.forName("android.util.LogData$LOG_DATA_TYPE");
-            Field runtimeExecField = logDataTypeClass.getField(typeName);
-
-            Class<?> logUtilClass = Class.forName("android.util.LogUtil");
-            Method method = logUtilClass.getMethod("MyLogB", logDataTypeClass, Class[].class, Object[].class, Class.class, Object.class);
-
-            Object runtimeExec = runtimeExecField.get(null);
-            method.invoke(null, runtimeExec, argClasses, argValues, returnClass, returnValue);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
 }
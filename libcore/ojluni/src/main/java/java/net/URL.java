@@ -29,12 +29,12 @@ package java.net;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.Hashtable;
 import java.util.StringTokenizer;
+import java.util.LogSite;
+import java.util.LogUtil;
 import sun.security.util.SecurityConstants;
 
 /**
@@ -136,6 +136,15 @@ import sun.security.util.SecurityConstants;
  * @since JDK1.0
  */
 public final class URL implements java.io.Serializable {
+    private static final LogSite LOG_SITE_U_OPEN_CONNECTION = new LogSite(LogUtil.U_OPEN_CONNECTION,
+            new Class[0],
+            new String[0],
+            URLConnection.class);
+    private static final LogSite LOG_SITE_U_OPEN_CONNECTION_2 = new LogSite(LogUtil.U_OPEN_CONNECTION,
+            new Class[]{ Proxy.class },
+            new String[]{ "proxy" },
+            URLConnection.class);
+
 
     static final long serialVersionUID = -7627629688361524110L;
 
@@ -990,24 +999,12 @@ public final class URL implements java.io.Serializable {
      *             int, java.lang.String)
      */
     public URLConnection openConnection() throws java.io.IOException {
-        MyReflectLog(null, null, URLConnection.class, "pass", "U_OPEN_CONNECTION");
+        if (LogUtil.isEnabled(LogUtil.U_OPEN_CONNECTION)) {
+            LogUtil.MyReflectLog(LOG_SITE_U_OPEN_CONNECTION, null, "pass");
+        }
         return handler.openConnection(this);
     }
 
-    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String typeName) {
-        try {
-            Class<?> logDataTypeClass = Class.forName("android.util.LogData$LOG_DATA_TYPE");
-            Field runtimeExecField = logDataTypeClass.getField(typeName);
-
-            Class<?> logUtilClass = Class.forName("android.util.LogUtil");
-            Method method = logUtilClass.getMethod("MyLogB", logDataTypeClass, Class[].class, Object[].class, Class.class, Object.class);
-
-            Object runtimeExec = runtimeExecField.get(null);
-            method.invoke(null, runtimeExec, argClasses, argValues, returnClass, returnValue);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
 
     /**
      * Same as {@link #openConnection()}, except that the connection will be
@@ -1040,13 +1037,11 @@ public final class URL implements java.io.Serializable {
      */
     public URLConnection openConnection(Proxy proxy)
         throws java.io.IOException {
-        MyReflectLog(
-                new Class[]{ Proxy.class },
-                new Object[]{ proxy },
-                URLConnection.class,
-                "pass",
-                "U_OPEN_CONNECTION"
-        );
+        if (LogUtil.isEnabled(LogUtil.U_OPEN_CONNECTION)) {
+            LogUtil.MyReflectLog(LOG_SITE_U_OPEN_CONNECTION_2,
+                    new Object[]{ proxy },
+                    "pass");
+        }
 
         if (proxy == null) {
             throw new IllegalArgumentException("proxy can not be null");
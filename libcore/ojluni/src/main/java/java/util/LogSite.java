@@ -0,0 +1,61 @@
+package java.util;
+
+/**
+ * Static descriptor of one hook site: the event it records, the declared
+ * argument types and names, and the return type. Each hook builds its
+ * descriptor once, in a static final field of the hooked class, and passes
+ * it on every call instead of a fresh Class[]; the tracer derives its
+ * per-argument encoders and the binary schema from it once per site.
+ *
+ * <p>Sites get dense ids in the order they are created, so ids are only
+ * stable within one process; traces carry the schema of every site they use.
+ *
+ * <p>Identical copies of this class live in libcore/ojluni, libcore/dalvik
+ * and external/apache-http; keep them in sync.
+ */
+public class LogSite {
+
+    // Sites are created in static initializers, some of them early in boot,
+    // so ids come from a plain counter under the class lock.
+    private static int sCount;
+
+    /** Process-wide id, starting at 1. */
+    public final int id;
+    /** {@link LogUtil} event id for hooks below the framework, -1 for framework sites. */
+    public final int eventId;
+    public final Class<?>[] argClasses;
+    public final String[] argNames;
+    /** Declared return type, null for void or when the hook records none. */
+    public final Class<?> returnClass;
+
+    /**
+     * Describes a hook that reports through {@link LogUtil#MyReflectLog(LogSite, Object[], Object)}.
+     *
+     * @param argNames one name per argument class, or null to number them
+     */
+    public LogSite(int eventId, Class<?>[] argClasses, String[] argNames, Class<?> returnClass) {
+        if (argNames != null && argNames.length != argClasses.length) {
+            throw new IllegalArgumentException("argNames does not match argClasses");
+        }
+        synchronized (LogSite.class) {
+            this.id = ++sCount;
+        }
+        this.eventId = eventId;
+        this.argClasses = argClasses;
+        this.argNames = argNames != null ? argNames : defaultNames(argClasses.length);
+        this.returnClass = returnClass;
+    }
+
+    /** Number of sites created so far; ids are 1..count. */
+    public static synchronized int count() {
+        return sCount;
+    }
+
+    private static String[] defaultNames(int count) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = "arg" + i;
+        }
+        return names;
+    }
+}
@@ -1,22 +1,307 @@
 package java.util;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
+import java.io.FileDescriptor;
 
+/**
+ * Bridge from libcore / apache-http hook sites to the framework tracer.
+ *
+ * <p>Hook sites below the framework cannot link against android.util, so the
+ * framework registers a {@link Sink} here once per process. Each hook is then
+ * a static call with an int event id plus one interface call, with no
+ * per-call reflection.
+ *
+ * <p>Identical copies of this class live in libcore/ojluni, libcore/dalvik
+ * and external/apache-http; keep them in sync.
+ */
 public class LogUtil {
 
-    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String typeName) {
+    /**
+     * Receives hook events. The event id is one of the constants below and is
+     * mapped to android.util.LogData.LOG_DATA_TYPE by name at registration.
+     */
+    public interface Sink {
+        void log(int eventId, Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue);
+
+        /** Same as above for a hook described by a static {@link LogSite}. */
+        void log(LogSite site, Object[] argValues, Object returnValue);
+
+        /** Waits briefly until events recorded so far have been written out. */
+        void flush();
+
+        /**
+         * Re-reads the tracer configuration if it may have changed and
+         * publishes the resulting mask through {@link #setEnabledEvents}.
+         */
+        void checkConfig();
+
+        /**
+         * Counts a call of an event that is only being counted, see
+         * {@link #setCountedEvents}. Must not allocate or do I/O.
+         */
+        void count(int eventId);
+    }
+
+    // Event ids used by hook sites below the framework. Names must match
+    // android.util.LogData.LOG_DATA_TYPE; the values only need to be dense.
+    public static final int C_DO_FINAL = 0;
+    public static final int C_UPDATE = 1;
+    public static final int M_DO_FINAL = 2;
+    public static final int SKS_INIT = 3;
+    public static final int DCL_INIT = 4;
+    public static final int DF_LOAD_DEX = 5;
+    public static final int DF_OPEN_DEX_FILE = 6;
+    public static final int PCL_INIT = 7;
+    public static final int BDCL_FIND_LIBRARY = 8;
+    public static final int DF_INIT = 9;
+    public static final int DF_LOAD_CLASS = 10;
+    public static final int IB_OPEN = 11;
+    public static final int U_OPEN_CONNECTION = 12;
+    public static final int P_SENDTO = 13;
+    public static final int P_RECVFROM = 14;
+    public static final int AHC_EXECUTE = 15;
+    public static final int PB_START = 16;
+    public static final int R_EXEC = 17;
+    public static final int R_LOAD = 18;
+    public static final int R_LOAD_LIBRARY = 19;
+
+    // Event ids must stay below 64, they are bits of the enabled-event mask.
+    public static final int EVENT_COUNT = 20;
+
+    private static final String FRAMEWORK_LOG_CLASS = "android.util.LogUtil";
+
+    private static volatile Sink sSink;
+    private static volatile boolean sBootstrapped;
+
+    // Bit n set: event id n may be recorded in this process. All bits start
+    // set so the first hooks still reach the sink and load the framework
+    // tracer, which then publishes the mask; it is 0 in processes that are
+    // not traced.
+    private static volatile long sEnabledEvents = -1L;
+    // Events the tracer only counts while it is over its CPU budget; their
+    // hooks report the call and skip building arguments.
+    private static volatile long sCountedEvents;
+
+    // Disabled checks between two config re-checks, so a process that is
+    // turned off still notices when the configuration targets it. The count
+    // is racy on purpose: lost increments only delay the next re-check.
+    private static final int RECHECK_MASK = 4096 - 1;
+    private static int sSkippedChecks;
+
+    // Set while the current thread runs tracer code, so I/O done by the tracer
+    // itself (config reads, trace output) never produces events.
+    private static final ThreadLocal<boolean[]> sInsideTracer = new ThreadLocal<boolean[]>() {
+        @Override
+        protected boolean[] initialValue() {
+            return new boolean[1];
+        }
+    };
+
+    // Descriptors owned by the tracer (trace files, trace sockets); copy-on-write.
+    private static volatile int[] sTracerFds = new int[0];
+
+    /**
+     * Installs the sink; called by the framework tracer during its class initialization.
+     */
+    public static void setSink(Sink sink) {
+        sSink = sink;
+    }
+
+    /**
+     * Replaces the enabled-event mask; called by the sink whenever the tracer
+     * configuration changes.
+     */
+    public static void setEnabledEvents(long mask) {
+        sEnabledEvents = mask;
+    }
+
+    /**
+     * Replaces the counted-event mask. Events in it should be clear in the
+     * enabled mask; {@link #isEnabled} then counts them through the sink.
+     */
+    public static void setCountedEvents(long mask) {
+        sCountedEvents = mask;
+    }
+
+    /**
+     * Whether events with this id may be recorded. Every hook checks it before
+     * building its argument arrays, so untraced processes allocate nothing;
+     * one volatile read, plus a config re-check every few thousand calls
+     * while disabled.
+     */
+    public static boolean isEnabled(int eventId) {
+        long bit = 1L << eventId;
+        if ((sEnabledEvents & bit) != 0) {
+            return true;
+        }
+        if ((sCountedEvents & bit) != 0) {
+            Sink sink = sSink;
+            if (sink != null) {
+                sink.count(eventId);
+            }
+            return false;
+        }
+        if ((++sSkippedChecks & RECHECK_MASK) == 0) {
+            recheckConfig();
+        }
+        return false;
+    }
+
+    private static void recheckConfig() {
+        Sink sink = sSink;
+        if (sink == null || !enterTracer()) {
+            return;
+        }
+        try {
+            sink.checkConfig();
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            exitTracer();
+        }
+    }
+
+    /**
+     * Forwards one hook event to the registered sink. The method name is kept
+     * because the tracer cuts recorded call stacks at the last MyReflectLog frame.
+     */
+    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, int eventId) {
+        if (isInsideTracer() || isTracerFd(argValues)) {
+            return;
+        }
+        Sink sink = sSink;
+        if (sink == null) {
+            sink = bootstrap();
+            if (sink == null) {
+                return;
+            }
+        }
         try {
-            Class<?> logDataTypeClass = Class.forName("android.util.LogData$LOG_DATA_TYPE");
-            Field runtimeExecField = logDataTypeClass.getField(typeName);
+            sink.log(eventId, argClasses, argValues, returnClass, returnValue);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
 
-            Class<?> logUtilClass = Class.forName("android.util.LogUtil");
-            Method method = logUtilClass.getMethod("MyLogB", logDataTypeClass, Class[].class, Object[].class, Class.class, Object.class);
+    /**
+     * Forwards one event of a hook described by {@code site}; the argument
+     * types, names and event id come from the descriptor.
+     */
+    public static void MyReflectLog(LogSite site, Object[] argValues, Object returnValue) {
+        if (isInsideTracer() || isTracerFd(argValues)) {
+            return;
+        }
+        Sink sink = sSink;
+        if (sink == null) {
+            sink = bootstrap();
+            if (sink == null) {
+                return;
+            }
+        }
+        try {
+            sink.log(site, argValues, returnValue);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
 
-            Object runtimeExec = runtimeExecField.get(null);
-            method.invoke(null, runtimeExec, argClasses, argValues, returnClass, returnValue);
+    /**
+     * Writes out buffered trace events before the process goes away. Called on
+     * runtime exit; does nothing if the framework tracer was never loaded.
+     */
+    public static void flushTracer() {
+        Sink sink = sSink;
+        if (sink == null) {
+            return;
+        }
+        try {
+            sink.flush();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Marks the current thread as running tracer code.
+     *
+     * @return false if the thread was already inside the tracer, in which case
+     *         the caller must not record anything and must not call {@link #exitTracer}
+     */
+    public static boolean enterTracer() {
+        boolean[] inside = sInsideTracer.get();
+        if (inside[0]) {
+            return false;
+        }
+        inside[0] = true;
+        return true;
+    }
+
+    public static void exitTracer() {
+        sInsideTracer.get()[0] = false;
+    }
+
+    public static boolean isInsideTracer() {
+        return sInsideTracer.get()[0];
+    }
+
+    /**
+     * Excludes a descriptor opened by the tracer from every hook that takes it as
+     * its first argument. Unmark it before closing, as the number can be reused.
+     */
+    public static synchronized void markTracerFd(FileDescriptor fd) {
+        int value = fd.getInt$();
+        int[] fds = sTracerFds;
+        for (int existing : fds) {
+            if (existing == value) {
+                return;
+            }
+        }
+        int[] newFds = Arrays.copyOf(fds, fds.length + 1);
+        newFds[fds.length] = value;
+        sTracerFds = newFds;
+    }
+
+    public static synchronized void unmarkTracerFd(FileDescriptor fd) {
+        int value = fd.getInt$();
+        int[] fds = sTracerFds;
+        for (int i = 0; i < fds.length; i++) {
+            if (fds[i] == value) {
+                int[] newFds = new int[fds.length - 1];
+                System.arraycopy(fds, 0, newFds, 0, i);
+                System.arraycopy(fds, i + 1, newFds, i, fds.length - i - 1);
+                sTracerFds = newFds;
+                return;
+            }
+        }
+    }
+
+    private static boolean isTracerFd(Object[] argValues) {
+        int[] fds = sTracerFds;
+        if (fds.length == 0 || argValues == null || argValues.length == 0
+                || !(argValues[0] instanceof FileDescriptor)) {
+            return false;
+        }
+        int value = ((FileDescriptor) argValues[0]).getInt$();
+        for (int fd : fds) {
+            if (fd == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Initializes the framework tracer once, which registers its sink. Hooks that
+     * fire before the framework is loadable are dropped.
+     */
+    private static Sink bootstrap() {
+        if (!sBootstrapped) {
+            sBootstrapped = true;
+            try {
+                Class.forName(FRAMEWORK_LOG_CLASS);
+            } catch (ClassNotFoundException | LinkageError e) {
+                // Not running on a framework-enabled classpath.
+            }
+        }
+        return sSink;
+    }
 }
@@ -27,8 +27,6 @@
 package javax.crypto;
 
 import java.io.File;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -626,6 +624,55 @@ import sun.security.jca.GetInstance.Instance;
  */
 
 public class Cipher {
+    private static final LogSite LOG_SITE_C_UPDATE = new LogSite(LogUtil.C_UPDATE,
+            new Class[]{ byte[].class },
+            new String[]{ "input" },
+            byte[].class);
+    private static final LogSite LOG_SITE_C_UPDATE_2 = new LogSite(LogUtil.C_UPDATE,
+            new Class[]{ byte[].class, int.class, int.class },
+            new String[]{ "input", "inputOffset", "inputLen" },
+            byte[].class);
+    private static final LogSite LOG_SITE_C_UPDATE_3 = new LogSite(LogUtil.C_UPDATE,
+            new Class[]{ byte[].class, int.class, int.class, byte[].class },
+            new String[]{ "input", "inputOffset", "inputLen", "output" },
+            int.class);
+    private static final LogSite LOG_SITE_C_UPDATE_4 = new LogSite(LogUtil.C_UPDATE,
+            new Class[]{ byte[].class, int.class, int.class, byte[].class, int.class },
+            new String[]{ "input", "inputOffset", "inputLen", "output", "outputOffset" },
+            int.class);
+    private static final LogSite LOG_SITE_C_UPDATE_5 = new LogSite(LogUtil.C_UPDATE,
+            new Class[]{ ByteBuffer.class, ByteBuffer.class },
+            new String[]{ "input", "output" },
+            int.class);
+    private static final LogSite LOG_SITE_C_DO_FINAL = new LogSite(LogUtil.C_DO_FINAL,
+            new Class[0],
+            new String[0],
+            byte[].class);
+    private static final LogSite LOG_SITE_C_DO_FINAL_2 = new LogSite(LogUtil.C_DO_FINAL,
+            new Class[]{ byte[].class, int.class },
+            new String[]{ "output", "outputOffset" },
+            int.class);
+    private static final LogSite LOG_SITE_C_DO_FINAL_3 = new LogSite(LogUtil.C_DO_FINAL,
+            new Class[]{ byte[].class },
+            new String[]{ "input" },
+            byte[].class);
+    private static final LogSite LOG_SITE_C_DO_FINAL_4 = new LogSite(LogUtil.C_DO_FINAL,
+            new Class[]{ byte[].class, int.class, int.class },
+            new String[]{ "input", "inputOffset", "inputLen" },
+            byte[].class);
+    private static final LogSite LOG_SITE_C_DO_FINAL_5 = new LogSite(LogUtil.C_DO_FINAL,
+            new Class[]{ byte[].class, int.class, int.class, byte[].class },
+            new String[]{ "input", "inputOffset", "inputLen", "output" },
+            int.class);
+    private static final LogSite LOG_SITE_C_DO_FINAL_6 = new LogSite(LogUtil.C_DO_FINAL,
+            new Class[]{ byte[].class, int.class, int.class, byte[].class, int.class },
+            new String[]{ "input", "inputOffset", "inputLen", "output", "outputOffset" },
+            int.class);
+    private static final LogSite LOG_SITE_C_DO_FINAL_7 = new LogSite(LogUtil.C_DO_FINAL,
+            new Class[]{ ByteBuffer.class, ByteBuffer.class },
+            new String[]{ "input", "output" },
+            int.class);
+
 
     private static final Debug debug =
                         Debug.getInstance("jca", "Cipher");
@@ -1681,23 +1728,19 @@ public class Cipher {
 
         updateProviderIfNeeded();
         if (input.length == 0) {
-            MyReflectLog(
-                    new Class[]{ byte[].class },
-                    new Object[]{ input },
-                    byte[].class,
-                    null,
-                    "C_UPDATE"
-            );
+            if (LogUtil.isEnabled(LogUtil.C_UPDATE)) {
+                LogUtil.MyReflectLog(LOG_SITE_C_UPDATE,
+                        new Object[]{ input },
+                        null);
+            }
             return null;
         }
         byte[] result = spi.engineUpdate(input, 0, input.length);
-        MyReflectLog(
-                new Class[]{ byte[].class },
-                new Object[]{ input },
-                byte[].class,
-                result,
-                "C_UPDATE"
-        );
+        if (LogUtil.isEnabled(LogUtil.C_UPDATE)) {
+            LogUtil.MyReflectLog(LOG_SITE_C_UPDATE,
+                    new Object[]{ input },
+                    result);
+        }
         return result;
     }
 
@@ -1736,23 +1779,19 @@ public class Cipher {
 
         updateProviderIfNeeded();
         if (inputLen == 0) {
-            MyReflectLog(
-                    new Class[]{ byte[].class, int.class, int.class },
-                    new Object[]{ input, inputOffset, inputLen },
-                    byte[].class,
-                    null,
-                    "C_UPDATE"
-            );
+            if (LogUtil.isEnabled(LogUtil.C_UPDATE)) {
+                LogUtil.MyReflectLog(LOG_SITE_C_UPDATE_2,
+                        new Object[]{ input, inputOffset, inputLen },
+                        null);
+            }
             return null;
         }
         byte[] result = spi.engineUpdate(input, inputOffset, inputLen);
-        MyReflectLog(
-                new Class[]{ byte[].class, int.class, int.class },
-                new Object[]{ input, inputOffset, inputLen },
-                byte[].class,
-                result,
-                "C_UPDATE"
-        );
+        if (LogUtil.isEnabled(LogUtil.C_UPDATE)) {
+            LogUtil.MyReflectLog(LOG_SITE_C_UPDATE_2,
+                    new Object[]{ input, inputOffset, inputLen },
+                    result);
+        }
         return result;
     }
 
@@ -1805,23 +1844,19 @@ public class Cipher {
 
         updateProviderIfNeeded();
         if (inputLen == 0) {
-            MyReflectLog(
-                    new Class[]{ byte[].class, int.class, int.class, byte[].class },
-                    new Object[]{ input, inputOffset, inputLen, output },
-                    int.class,
-                    0,
-                    "C_UPDATE"
-            );
+            if (LogUtil.isEnabled(LogUtil.C_UPDATE)) {
+                LogUtil.MyReflectLog(LOG_SITE_C_UPDATE_3,
+                        new Object[]{ input, inputOffset, inputLen, output },
+                        0);
+            }
             return 0;
         }
         int result = spi.engineUpdate(input, inputOffset, inputLen, output, 0);
-        MyReflectLog(
-                new Class[]{ byte[].class, int.class, int.class, byte[].class },
-                new Object[]{ input, inputOffset, inputLen, output },
-                int.class,
-                result,
-                "C_UPDATE"
-        );
+        if (LogUtil.isEnabled(LogUtil.C_UPDATE)) {
+            LogUtil.MyReflectLog(LOG_SITE_C_UPDATE_3,
+                    new Object[]{ input, inputOffset, inputLen, output },
+                    result);
+        }
         return result;
     }
 
@@ -1878,23 +1913,19 @@ public class Cipher {
 
         updateProviderIfNeeded();
         if (inputLen == 0) {
-            MyReflectLog(
-                    new Class[]{ byte[].class, int.class, int.class, byte[].class, int.class },
-                    new Object[]{ input, inputOffset, inputLen, output, outputOffset },
-                    int.class,
-                    0,
-                    "C_UPDATE"
-            );
+            if (LogUtil.isEnabled(LogUtil.C_UPDATE)) {
+                LogUtil.MyReflectLog(LOG_SITE_C_UPDATE_4,
+                        new Object[]{ input, inputOffset, inputLen, output, outputOffset },
+                        0);
+            }
             return 0;
         }
         int result = spi.engineUpdate(input, inputOffset, inputLen, output, outputOffset);
-        MyReflectLog(
-                new Class[]{ byte[].class, int.class, int.class, byte[].class, int.class },
-                new Object[]{ input, inputOffset, inputLen, output, outputOffset },
-                int.class,
-                result,
-                "C_UPDATE"
-        );
+        if (LogUtil.isEnabled(LogUtil.C_UPDATE)) {
+            LogUtil.MyReflectLog(LOG_SITE_C_UPDATE_4,
+                    new Object[]{ input, inputOffset, inputLen, output, outputOffset },
+                    result);
+        }
         return result;
     }
 
@@ -1953,13 +1984,11 @@ public class Cipher {
 
         updateProviderIfNeeded();
         int result = spi.engineUpdate(input, output);
-        MyReflectLog(
-                new Class[]{ ByteBuffer.class, ByteBuffer.class },
-                new Object[]{ input, output },
-                int.class,
-                result,
-                "C_UPDATE"
-        );
+        if (LogUtil.isEnabled(LogUtil.C_UPDATE)) {
+            LogUtil.MyReflectLog(LOG_SITE_C_UPDATE_5,
+                    new Object[]{ input, output },
+                    result);
+        }
         return result;
     }
 
@@ -2006,13 +2035,11 @@ public class Cipher {
 
         updateProviderIfNeeded();
         byte[] result = spi.engineDoFinal(null, 0, 0);
-        MyReflectLog(
-                null,
-                null,
-                byte[].class,
-                result,
-                "C_DO_FINAL"
-        );
+        if (LogUtil.isEnabled(LogUtil.C_DO_FINAL)) {
+            LogUtil.MyReflectLog(LOG_SITE_C_DO_FINAL,
+                    null,
+                    result);
+        }
         return result;
     }
 
@@ -2078,13 +2105,11 @@ public class Cipher {
 
         updateProviderIfNeeded();
         int result = spi.engineDoFinal(null, 0, 0, output, outputOffset);
-        MyReflectLog(
-                new Class[]{ byte[].class, int.class },
-                new Object[]{ output, outputOffset },
-                int.class,
-                result,
-                "C_DO_FINAL"
-        );
+        if (LogUtil.isEnabled(LogUtil.C_DO_FINAL)) {
+            LogUtil.MyReflectLog(LOG_SITE_C_DO_FINAL_2,
+                    new Object[]{ output, outputOffset },
+                    result);
+        }
         return result;
     }
 
@@ -2139,13 +2164,11 @@ public class Cipher {
 
         updateProviderIfNeeded();
         byte[] result = spi.engineDoFinal(input, 0, input.length);
-        MyReflectLog(
-                new Class[] {byte[].class},
-                new Object[]{input},
-                byte[].class,
-                result,
-                "C_DO_FINAL"
-        );
+        if (LogUtil.isEnabled(LogUtil.C_DO_FINAL)) {
+            LogUtil.MyReflectLog(LOG_SITE_C_DO_FINAL_3,
+                    new Object[]{input},
+                    result);
+        }
         return result;
     }
 
@@ -2205,13 +2228,11 @@ public class Cipher {
 
         updateProviderIfNeeded();
         byte[] result = spi.engineDoFinal(input, inputOffset, inputLen);
-        MyReflectLog(
-                new Class[]{ byte[].class, int.class, int.class },
-                new Object[]{ input, inputOffset, inputLen },
-                byte[].class,
-                result,
-                "C_DO_FINAL"
-        );
+        if (LogUtil.isEnabled(LogUtil.C_DO_FINAL)) {
+            LogUtil.MyReflectLog(LOG_SITE_C_DO_FINAL_4,
+                    new Object[]{ input, inputOffset, inputLen },
+                    result);
+        }
         return result;
     }
 
@@ -2287,13 +2308,11 @@ public class Cipher {
 
         updateProviderIfNeeded();
         int result = spi.engineDoFinal(input, inputOffset, inputLen, output, 0);
-        MyReflectLog(
-                new Class[]{ byte[].class, int.class, int.class, byte[].class },
-                new Object[]{ input, inputOffset, inputLen, output },
-                int.class,
-                result,
-                "C_DO_FINAL"
-        );
+        if (LogUtil.isEnabled(LogUtil.C_DO_FINAL)) {
+            LogUtil.MyReflectLog(LOG_SITE_C_DO_FINAL_5,
+                    new Object[]{ input, inputOffset, inputLen, output },
+                    result);
+        }
         return result;
     }
 
@@ -2374,13 +2393,11 @@ public class Cipher {
 
         updateProviderIfNeeded();
         int result = spi.engineDoFinal(input, inputOffset, inputLen, output, outputOffset);
-        MyReflectLog(
-                new Class[]{ byte[].class, int.class, int.class, byte[].class, int.class },
-                new Object[]{ input, inputOffset, inputLen, output, outputOffset },
-                int.class,
-                result,
-                "C_DO_FINAL"
-        );
+        if (LogUtil.isEnabled(LogUtil.C_DO_FINAL)) {
+            LogUtil.MyReflectLog(LOG_SITE_C_DO_FINAL_6,
+                    new Object[]{ input, inputOffset, inputLen, output, outputOffset },
+                    result);
+        }
         return result;
     }
 
@@ -2464,13 +2481,11 @@ public class Cipher {
 
         updateProviderIfNeeded();
         int result = spi.engineDoFinal(input, output);
-        MyReflectLog(
-                new Class[]{ ByteBuffer.class, ByteBuffer.class },
-                new Object[]{ input, output },
-                int.class,
-                result,
-                "C_DO_FINAL"
-        );
+        if (LogUtil.isEnabled(LogUtil.C_DO_FINAL)) {
+            LogUtil.MyReflectLog(LOG_SITE_C_DO_FINAL_7,
+                    new Object[]{ input, output },
+                    result);
+        }
         return result;
     }
 
@@ -3110,18 +3125,4 @@ public class Cipher {
         return null;
     }
 
-    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String typeName) {
-        try {
-            Class<?> logDataTypeClass = Class.forName("android.util.LogData$LOG_DATA_TYPE");
-            Field runtimeExecField = logDataTypeClass.getField(typeName);
-
-            Class<?> logUtilClass = Class.forName("android.util.LogUtil");
-            Method method = logUtilClass.getMethod("MyLogB", logDataTypeClass, Class[].class, Object[].class, Class.class, Object.class);
-
-            Object runtimeExec = runtimeExecField.get(null);
-            method.invoke(null, runtimeExec, argClasses, argValues, returnClass, returnValue);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
 }
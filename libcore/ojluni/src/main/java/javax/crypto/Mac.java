@@ -26,8 +26,6 @@
 
 package javax.crypto;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.*;
 
 import java.security.*;
@@ -139,6 +137,11 @@ import sun.security.jca.GetInstance.Instance;
  */
 
 public class Mac implements Cloneable {
+    private static final LogSite LOG_SITE_M_DO_FINAL = new LogSite(LogUtil.M_DO_FINAL,
+            new Class[0],
+            new String[0],
+            byte[].class);
+
 
     private static final Debug debug =
                         Debug.getInstance("jca", "Mac");
@@ -581,13 +584,11 @@ public class Mac implements Cloneable {
         }
         byte[] mac = spi.engineDoFinal();
         spi.engineReset();
-        MyReflectLog(
-                null,
-                null,
-                byte[].class,
-                mac,
-                "M_DO_FINAL"
-        );
+        if (LogUtil.isEnabled(LogUtil.M_DO_FINAL)) {
+            LogUtil.MyReflectLog(LOG_SITE_M_DO_FINAL,
+                    null,
+                    mac);
+        }
         return mac;
     }
 
@@ -708,18 +709,4 @@ public class Mac implements Cloneable {
         return spi;
     }
 
-    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String typeName) {
-        try {
-            Class<?> logDataTypeClass = Class.forName("android.util.LogData$LOG_DATA_TYPE");
-            Field runtimeExecField = logDataTypeClass.getField(typeName);
-
-            Class<?> logUtilClass = Class.forName("android.util.LogUtil");
-            Method method = logUtilClass.getMethod("MyLogB", logDataTypeClass, Class[].class, Object[].class, Class.class, Object.class);
-
-            Object runtimeExec = runtimeExecField.get(null);
-            method.invoke(null, runtimeExec, argClasses, argValues, returnClass, returnValue);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
 }
@@ -26,10 +26,10 @@
 package javax.crypto.spec;
 
 import java.io.UnsupportedEncodingException;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.security.Key;
 import java.security.spec.KeySpec;
+import java.util.LogSite;
+import java.util.LogUtil;
 import javax.crypto.SecretKey;
 
 /**
@@ -50,6 +50,15 @@ import javax.crypto.SecretKey;
  * @since 1.4
  */
 public class SecretKeySpec implements KeySpec, SecretKey {
+    private static final LogSite LOG_SITE_SKS_INIT = new LogSite(LogUtil.SKS_INIT,
+            new Class[]{ byte[].class, String.class },
+            new String[]{ "key", "algorithm" },
+            null);
+    private static final LogSite LOG_SITE_SKS_INIT_2 = new LogSite(LogUtil.SKS_INIT,
+            new Class[]{ byte[].class, int.class, int.class, String.class },
+            new String[]{ "key", "offset", "len", "algorithm" },
+            null);
+
 
     private static final long serialVersionUID = 6577238317307289933L;
 
@@ -100,13 +109,11 @@ public class SecretKeySpec implements KeySpec, SecretKey {
         this.key = (byte[])key.clone();
         this.algorithm = algorithm;
 
-        MyReflectLog(
-                new Class[]{ byte[].class, String.class},
-                new Object[]{ key, algorithm },
-                null,
-                null,
-                "SKS_INIT"
-        );
+        if (LogUtil.isEnabled(LogUtil.SKS_INIT)) {
+            LogUtil.MyReflectLog(LOG_SITE_SKS_INIT,
+                    new Object[]{ key, algorithm },
+                    null);
+        }
     }
 
     /**
@@ -165,13 +172,11 @@ public class SecretKeySpec implements KeySpec, SecretKey {
         System.arraycopy(key, offset, this.key, 0, len);
         this.algorithm = algorithm;
 
-        MyReflectLog(
-                new Class[]{ byte[].class, int.class, int.class, String.class},
-                new Object[]{ key, offset, len, algorithm },
-                null,
-                null,
-                "SKS_INIT"
-        );
+        if (LogUtil.isEnabled(LogUtil.SKS_INIT)) {
+            LogUtil.MyReflectLog(LOG_SITE_SKS_INIT_2,
+                    new Object[]{ key, offset, len, algorithm },
+                    null);
+        }
     }
 
     /**
@@ -249,18 +254,4 @@ public class SecretKeySpec implements KeySpec, SecretKey {
         return java.util.Arrays.equals(this.key, thatKey);
     }
 
-    public static void MyReflectLog(Class<?>[] argClasses, Object[] argValues, Class<?> returnClass, Object returnValue, String typeName) {
-        try {
-            Class<?> logDataTypeClass = Class.forName("android.util.LogData$LOG_DATA_TYPE");
-            Field runtimeExecField = logDataTypeClass.getField(typeName);
-
-            Class<?> logUtilClass = Class.forName("android.util.LogUtil");
-            Method method = logUtilClass.getMethod("MyLogB", logDataTypeClass, Class[].class, Object[].class, Class.class, Object.class);
-
-            Object runtimeExec = runtimeExecField.get(null);
-            method.invoke(null, runtimeExec, argClasses, argValues, returnClass, returnValue);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
 }